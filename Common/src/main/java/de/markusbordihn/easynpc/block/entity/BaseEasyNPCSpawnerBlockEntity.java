@@ -21,6 +21,7 @@ package de.markusbordihn.easynpc.block.entity;
 
 import de.markusbordihn.easynpc.Constants;
 import de.markusbordihn.easynpc.block.BaseEasyNPCSpawnerBlock;
+import de.markusbordihn.easynpc.entity.EasyNPCSpatialIndex;
 import de.markusbordihn.easynpc.entity.easynpc.EasyNPC;
 import de.markusbordihn.easynpc.item.configuration.EasyNPCPresetItem;
 import de.markusbordihn.easynpc.network.components.TextComponent;
@@ -35,6 +36,7 @@ import net.minecraft.core.Direction;
 import net.minecraft.core.NonNullList;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.network.chat.Component;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.ContainerHelper;
 import net.minecraft.world.entity.LivingEntity;
 import net.minecraft.world.entity.player.Inventory;
@@ -411,14 +413,19 @@ public class BaseEasyNPCSpawnerBlockEntity extends BaseContainerBlockEntity {
       return new HashSet<>();
     }
     Set<EasyNPC<?>> foundEasyNPCs = new HashSet<>();
-    AABB aabb = new AABB(blockPos).inflate(range);
-    for (LivingEntity livingEntity : level.getEntitiesOfClass(LivingEntity.class, aabb)) {
-      if (livingEntity instanceof EasyNPC<?> easyNPC
-          && easyNPC.getEasyNPCSpawnerData().hasSpawnerUUID()
-          && easyNPC.getEasyNPCSpawnerData().getSpawnerUUID().equals(this.spawnerUUID)) {
-        foundEasyNPCs.add(easyNPC);
-      }
+    if (!(this.level instanceof ServerLevel serverLevel)) {
+      return foundEasyNPCs;
     }
+    AABB aabb = new AABB(blockPos).inflate(range);
+    EasyNPCSpatialIndex.findNpcsInBox(
+        serverLevel,
+        aabb,
+        easyNPC -> {
+          if (easyNPC.getEasyNPCSpawnerData().hasSpawnerUUID()
+              && easyNPC.getEasyNPCSpawnerData().getSpawnerUUID().equals(this.spawnerUUID)) {
+            foundEasyNPCs.add(easyNPC);
+          }
+        });
     return foundEasyNPCs;
   }
 
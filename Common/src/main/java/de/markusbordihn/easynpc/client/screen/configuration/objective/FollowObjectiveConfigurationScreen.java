@@ -43,6 +43,9 @@ public class FollowObjectiveConfigurationScreen<T extends ConfigurationMenu>
   protected Checkbox followEntityCheckbox;
   protected EditBox followEntityUUID;
   protected Button followEntityUUIDSaveButton;
+  protected Checkbox followGroupCheckbox;
+  protected EditBox followGroupUUID;
+  protected Button followGroupUUIDSaveButton;
 
   public FollowObjectiveConfigurationScreen(T menu, Inventory inventory, Component component) {
     super(menu, inventory, component);
@@ -215,5 +218,67 @@ public class FollowObjectiveConfigurationScreen<T extends ConfigurationMenu>
                   NetworkMessageHandlerManager.getServerHandler()
                       .addOrUpdateObjective(this.getEasyNPCUUID(), objectiveDataEntry);
                 }));
+
+    // Follow Entity as Group with UUID input field
+    objectiveEntriesTop += SPACE_BETWEEN_ENTRIES;
+    ObjectiveDataEntry followGroupObjective =
+        objectiveDataSet.getObjective(ObjectiveType.FOLLOW_GROUP);
+    this.followGroupCheckbox =
+        this.addRenderableWidget(
+            new Checkbox(
+                objectiveEntriesFirstColumn,
+                objectiveEntriesTop,
+                ObjectiveType.FOLLOW_GROUP.getObjectiveName(),
+                followGroupObjective != null,
+                checkbox -> {
+                  ObjectiveDataEntry objectiveDataEntry =
+                      createFollowGroupObjective(followGroupUUID.getValue());
+                  followGroupUUID.setEditable(checkbox.selected());
+                  followGroupUUIDSaveButton.active = checkbox.selected();
+                  if (!checkbox.selected()) {
+                    NetworkMessageHandlerManager.getServerHandler()
+                        .removeObjective(this.getEasyNPCUUID(), objectiveDataEntry);
+                  } else if (objectiveDataEntry.getTargetEntityUUID() != null) {
+                    NetworkMessageHandlerManager.getServerHandler()
+                        .addOrUpdateObjective(this.getEasyNPCUUID(), objectiveDataEntry);
+                  }
+                }));
+    this.followGroupUUID =
+        this.addRenderableWidget(
+            new TextField(this.font, objectiveEntriesSecondColumn, objectiveEntriesTop, 125));
+    followGroupUUID.setMaxLength(36);
+    followGroupUUID.setEditable(followGroupObjective != null);
+    followGroupUUID.setValue(
+        followGroupObjective != null && followGroupObjective.getTargetEntityUUID() != null
+            ? followGroupObjective.getTargetEntityUUID().toString()
+            : "");
+    this.followGroupUUIDSaveButton =
+        this.addRenderableWidget(
+            new SaveButton(
+                this.followGroupUUID.getX() + this.followGroupUUID.getWidth() + 5,
+                objectiveEntriesTop - 1,
+                onPress -> {
+                  ObjectiveDataEntry objectiveDataEntry =
+                      createFollowGroupObjective(followGroupUUID.getValue());
+                  if (objectiveDataEntry.getTargetEntityUUID() != null) {
+                    NetworkMessageHandlerManager.getServerHandler()
+                        .addOrUpdateObjective(this.getEasyNPCUUID(), objectiveDataEntry);
+                  }
+                }));
+    this.followGroupUUIDSaveButton.active = followGroupObjective != null;
+    followGroupUUID.setResponder(
+        value -> this.followGroupUUIDSaveButton.active = value != null && !value.isEmpty());
+  }
+
+  private ObjectiveDataEntry createFollowGroupObjective(String entityUUID) {
+    ObjectiveDataEntry objectiveDataEntry = new ObjectiveDataEntry(ObjectiveType.FOLLOW_GROUP, 7);
+    if (entityUUID != null && !entityUUID.isEmpty()) {
+      try {
+        objectiveDataEntry.setTargetEntityUUID(UUID.fromString(entityUUID));
+      } catch (IllegalArgumentException e) {
+        log.error("Unable to parse UUID {} for {}", entityUUID, this.getEasyNPCUUID());
+      }
+    }
+    return objectiveDataEntry;
   }
 }
@@ -29,6 +29,7 @@ import com.mojang.brigadier.suggestion.SuggestionsBuilder;
 import de.markusbordihn.easynpc.Constants;
 import de.markusbordihn.easynpc.access.AccessManager;
 import de.markusbordihn.easynpc.commands.selector.EasyNPCSelectorParser;
+import de.markusbordihn.easynpc.entity.EasyNPCDormancyManager;
 import de.markusbordihn.easynpc.entity.easynpc.EasyNPC;
 import de.markusbordihn.easynpc.network.NetworkMessageHandlerManager;
 import de.markusbordihn.easynpc.network.components.TextComponent;
@@ -122,6 +123,7 @@ public class EasyNPCArgument implements ArgumentType<EntitySelector> {
     Collection<EasyNPC<?>> easyNPCs = new ArrayList<>();
     for (Entity entity : entities) {
       if (entity instanceof EasyNPC<?> easyNPC) {
+        EasyNPCDormancyManager.wakeUp(easyNPC);
         easyNPCs.add(easyNPC);
       }
     }
@@ -26,12 +26,14 @@ import com.mojang.brigadier.suggestion.Suggestions;
 import com.mojang.brigadier.suggestion.SuggestionsBuilder;
 import de.markusbordihn.easynpc.Constants;
 import de.markusbordihn.easynpc.commands.suggestion.EasyNPCSuggestions;
+import de.markusbordihn.easynpc.network.components.TextComponent;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.function.Consumer;
-import java.util.stream.Stream;
 import net.minecraft.commands.arguments.selector.EntitySelectorParser;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -77,25 +79,31 @@ public class EasyNPCSelectorParser extends EntitySelectorParser {
       log.error("Failed to get suggestions:", e);
     }
 
-    // Add known UUIDs to suggestions
+    // Add known UUIDs and UUIDs of matching custom names to suggestions.
     String argument = suggestionsBuilder.getRemainingLowerCase();
     if (argument != null && !argument.isEmpty() && !argument.startsWith("@")) {
-      Stream<String> possibleUUIDs = EasyNPCSuggestions.suggestUUID(argument);
-      if (possibleUUIDs != null) {
-        possibleUUIDs.forEach(
-            uuid -> {
-              for (Suggestion suggestion : suggestionsList) {
-                if (suggestion.getText().equals(uuid)) {
-                  return;
-                }
-              }
-              suggestionsList.add(
-                  new Suggestion(
-                      StringRange.between(
-                          suggestionsBuilder.getStart(), suggestionsBuilder.getInput().length()),
-                      uuid));
-            });
+      Set<String> knownSuggestions = new HashSet<>();
+      for (Suggestion suggestion : suggestionsList) {
+        knownSuggestions.add(suggestion.getText());
       }
+      StringRange argumentRange =
+          StringRange.between(
+              suggestionsBuilder.getStart(), suggestionsBuilder.getInput().length());
+      EasyNPCSuggestions.suggestUUID(argument)
+          .forEach(
+              uuid -> {
+                if (knownSuggestions.add(uuid)) {
+                  suggestionsList.add(new Suggestion(argumentRange, uuid));
+                }
+              });
+      EasyNPCSuggestions.suggestUUIDByName(argument)
+          .forEach(
+              (uuid, name) -> {
+                if (knownSuggestions.add(uuid.toString())) {
+                  suggestionsList.add(
+                      new Suggestion(argumentRange, uuid.toString(), TextComponent.getText(name)));
+                }
+              });
     }
 
     // Build new suggestions with the combined list.
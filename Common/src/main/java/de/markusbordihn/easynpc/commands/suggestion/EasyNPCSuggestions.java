@@ -24,6 +24,8 @@ import com.mojang.brigadier.exceptions.CommandSyntaxException;
 import com.mojang.brigadier.suggestion.Suggestions;
 import com.mojang.brigadier.suggestion.SuggestionsBuilder;
 import de.markusbordihn.easynpc.entity.LivingEntityManager;
+import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.stream.Stream;
 import net.minecraft.commands.CommandSourceStack;
@@ -32,6 +34,8 @@ import net.minecraft.server.level.ServerPlayer;
 
 public class EasyNPCSuggestions {
 
+  public static final int MAX_SUGGESTIONS = 50;
+
   private EasyNPCSuggestions() {}
 
   public static Stream<String> suggestUUID(ServerPlayer serverPlayer) {
@@ -41,7 +45,11 @@ public class EasyNPCSuggestions {
   }
 
   public static Stream<String> suggestUUID(String startWith) {
-    return LivingEntityManager.getUUIDStrings().filter(uuid -> uuid.startsWith(startWith));
+    return LivingEntityManager.getUUIDStrings(startWith, MAX_SUGGESTIONS).stream();
+  }
+
+  public static Map<UUID, String> suggestUUIDByName(String startWith) {
+    return LivingEntityManager.getUUIDsByName(startWith, MAX_SUGGESTIONS);
   }
 
   public static CompletableFuture<Suggestions> suggestUUID(
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2024 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easynpc.config;
+
+import de.markusbordihn.easynpc.data.action.ActionEventType;
+import de.markusbordihn.easynpc.data.action.ActionQueuePolicy;
+import java.io.File;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Properties;
+
+public class ActionQueueConfig extends Config {
+
+  public static final String CONFIG_FILE_NAME = "action_queue.cfg";
+  public static final String CONFIG_FILE_HEADER =
+      """
+Action Queue Configuration
+
+ Action events are queued and executed with a limited rate per NPC, player and server tick.
+ max_actions_per_tick: Max. number of queued actions per server tick, 0 = unlimited.
+ max_queue_size: Max. number of queued actions per level, additional actions are dropped.
+ max_delay_ticks: Max. number of ticks a queued action could wait, before it is dropped.
+ npc_bucket_size / player_bucket_size: Max. number of actions in a row per NPC / player.
+ npc_refill_ticks / player_refill_ticks: Number of ticks to refill one action per NPC / player.
+ <event>.policy: execute = immediately, coalesce = merge duplicates, delay = wait, drop = skip.
+""";
+
+  private static final EnumMap<ActionEventType, ActionQueuePolicy> actionQueuePolicyMap =
+      new EnumMap<>(ActionEventType.class);
+  private static int maxActionsPerTick = 32;
+  private static int maxQueueSize = 1024;
+  private static int maxDelayTicks = 200;
+  private static int npcBucketSize = 8;
+  private static int npcRefillTicks = 10;
+  private static int playerBucketSize = 8;
+  private static int playerRefillTicks = 10;
+
+  public static void registerConfig() {
+    registerConfigFile(CONFIG_FILE_NAME, CONFIG_FILE_HEADER);
+    parseConfigFile();
+  }
+
+  public static void parseConfigFile() {
+    File configFile = getConfigFile(CONFIG_FILE_NAME);
+    Properties properties = readConfigFile(configFile);
+    Properties unmodifiedProperties = (Properties) properties.clone();
+
+    maxActionsPerTick =
+        Math.max(0, parseConfigValue(properties, "max_actions_per_tick", maxActionsPerTick));
+    maxQueueSize = Math.max(1, parseConfigValue(properties, "max_queue_size", maxQueueSize));
+    maxDelayTicks = Math.max(1, parseConfigValue(properties, "max_delay_ticks", maxDelayTicks));
+    npcBucketSize = Math.max(1, parseConfigValue(properties, "npc_bucket_size", npcBucketSize));
+    npcRefillTicks = Math.max(1, parseConfigValue(properties, "npc_refill_ticks", npcRefillTicks));
+    playerBucketSize =
+        Math.max(1, parseConfigValue(properties, "player_bucket_size", playerBucketSize));
+    playerRefillTicks =
+        Math.max(1, parseConfigValue(properties, "player_refill_ticks", playerRefillTicks));
+
+    for (ActionEventType actionEventType : ActionEventType.values()) {
+      String key = actionEventType.name().toLowerCase(Locale.ROOT) + ".policy";
+      String defaultPolicy =
+          getDefaultActionQueuePolicy(actionEventType).name().toLowerCase(Locale.ROOT);
+      actionQueuePolicyMap.put(
+          actionEventType, ActionQueuePolicy.get(parseConfigValue(properties, key, defaultPolicy)));
+    }
+
+    // Update config file if needed
+    updateConfigFileIfChanged(configFile, CONFIG_FILE_HEADER, properties, unmodifiedProperties);
+  }
+
+  private static ActionQueuePolicy getDefaultActionQueuePolicy(ActionEventType actionEventType) {
+    // Distance and hurt events could be triggered by many players at once, but player
+    // interactions like opening a dialog need an immediate response and death events need to be
+    // executed before the NPC is removed.
+    return switch (actionEventType) {
+      case ON_DISTANCE_NEAR,
+          ON_DISTANCE_CLOSE,
+          ON_DISTANCE_VERY_CLOSE,
+          ON_DISTANCE_TOUCH,
+          ON_HURT -> ActionQueuePolicy.COALESCE;
+      default -> ActionQueuePolicy.EXECUTE;
+    };
+  }
+
+  public static ActionQueuePolicy getActionQueuePolicy(ActionEventType actionEventType) {
+    return actionQueuePolicyMap.getOrDefault(actionEventType, ActionQueuePolicy.EXECUTE);
+  }
+
+  public static int getMaxActionsPerTick() {
+    return maxActionsPerTick;
+  }
+
+  public static int getMaxQueueSize() {
+    return maxQueueSize;
+  }
+
+  public static int getMaxDelayTicks() {
+    return maxDelayTicks;
+  }
+
+  public static int getNpcBucketSize() {
+    return npcBucketSize;
+  }
+
+  public static int getNpcRefillTicks() {
+    return npcRefillTicks;
+  }
+
+  public static int getPlayerBucketSize() {
+    return playerBucketSize;
+  }
+
+  public static int getPlayerRefillTicks() {
+    return playerRefillTicks;
+  }
+}
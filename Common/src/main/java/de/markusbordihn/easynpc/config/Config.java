@@ -53,6 +53,9 @@ public class Config {
   public static void registerCommonConfig() {
     log.info("{} Registering common configuration ...", LOG_PREFIX);
     RenderEntityTypeSupportConfig.registerConfig();
+    PerformanceConfig.registerConfig();
+    ObjectiveLevelOfDetailConfig.registerConfig();
+    ActionQueueConfig.registerConfig();
   }
 
   public static void registerClientConfig() {
@@ -183,6 +186,19 @@ public class Config {
     return defaultValue;
   }
 
+  protected static String parseConfigValue(
+      final Properties properties, final String key, final String defaultValue) {
+    if (properties.containsKey(key)) {
+      String value = properties.getProperty(key).trim();
+      if (!value.isEmpty()) {
+        return value;
+      }
+      log.error("{} Empty String value for key {}!", LOG_PREFIX, key);
+    }
+    properties.setProperty(key, defaultValue);
+    return defaultValue;
+  }
+
   protected static Set<String> parseConfigValue(
       final Properties properties, final String key, final Set<String> defaultValue) {
     if (properties.containsKey(key)) {
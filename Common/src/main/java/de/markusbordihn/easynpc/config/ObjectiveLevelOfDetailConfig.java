@@ -0,0 +1,150 @@
+/*
+ * Copyright 2024 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easynpc.config;
+
+import de.markusbordihn.easynpc.data.objective.ObjectiveType;
+import java.io.File;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Set;
+
+public class ObjectiveLevelOfDetailConfig extends Config {
+
+  public static final String CONFIG_FILE_NAME = "objective_level_of_detail.cfg";
+  public static final String CONFIG_FILE_HEADER =
+      """
+Objective Level of Detail Configuration
+
+ Goals of objectives are evaluated less often, if the nearest player is farther away.
+ <objective>.full_rate_distance: Max. distance to the nearest player for full rate, 0 = always.
+ <objective>.disable_distance: Min. distance to the nearest player to disable it, 0 = never.
+""";
+  private static final int LOOK_FULL_RATE_DISTANCE = 16;
+  private static final int LOOK_DISABLE_DISTANCE = 32;
+  private static final int DEFAULT_FULL_RATE_DISTANCE = 32;
+
+  private static final Set<ObjectiveType> lookObjectiveTypes =
+      EnumSet.of(
+          ObjectiveType.LOOK_AT_ANIMAL,
+          ObjectiveType.LOOK_AT_ENTITY_BY_UUID,
+          ObjectiveType.LOOK_AT_ITEM,
+          ObjectiveType.LOOK_AT_MOB,
+          ObjectiveType.LOOK_AT_OWNER,
+          ObjectiveType.LOOK_AT_PLAYER,
+          ObjectiveType.LOOK_AT_RESET,
+          ObjectiveType.LOOK_RANDOM_AROUND);
+
+  // Combat and follow objectives need to react immediately and are always evaluated at full rate.
+  private static final Set<ObjectiveType> fullRateObjectiveTypes =
+      EnumSet.of(
+          ObjectiveType.ATTACK_ANIMAL,
+          ObjectiveType.ATTACK_MOB,
+          ObjectiveType.ATTACK_MOB_WITHOUT_CREEPER,
+          ObjectiveType.ATTACK_MONSTER,
+          ObjectiveType.ATTACK_PLAYER,
+          ObjectiveType.ATTACK_PLAYER_WITHOUT_OWNER,
+          ObjectiveType.ATTACK_VILLAGER,
+          ObjectiveType.BOW_ATTACK,
+          ObjectiveType.CROSSBOW_ATTACK,
+          ObjectiveType.FLOAT,
+          ObjectiveType.FOLLOW_ENTITY_BY_UUID,
+          ObjectiveType.FOLLOW_GROUP,
+          ObjectiveType.FOLLOW_ITEM,
+          ObjectiveType.FOLLOW_OWNER,
+          ObjectiveType.FOLLOW_PLAYER,
+          ObjectiveType.GUN_ATTACK,
+          ObjectiveType.MELEE_ATTACK,
+          ObjectiveType.NONE,
+          ObjectiveType.PANIC,
+          ObjectiveType.ZOMBIE_ATTACK);
+
+  private static final EnumMap<ObjectiveType, Integer> fullRateDistanceMap =
+      new EnumMap<>(ObjectiveType.class);
+  private static final EnumMap<ObjectiveType, Integer> disableDistanceMap =
+      new EnumMap<>(ObjectiveType.class);
+  private static int maxDistance = 0;
+
+  public static void registerConfig() {
+    registerConfigFile(CONFIG_FILE_NAME, CONFIG_FILE_HEADER);
+    parseConfigFile();
+  }
+
+  public static void parseConfigFile() {
+    File configFile = getConfigFile(CONFIG_FILE_NAME);
+    Properties properties = readConfigFile(configFile);
+    Properties unmodifiedProperties = (Properties) properties.clone();
+
+    maxDistance = 0;
+    for (ObjectiveType objectiveType : ObjectiveType.values()) {
+      String key = objectiveType.name().toLowerCase(Locale.ROOT);
+      int fullRateDistance =
+          Math.max(
+              0,
+              parseConfigValue(
+                  properties,
+                  key + ".full_rate_distance",
+                  getDefaultFullRateDistance(objectiveType)));
+      int disableDistance =
+          Math.max(
+              0,
+              parseConfigValue(
+                  properties,
+                  key + ".disable_distance",
+                  lookObjectiveTypes.contains(objectiveType) ? LOOK_DISABLE_DISTANCE : 0));
+      fullRateDistanceMap.put(objectiveType, fullRateDistance);
+      disableDistanceMap.put(objectiveType, disableDistance);
+      maxDistance = Math.max(maxDistance, Math.max(fullRateDistance, disableDistance));
+    }
+
+    // Update config file if needed
+    updateConfigFileIfChanged(configFile, CONFIG_FILE_HEADER, properties, unmodifiedProperties);
+  }
+
+  private static int getDefaultFullRateDistance(ObjectiveType objectiveType) {
+    if (fullRateObjectiveTypes.contains(objectiveType)) {
+      return 0;
+    }
+    return lookObjectiveTypes.contains(objectiveType)
+        ? LOOK_FULL_RATE_DISTANCE
+        : DEFAULT_FULL_RATE_DISTANCE;
+  }
+
+  public static int getFullRateDistance(ObjectiveType objectiveType) {
+    return fullRateDistanceMap.getOrDefault(objectiveType, 0);
+  }
+
+  public static int getDisableDistance(ObjectiveType objectiveType) {
+    return disableDistanceMap.getOrDefault(objectiveType, 0);
+  }
+
+  public static boolean hasLevelOfDetail(ObjectiveType objectiveType) {
+    return getFullRateDistance(objectiveType) > 0 || getDisableDistance(objectiveType) > 0;
+  }
+
+  public static boolean isLookObjective(ObjectiveType objectiveType) {
+    return lookObjectiveTypes.contains(objectiveType);
+  }
+
+  public static int getMaxDistance() {
+    return maxDistance;
+  }
+}
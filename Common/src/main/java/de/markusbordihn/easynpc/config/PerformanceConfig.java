@@ -0,0 +1,103 @@
+/*
+ * Copyright 2024 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easynpc.config;
+
+import java.io.File;
+import java.util.Properties;
+
+public class PerformanceConfig extends Config {
+
+  public static final String CONFIG_FILE_NAME = "performance.cfg";
+  public static final String CONFIG_FILE_HEADER =
+      """
+Performance Configuration
+
+ Please note that these settings only affect the server-side logic of Easy NPC entities.
+ tick_budget: Max. time in milliseconds per server tick for periodic NPC work, 0 = unlimited.
+ dormant_radius: NPCs without any player in this radius become dormant (min. 16), 0 = disabled.
+ share_follow_paths: NPCs following the same target reuse recent paths of nearby followers.
+ share_nearest_entity_queries: NPCs within the same chunk section share look at and target scans.
+ async_pathfinding_threads: Worker threads for NPC paths on block snapshots, 0 = disabled.
+ async_pathfinding_queue_size: Max. queued paths, before paths are calculated synchronously.
+""";
+
+  private static int tickBudget = 5;
+  private static int dormantRadius = 64;
+  private static boolean shareFollowPaths = true;
+  private static boolean shareNearestEntityQueries = true;
+  private static int asyncPathfindingThreads = 0;
+  private static int asyncPathfindingQueueSize = 64;
+
+  public static void registerConfig() {
+    registerConfigFile(CONFIG_FILE_NAME, CONFIG_FILE_HEADER);
+    parseConfigFile();
+  }
+
+  public static void parseConfigFile() {
+    File configFile = getConfigFile(CONFIG_FILE_NAME);
+    Properties properties = readConfigFile(configFile);
+    Properties unmodifiedProperties = (Properties) properties.clone();
+
+    tickBudget = Math.max(0, parseConfigValue(properties, "tick_budget", tickBudget));
+    dormantRadius = parseConfigValue(properties, "dormant_radius", dormantRadius);
+    if (dormantRadius > 0 && dormantRadius < 16) {
+      log.warn("Dormant radius {} is too small, using 16 instead!", dormantRadius);
+      dormantRadius = 16;
+    }
+    shareFollowPaths = parseConfigValue(properties, "share_follow_paths", shareFollowPaths);
+    shareNearestEntityQueries =
+        parseConfigValue(properties, "share_nearest_entity_queries", shareNearestEntityQueries);
+    asyncPathfindingThreads =
+        Math.max(
+            0, parseConfigValue(properties, "async_pathfinding_threads", asyncPathfindingThreads));
+    asyncPathfindingQueueSize =
+        Math.max(
+            1,
+            parseConfigValue(
+                properties, "async_pathfinding_queue_size", asyncPathfindingQueueSize));
+
+    // Update config file if needed
+    updateConfigFileIfChanged(configFile, CONFIG_FILE_HEADER, properties, unmodifiedProperties);
+  }
+
+  public static int getTickBudget() {
+    return tickBudget;
+  }
+
+  public static int getDormantRadius() {
+    return dormantRadius;
+  }
+
+  public static boolean isShareFollowPaths() {
+    return shareFollowPaths;
+  }
+
+  public static boolean isShareNearestEntityQueries() {
+    return shareNearestEntityQueries;
+  }
+
+  public static int getAsyncPathfindingThreads() {
+    return asyncPathfindingThreads;
+  }
+
+  public static int getAsyncPathfindingQueueSize() {
+    return asyncPathfindingQueueSize;
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2024 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easynpc.data.action;
+
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.ParseResults;
+import de.markusbordihn.easynpc.Constants;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.Entity;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Cache of compiled command templates and their parse results, keyed by the action data entry. The
+ * cached parse results don't depend on the executing source and are re-bound to the command source
+ * of each execution. The whole cache is invalidated, once the command dispatcher changes, for
+ * example after a reload of the data packs, and when the server is stopped. All methods are only
+ * accessed from the server thread.
+ */
+public class ActionCommandCache {
+
+  protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
+  protected static final String LOG_PREFIX = "[Action Command Cache]";
+
+  private static final int MAX_COMMAND_TEMPLATES = 1024;
+  private static final Map<ActionDataEntry, ActionCommandTemplate> commandTemplateMap =
+      new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(
+            Map.Entry<ActionDataEntry, ActionCommandTemplate> eldest) {
+          return size() > MAX_COMMAND_TEMPLATES;
+        }
+      };
+  private static CommandDispatcher<CommandSourceStack> cachedCommandDispatcher;
+  private static long hits = 0;
+  private static long misses = 0;
+
+  private ActionCommandCache() {}
+
+  public static void performCommand(
+      Commands commands,
+      ActionDataEntry actionDataEntry,
+      Entity entity,
+      ServerPlayer serverPlayer,
+      CommandSourceStack commandSourceStack,
+      int permissionLevel) {
+    CommandDispatcher<CommandSourceStack> commandDispatcher = commands.getDispatcher();
+    if (commandDispatcher != cachedCommandDispatcher) {
+      invalidate();
+      cachedCommandDispatcher = commandDispatcher;
+    }
+
+    // Bind the macros of the compiled command template to the NPC and the initiator.
+    ActionCommandTemplate commandTemplate =
+        commandTemplateMap.computeIfAbsent(
+            actionDataEntry, entry -> ActionCommandTemplate.compile(entry.command()));
+    String command = commandTemplate.bind(entity, serverPlayer);
+
+    // Re-use the source independent parse results with the current command source.
+    ParseResults<CommandSourceStack> parseResults =
+        commandTemplate.getParseResults(command, permissionLevel);
+    if (parseResults != null) {
+      hits++;
+    } else {
+      misses++;
+      parseResults =
+          commandTemplate.parse(
+              commandDispatcher,
+              command,
+              commandSourceStack
+                  .getServer()
+                  .createCommandSourceStack()
+                  .withPermission(permissionLevel)
+                  .withSuppressedOutput(),
+              permissionLevel);
+      if (parseResults == null) {
+        // Parse commands, which depend on the source, with the current command source.
+        commands.performCommand(commandDispatcher.parse(command, commandSourceStack), command);
+        return;
+      }
+    }
+    commands.performCommand(
+        new ParseResults<>(
+            parseResults.getContext().copy().withSource(commandSourceStack),
+            parseResults.getReader(),
+            parseResults.getExceptions()),
+        command);
+  }
+
+  public static void invalidate() {
+    if (!commandTemplateMap.isEmpty()) {
+      log.debug("{} Invalidate {} command templates", LOG_PREFIX, commandTemplateMap.size());
+      commandTemplateMap.clear();
+    }
+    cachedCommandDispatcher = null;
+  }
+
+  public static int getNumberOfCommandTemplates() {
+    return commandTemplateMap.size();
+  }
+
+  public static long getHits() {
+    return hits;
+  }
+
+  public static long getMisses() {
+    return misses;
+  }
+}
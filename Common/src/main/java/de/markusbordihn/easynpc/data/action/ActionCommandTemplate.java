@@ -0,0 +1,93 @@
+/*
+ * Copyright 2024 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easynpc.data.action;
+
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.ParseResults;
+import de.markusbordihn.easynpc.utils.MacroTemplate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.Entity;
+
+/**
+ * Command of an action data entry with already expanded command short-cuts, compiled into a {@link
+ * MacroTemplate} which is bound to the NPC and the initiator at execution time. Parse results are
+ * cached per bound command and permission level. They are parsed with a neutral server source, so
+ * that they don't keep any entity, player or level of the executing source reachable. Commands
+ * which can't be parsed with the neutral source, e.g. because of requirements on the source entity,
+ * are not cached.
+ */
+public class ActionCommandTemplate {
+
+  private static final int MAX_PARSE_RESULTS = 16;
+
+  private final MacroTemplate macroTemplate;
+  private final Map<ParseKey, ParseResults<CommandSourceStack>> parseResultsMap =
+      new LinkedHashMap<>(MAX_PARSE_RESULTS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(
+            Map.Entry<ParseKey, ParseResults<CommandSourceStack>> eldest) {
+          return size() > MAX_PARSE_RESULTS;
+        }
+      };
+
+  private ActionCommandTemplate(MacroTemplate macroTemplate) {
+    this.macroTemplate = macroTemplate;
+  }
+
+  public static ActionCommandTemplate compile(String command) {
+    String output = ActionUtils.parseCommandShortcuts(command);
+    if (output.startsWith("/")) {
+      output = output.substring(1);
+    }
+    return new ActionCommandTemplate(MacroTemplate.compile(output, MacroTemplate.ACTION_MACROS));
+  }
+
+  public String bind(Entity entity, ServerPlayer serverPlayer) {
+    return this.macroTemplate.render(entity, serverPlayer);
+  }
+
+  public ParseResults<CommandSourceStack> getParseResults(String command, int permissionLevel) {
+    return this.parseResultsMap.get(new ParseKey(command, permissionLevel));
+  }
+
+  /**
+   * Parses the bound command with the given neutral source and caches the result.
+   *
+   * @return the parse results or null, if the command is not source independent.
+   */
+  public ParseResults<CommandSourceStack> parse(
+      CommandDispatcher<CommandSourceStack> commandDispatcher,
+      String command,
+      CommandSourceStack parseSourceStack,
+      int permissionLevel) {
+    ParseResults<CommandSourceStack> parseResults =
+        commandDispatcher.parse(command, parseSourceStack);
+    if (!parseResults.getExceptions().isEmpty() || parseResults.getReader().canRead()) {
+      return null;
+    }
+    this.parseResultsMap.put(new ParseKey(command, permissionLevel), parseResults);
+    return parseResults;
+  }
+
+  private record ParseKey(String command, int permissionLevel) {}
+}
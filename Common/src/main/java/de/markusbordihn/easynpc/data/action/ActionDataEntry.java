@@ -25,8 +25,6 @@ import de.markusbordihn.easynpc.utils.CompoundTagUtils;
 import java.util.UUID;
 import net.minecraft.core.BlockPos;
 import net.minecraft.nbt.CompoundTag;
-import net.minecraft.server.level.ServerPlayer;
-import net.minecraft.world.entity.LivingEntity;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -37,7 +35,9 @@ public record ActionDataEntry(
     BlockPos blockPos,
     boolean executeAsUser,
     boolean enableDebug,
-    int permissionLevel) {
+    int permissionLevel,
+    int delay,
+    int interval) {
 
   public static final String DATA_TAG = "ActionDataEntry";
   public static final String DATA_COMMAND_TAG = "Cmd";
@@ -46,6 +46,8 @@ public record ActionDataEntry(
   public static final String DATA_PERMISSION_LEVEL_TAG = "PermLevel";
   public static final String DATA_BLOCK_POS_TAG = "BlockPos";
   public static final String DATA_TYPE_TAG = "Type";
+  public static final String DATA_DELAY_TAG = "Delay";
+  public static final String DATA_INTERVAL_TAG = "Interval";
   public static final int DEFAULT_PERMISSION_LEVEL = 2;
   public static final int MAX_PERMISSION_LEVEL = 2;
   public static final int MIN_PERMISSION_LEVEL = 0;
@@ -59,9 +61,7 @@ public record ActionDataEntry(
   public ActionDataEntry(CompoundTag compoundTag) {
     this(
         ActionDataType.get(compoundTag.getString(DATA_TYPE_TAG)),
-        compoundTag.contains(ConditionDataSet.CONDITION_DATA_SET_TAG)
-            ? new ConditionDataSet(compoundTag.getCompound(ConditionDataSet.CONDITION_DATA_SET_TAG))
-            : new ConditionDataSet(),
+        new ConditionDataSet(compoundTag),
         compoundTag.contains(DATA_COMMAND_TAG)
             ? compoundTag.getString(DATA_COMMAND_TAG)
             : DEFAULT_COMMAND,
@@ -73,7 +73,11 @@ public record ActionDataEntry(
         compoundTag.contains(DATA_DEBUG_TAG) && compoundTag.getBoolean(DATA_DEBUG_TAG),
         compoundTag.contains(DATA_PERMISSION_LEVEL_TAG)
             ? checkPermissionLevel(compoundTag.getInt(DATA_PERMISSION_LEVEL_TAG))
-            : DEFAULT_PERMISSION_LEVEL);
+            : DEFAULT_PERMISSION_LEVEL,
+        compoundTag.contains(DATA_DELAY_TAG) ? Math.max(0, compoundTag.getInt(DATA_DELAY_TAG)) : 0,
+        compoundTag.contains(DATA_INTERVAL_TAG)
+            ? Math.max(0, compoundTag.getInt(DATA_INTERVAL_TAG))
+            : 0);
   }
 
   public ActionDataEntry(ActionDataType actionDataType) {
@@ -111,7 +115,9 @@ public record ActionDataEntry(
         BlockPos.ZERO,
         executeAsUser,
         enableDebug,
-        permissionLevel);
+        permissionLevel,
+        0,
+        0);
   }
 
   private static int checkPermissionLevel(int permissionLevel) {
@@ -137,13 +143,24 @@ public record ActionDataEntry(
         this.conditionDataSet,
         this.command,
         blockPos,
-        this.enableDebug,
         this.executeAsUser,
-        this.permissionLevel);
+        this.enableDebug,
+        this.permissionLevel,
+        this.delay,
+        this.interval);
   }
 
-  public String getAction(LivingEntity entity, ServerPlayer serverPlayer) {
-    return ActionUtils.parseAction(this.command, entity, serverPlayer);
+  public ActionDataEntry withTiming(int delay, int interval) {
+    return new ActionDataEntry(
+        this.actionDataType,
+        this.conditionDataSet,
+        this.command,
+        this.blockPos,
+        this.executeAsUser,
+        this.enableDebug,
+        this.permissionLevel,
+        Math.max(0, delay),
+        Math.max(0, interval));
   }
 
   public boolean hasCommand() {
@@ -158,6 +175,18 @@ public record ActionDataEntry(
     return this.blockPos != null && this.blockPos != BlockPos.ZERO;
   }
 
+  public boolean hasDelay() {
+    return this.delay > 0;
+  }
+
+  public boolean hasInterval() {
+    return this.interval > 0;
+  }
+
+  public boolean isScheduled() {
+    return this.delay > 0 || this.interval > 0;
+  }
+
   public boolean isValid() {
     return this.actionDataType != ActionDataType.NONE && this.hasCommand();
   }
@@ -206,6 +235,14 @@ public record ActionDataEntry(
       compoundTag.putInt(DATA_PERMISSION_LEVEL_TAG, this.permissionLevel);
     }
 
+    // Only save delay and interval if they are set.
+    if (this.delay > 0) {
+      compoundTag.putInt(DATA_DELAY_TAG, this.delay);
+    }
+    if (this.interval > 0) {
+      compoundTag.putInt(DATA_INTERVAL_TAG, this.interval);
+    }
+
     // Store condition data set, if it is not empty.
     if (!this.conditionDataSet.isEmpty()) {
       this.conditionDataSet.save(compoundTag);
@@ -232,6 +269,8 @@ public record ActionDataEntry(
           && this.permissionLevel == actionDataEntry.permissionLevel
           && this.executeAsUser == actionDataEntry.executeAsUser
           && this.enableDebug == actionDataEntry.enableDebug
+          && this.delay == actionDataEntry.delay
+          && this.interval == actionDataEntry.interval
           && this.conditionDataSet.equals(actionDataEntry.conditionDataSet);
     }
     return false;
@@ -246,6 +285,8 @@ public record ActionDataEntry(
     result = 31 * result + this.permissionLevel;
     result = 31 * result + (this.executeAsUser ? 1 : 0);
     result = 31 * result + (this.enableDebug ? 1 : 0);
+    result = 31 * result + this.delay;
+    result = 31 * result + this.interval;
     if (this.conditionDataSet != null && !this.conditionDataSet.isEmpty()) {
       result = 31 * result + this.conditionDataSet.size();
     }
@@ -265,6 +306,8 @@ public record ActionDataEntry(
         + this.executeAsUser
         + ", debug="
         + this.enableDebug
+        + (this.delay > 0 ? ", delay=" + this.delay : "")
+        + (this.interval > 0 ? ", interval=" + this.interval : "")
         + (this.conditionDataSet != null && !this.conditionDataSet.isEmpty()
             ? ", conditions=" + this.conditionDataSet
             : "")
@@ -19,15 +19,27 @@
 
 package de.markusbordihn.easynpc.data.action;
 
+import java.util.Collections;
 import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.Map.Entry;
+import java.util.Set;
 import net.minecraft.nbt.CompoundTag;
 
 public class ActionEventSet {
 
   public static final String DATA_ACTION_EVENT_SET_TAG = "ActionEventSet";
+  private static final Set<ActionEventType> DISTANCE_ACTION_EVENT_TYPES =
+      EnumSet.of(
+          ActionEventType.ON_DISTANCE_NEAR,
+          ActionEventType.ON_DISTANCE_CLOSE,
+          ActionEventType.ON_DISTANCE_VERY_CLOSE,
+          ActionEventType.ON_DISTANCE_TOUCH);
   private final EnumMap<ActionEventType, ActionDataSet> actionsMap =
       new EnumMap<>(ActionEventType.class);
+
+  // Action event types with at least one action, updated whenever the actions are changed.
+  private final EnumSet<ActionEventType> actionEventTypes = EnumSet.noneOf(ActionEventType.class);
   private boolean hasDistanceActionEvent = false;
 
   public ActionEventSet() {}
@@ -41,7 +53,7 @@ public class ActionEventSet {
         && actionEventType != ActionEventType.NONE
         && actionDataSet != null) {
       this.actionsMap.put(actionEventType, actionDataSet);
-      this.updateHasDistanceAction();
+      this.updateActionEventTypes();
     }
   }
 
@@ -63,27 +75,33 @@ public class ActionEventSet {
   }
 
   public boolean hasActionEvent(ActionEventType actionEventType) {
-    if (actionEventType != null && actionEventType != ActionEventType.NONE) {
-      ActionDataSet actions = this.actionsMap.get(actionEventType);
-      return actions != null && !actions.isEmpty();
-    }
-    return false;
+    return actionEventType != null && this.actionEventTypes.contains(actionEventType);
+  }
+
+  public boolean hasDistanceActionEvent() {
+    return this.hasDistanceActionEvent;
   }
 
-  public void updateHasDistanceAction() {
+  public Set<ActionEventType> getActionEventTypes() {
+    return Collections.unmodifiableSet(this.actionEventTypes);
+  }
+
+  public void updateActionEventTypes() {
+    this.actionEventTypes.clear();
+    for (Entry<ActionEventType, ActionDataSet> entry : this.actionsMap.entrySet()) {
+      if (entry.getKey() != ActionEventType.NONE
+          && entry.getValue() != null
+          && !entry.getValue().isEmpty()) {
+        this.actionEventTypes.add(entry.getKey());
+      }
+    }
     this.hasDistanceActionEvent =
-        (this.actionsMap.containsKey(ActionEventType.ON_DISTANCE_NEAR)
-                && !this.actionsMap.get(ActionEventType.ON_DISTANCE_NEAR).isEmpty())
-            || (this.actionsMap.containsKey(ActionEventType.ON_DISTANCE_CLOSE)
-                && !this.actionsMap.get(ActionEventType.ON_DISTANCE_CLOSE).isEmpty())
-            || (this.actionsMap.containsKey(ActionEventType.ON_DISTANCE_VERY_CLOSE)
-                && !this.actionsMap.get(ActionEventType.ON_DISTANCE_VERY_CLOSE).isEmpty())
-            || (this.actionsMap.containsKey(ActionEventType.ON_DISTANCE_TOUCH)
-                && !this.actionsMap.get(ActionEventType.ON_DISTANCE_TOUCH).isEmpty());
+        !Collections.disjoint(this.actionEventTypes, DISTANCE_ACTION_EVENT_TYPES);
   }
 
   public void clear() {
     this.actionsMap.clear();
+    this.actionEventTypes.clear();
     this.hasDistanceActionEvent = false;
   }
 
@@ -104,7 +122,7 @@ public class ActionEventSet {
         this.actionsMap.put(actionEventType, actionDataEntryList);
       }
     }
-    this.updateHasDistanceAction();
+    this.updateActionEventTypes();
   }
 
   public CompoundTag save(CompoundTag compoundTag) {
@@ -124,8 +142,8 @@ public class ActionEventSet {
 
   @Override
   public String toString() {
-    return "ActionEventSet [ hasDistanceActionEvent="
-        + this.hasDistanceActionEvent
+    return "ActionEventSet [ actionEventTypes="
+        + this.actionEventTypes
         + ", "
         + this.actionsMap
         + "]";
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2024 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easynpc.data.action;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Players per action group of a single Easy NPC, stored as one bitset per action group and indexed
+ * by the compact player index of the {@link ActionManager}.
+ */
+public class ActionGroupState {
+
+  private final BitSet[] actionGroupPlayers = new BitSet[ActionGroup.values().length];
+
+  public ActionGroupState() {}
+
+  public void add(ActionGroup actionGroup, int playerIndex) {
+    BitSet players = this.actionGroupPlayers[actionGroup.ordinal()];
+    if (players == null) {
+      players = new BitSet();
+      this.actionGroupPlayers[actionGroup.ordinal()] = players;
+    }
+    players.set(playerIndex);
+  }
+
+  public boolean contains(ActionGroup actionGroup, int playerIndex) {
+    BitSet players = this.actionGroupPlayers[actionGroup.ordinal()];
+    return players != null && players.get(playerIndex);
+  }
+
+  public void remove(ActionGroup actionGroup, int playerIndex) {
+    BitSet players = this.actionGroupPlayers[actionGroup.ordinal()];
+    if (players != null) {
+      players.clear(playerIndex);
+    }
+  }
+
+  public void remove(int playerIndex) {
+    for (BitSet players : this.actionGroupPlayers) {
+      if (players != null) {
+        players.clear(playerIndex);
+      }
+    }
+  }
+
+  public void clear(ActionGroup actionGroup) {
+    this.actionGroupPlayers[actionGroup.ordinal()] = null;
+  }
+
+  public void clear() {
+    Arrays.fill(this.actionGroupPlayers, null);
+  }
+
+  public int nextPlayerIndex(ActionGroup actionGroup, int fromIndex) {
+    BitSet players = this.actionGroupPlayers[actionGroup.ordinal()];
+    return players != null ? players.nextSetBit(fromIndex) : -1;
+  }
+
+  public boolean isEmpty(ActionGroup actionGroup) {
+    BitSet players = this.actionGroupPlayers[actionGroup.ordinal()];
+    return players == null || players.isEmpty();
+  }
+
+  public boolean isEmpty() {
+    for (BitSet players : this.actionGroupPlayers) {
+      if (players != null && !players.isEmpty()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public int getNumberOfEntries() {
+    int numberOfEntries = 0;
+    for (BitSet players : this.actionGroupPlayers) {
+      if (players != null) {
+        numberOfEntries += players.cardinality();
+      }
+    }
+    return numberOfEntries;
+  }
+
+  @Override
+  public String toString() {
+    return "ActionGroupState [entries=" + this.getNumberOfEntries() + "]";
+  }
+}
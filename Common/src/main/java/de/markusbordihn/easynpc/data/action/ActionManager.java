@@ -19,78 +19,208 @@
 
 package de.markusbordihn.easynpc.data.action;
 
-import java.util.EnumMap;
-import java.util.HashMap;
+import de.markusbordihn.easynpc.Constants;
+import de.markusbordihn.easynpc.entity.easynpc.EasyNPC;
+import de.markusbordihn.easynpc.entity.easynpc.data.ActionEventData;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.UUID;
 import net.minecraft.server.level.ServerPlayer;
-import net.minecraft.world.entity.Mob;
+import net.minecraft.world.entity.Entity;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
+/**
+ * Keeps track of the players per action group of each Easy NPC. The players are stored inside the
+ * {@link ActionGroupState} of the Easy NPC itself, as bits of a compact player index which is
+ * released again, once the player leaves the server. All methods are only accessed from the server
+ * thread.
+ */
 public class ActionManager {
 
-  private static final HashMap<Mob, EnumMap<ActionGroup, HashSet<ServerPlayer>>>
-      actionGroupPlayerMap = new HashMap<>();
+  protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
+  protected static final String LOG_PREFIX = "[Action Manager]";
+
+  private static final Object2IntOpenHashMap<UUID> playerIndexMap = new Object2IntOpenHashMap<>();
+  private static final ArrayList<ServerPlayer> playerIndexList = new ArrayList<>();
+  private static final BitSet freePlayerIndexes = new BitSet();
+  private static final Set<EasyNPC<?>> easyNPCsWithState = new HashSet<>();
+
+  static {
+    playerIndexMap.defaultReturnValue(-1);
+  }
 
   private ActionManager() {}
 
-  public static void addPlayer(Mob mob, ActionGroup actionGroup, ServerPlayer serverPlayer) {
-    if (mob == null || actionGroup == null || serverPlayer == null) {
+  public static void addPlayer(
+      EasyNPC<?> easyNPC, ActionGroup actionGroup, ServerPlayer serverPlayer) {
+    ActionGroupState actionGroupState = getActionGroupState(easyNPC);
+    if (actionGroupState == null || actionGroup == null || serverPlayer == null) {
       return;
     }
-    EnumMap<ActionGroup, HashSet<ServerPlayer>> actionGroupPlayer = actionGroupPlayerMap.get(mob);
-    if (actionGroupPlayer == null) {
-      actionGroupPlayer = new EnumMap<>(ActionGroup.class);
-    }
-    HashSet<ServerPlayer> playerList = actionGroupPlayer.get(actionGroup);
-    if (playerList == null) {
-      playerList = new HashSet<>();
-    }
-    playerList.add(serverPlayer);
-    actionGroupPlayer.put(actionGroup, playerList);
-    actionGroupPlayerMap.put(mob, actionGroupPlayer);
+    actionGroupState.add(actionGroup, getOrCreatePlayerIndex(serverPlayer));
+    easyNPCsWithState.add(easyNPC);
   }
 
   public static boolean containsPlayer(
-      Mob mob, ActionGroup actionGroup, ServerPlayer serverPlayer) {
-    if (mob == null || actionGroup == null || serverPlayer == null) {
+      EasyNPC<?> easyNPC, ActionGroup actionGroup, ServerPlayer serverPlayer) {
+    ActionGroupState actionGroupState = getActionGroupState(easyNPC);
+    if (actionGroupState == null || actionGroup == null || serverPlayer == null) {
       return false;
     }
-    EnumMap<ActionGroup, HashSet<ServerPlayer>> actionGroupPlayer = actionGroupPlayerMap.get(mob);
-    if (actionGroupPlayer == null) {
-      return false;
+    int playerIndex = playerIndexMap.getInt(serverPlayer.getUUID());
+    return playerIndex >= 0 && actionGroupState.contains(actionGroup, playerIndex);
+  }
+
+  public static void removePlayer(
+      EasyNPC<?> easyNPC, ActionGroup actionGroup, ServerPlayer serverPlayer) {
+    ActionGroupState actionGroupState = getActionGroupState(easyNPC);
+    if (actionGroupState == null || actionGroup == null || serverPlayer == null) {
+      return;
     }
-    HashSet<ServerPlayer> playerList = actionGroupPlayer.get(actionGroup);
-    if (playerList == null) {
-      return false;
+    int playerIndex = playerIndexMap.getInt(serverPlayer.getUUID());
+    if (playerIndex >= 0) {
+      actionGroupState.remove(actionGroup, playerIndex);
+      updateEasyNPCState(easyNPC, actionGroupState);
     }
-    return playerList.contains(serverPlayer);
   }
 
-  public static void removePlayer(Mob mob, ActionGroup actionGroup, ServerPlayer serverPlayer) {
-    if (mob == null || actionGroup == null || serverPlayer == null) {
+  public static void removeActionGroup(EasyNPC<?> easyNPC, ActionGroup actionGroup) {
+    ActionGroupState actionGroupState = getActionGroupState(easyNPC);
+    if (actionGroupState == null || actionGroup == null) {
       return;
     }
-    EnumMap<ActionGroup, HashSet<ServerPlayer>> actionGroupPlayer = actionGroupPlayerMap.get(mob);
-    if (actionGroupPlayer == null) {
-      return;
+    actionGroupState.clear(actionGroup);
+    updateEasyNPCState(easyNPC, actionGroupState);
+  }
+
+  public static boolean removePlayersOutOfRange(
+      EasyNPC<?> easyNPC, ActionGroup actionGroup, double range) {
+    ActionGroupState actionGroupState = getActionGroupState(easyNPC);
+    if (actionGroupState == null || actionGroup == null) {
+      return false;
+    }
+    Entity entity = easyNPC.getEntity();
+    for (int playerIndex = actionGroupState.nextPlayerIndex(actionGroup, 0);
+        playerIndex >= 0;
+        playerIndex = actionGroupState.nextPlayerIndex(actionGroup, playerIndex + 1)) {
+      ServerPlayer serverPlayer = getServerPlayer(entity, playerIndex);
+      if (serverPlayer == null
+          || serverPlayer.isRemoved()
+          || serverPlayer.isSpectator()
+          || serverPlayer.level() != entity.level()
+          || !entity.closerThan(serverPlayer, range)) {
+        actionGroupState.remove(actionGroup, playerIndex);
+      }
     }
-    HashSet<ServerPlayer> playerList = actionGroupPlayer.get(actionGroup);
-    if (playerList == null || !playerList.contains(serverPlayer)) {
+    updateEasyNPCState(easyNPC, actionGroupState);
+    return !actionGroupState.isEmpty(actionGroup);
+  }
+
+  public static void removeEasyNPC(EasyNPC<?> easyNPC) {
+    if (easyNPC == null || !easyNPCsWithState.remove(easyNPC)) {
       return;
     }
-    playerList.remove(serverPlayer);
-    actionGroupPlayer.put(actionGroup, playerList);
-    actionGroupPlayerMap.put(mob, actionGroupPlayer);
+    ActionGroupState actionGroupState = getActionGroupState(easyNPC);
+    if (actionGroupState != null) {
+      actionGroupState.clear();
+    }
   }
 
-  public static void removeActionGroup(Mob mob, ActionGroup actionGroup) {
-    if (mob == null || actionGroup == null) {
+  public static void removeServerPlayer(ServerPlayer serverPlayer) {
+    if (serverPlayer == null) {
       return;
     }
-    EnumMap<ActionGroup, HashSet<ServerPlayer>> actionGroupPlayer = actionGroupPlayerMap.get(mob);
-    if (actionGroupPlayer == null || !actionGroupPlayer.containsKey(actionGroup)) {
+    int playerIndex = playerIndexMap.removeInt(serverPlayer.getUUID());
+    if (playerIndex < 0) {
       return;
     }
-    actionGroupPlayer.remove(actionGroup);
-    actionGroupPlayerMap.put(mob, actionGroupPlayer);
+
+    // Remove the player from all Easy NPCs, before the player index is released for reuse.
+    Iterator<EasyNPC<?>> iterator = easyNPCsWithState.iterator();
+    while (iterator.hasNext()) {
+      ActionGroupState actionGroupState = getActionGroupState(iterator.next());
+      if (actionGroupState == null) {
+        iterator.remove();
+        continue;
+      }
+      actionGroupState.remove(playerIndex);
+      if (actionGroupState.isEmpty()) {
+        iterator.remove();
+      }
+    }
+    playerIndexList.set(playerIndex, null);
+    freePlayerIndexes.set(playerIndex);
+    log.debug("{} Released player index {} of {}", LOG_PREFIX, playerIndex, serverPlayer);
+  }
+
+  public static int getNumberOfEasyNPCs() {
+    return easyNPCsWithState.size();
+  }
+
+  public static int getNumberOfPlayers() {
+    return playerIndexMap.size();
+  }
+
+  public static int getNumberOfEntries() {
+    int numberOfEntries = 0;
+    for (EasyNPC<?> easyNPC : easyNPCsWithState) {
+      ActionGroupState actionGroupState = getActionGroupState(easyNPC);
+      if (actionGroupState != null) {
+        numberOfEntries += actionGroupState.getNumberOfEntries();
+      }
+    }
+    return numberOfEntries;
+  }
+
+  private static ActionGroupState getActionGroupState(EasyNPC<?> easyNPC) {
+    if (easyNPC == null) {
+      return null;
+    }
+    ActionEventData<?> actionEventData = easyNPC.getEasyNPCActionEventData();
+    return actionEventData != null ? actionEventData.getActionGroupState() : null;
+  }
+
+  private static int getOrCreatePlayerIndex(ServerPlayer serverPlayer) {
+    int playerIndex = playerIndexMap.getInt(serverPlayer.getUUID());
+    if (playerIndex < 0) {
+      playerIndex = freePlayerIndexes.nextSetBit(0);
+      if (playerIndex < 0) {
+        playerIndex = playerIndexList.size();
+        playerIndexList.add(serverPlayer);
+      } else {
+        freePlayerIndexes.clear(playerIndex);
+      }
+      playerIndexMap.put(serverPlayer.getUUID(), playerIndex);
+    }
+
+    // Keep the latest player instance, which changes after a respawn.
+    playerIndexList.set(playerIndex, serverPlayer);
+    return playerIndex;
+  }
+
+  private static ServerPlayer getServerPlayer(Entity entity, int playerIndex) {
+    ServerPlayer serverPlayer =
+        playerIndex < playerIndexList.size() ? playerIndexList.get(playerIndex) : null;
+    if (serverPlayer != null && serverPlayer.isRemoved() && entity.getServer() != null) {
+      // Look up the new player instance, after a respawn or dimension change.
+      ServerPlayer currentServerPlayer =
+          entity.getServer().getPlayerList().getPlayer(serverPlayer.getUUID());
+      if (currentServerPlayer != null) {
+        playerIndexList.set(playerIndex, currentServerPlayer);
+        return currentServerPlayer;
+      }
+    }
+    return serverPlayer;
+  }
+
+  private static void updateEasyNPCState(EasyNPC<?> easyNPC, ActionGroupState actionGroupState) {
+    if (actionGroupState.isEmpty()) {
+      easyNPCsWithState.remove(easyNPC);
+    }
   }
 }
@@ -0,0 +1,319 @@
+/*
+ * Copyright 2024 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easynpc.data.action;
+
+import de.markusbordihn.easynpc.Constants;
+import de.markusbordihn.easynpc.config.ActionQueueConfig;
+import de.markusbordihn.easynpc.entity.easynpc.EasyNPC;
+import de.markusbordihn.easynpc.entity.easynpc.data.ActionEventData;
+import de.markusbordihn.easynpc.entity.easynpc.handlers.ActionHandler;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.level.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Per-level queue for action events, which are executed with a limited rate per NPC and player,
+ * based on token buckets, and with a global limit per server tick. The {@link ActionQueuePolicy} of
+ * each action event type defines, if actions are executed immediately, or how they are handled once
+ * a limit is reached. All methods are only accessed from the server thread.
+ */
+public class ActionQueueManager {
+
+  protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
+  protected static final String LOG_PREFIX = "[Action Queue Manager]";
+
+  private static final int BUCKET_CLEANUP_TICKS = 1200;
+
+  private static final Map<ResourceKey<Level>, ArrayDeque<QueuedAction>> actionQueueMap =
+      new HashMap<>();
+  private static final Map<ResourceKey<Level>, Set<QueuedActionKey>> queuedActionKeyMap =
+      new HashMap<>();
+  private static final Map<UUID, TokenBucket> npcTokenBucketMap = new HashMap<>();
+  private static final Map<UUID, TokenBucket> playerTokenBucketMap = new HashMap<>();
+  private static int capServerTick = -1;
+  private static int executedActionsInTick = 0;
+  private static long executedActions = 0;
+  private static long coalescedActions = 0;
+  private static long droppedActions = 0;
+  private static long lastBucketCleanup = 0;
+
+  private ActionQueueManager() {}
+
+  public static void queueActionEvent(
+      EasyNPC<?> easyNPC, ActionEventType actionEventType, ServerPlayer serverPlayer) {
+    queueActionEvent(easyNPC, actionEventType, serverPlayer, false);
+  }
+
+  public static void queueActionEvent(
+      EasyNPC<?> easyNPC,
+      ActionEventType actionEventType,
+      ServerPlayer serverPlayer,
+      boolean firstActionOnly) {
+    if (easyNPC == null
+        || actionEventType == null
+        || !(easyNPC.getEntity().level() instanceof ServerLevel serverLevel)) {
+      return;
+    }
+
+    // Execute action events without queue policy immediately.
+    ActionQueuePolicy actionQueuePolicy = ActionQueueConfig.getActionQueuePolicy(actionEventType);
+    if (actionQueuePolicy == ActionQueuePolicy.EXECUTE) {
+      executeActionEvent(easyNPC, actionEventType, serverPlayer, firstActionOnly);
+      return;
+    }
+
+    // Merge duplicated action events of the same NPC, player and action event type.
+    QueuedActionKey queuedActionKey =
+        new QueuedActionKey(
+            easyNPC.getUUID(),
+            serverPlayer != null ? serverPlayer.getUUID() : null,
+            actionEventType);
+    Set<QueuedActionKey> queuedActionKeys =
+        queuedActionKeyMap.computeIfAbsent(serverLevel.dimension(), key -> new HashSet<>());
+    if (actionQueuePolicy == ActionQueuePolicy.COALESCE
+        && queuedActionKeys.contains(queuedActionKey)) {
+      coalescedActions++;
+      return;
+    }
+
+    ArrayDeque<QueuedAction> actionQueue =
+        actionQueueMap.computeIfAbsent(serverLevel.dimension(), key -> new ArrayDeque<>());
+    if (actionQueue.size() >= ActionQueueConfig.getMaxQueueSize()) {
+      droppedActions++;
+      log.debug(
+          "{} Action queue is full, dropping {} for {}", LOG_PREFIX, actionEventType, easyNPC);
+      return;
+    }
+    actionQueue.add(
+        new QueuedAction(
+            easyNPC,
+            actionEventType,
+            serverPlayer,
+            firstActionOnly,
+            actionQueuePolicy,
+            queuedActionKey,
+            serverLevel.getGameTime()));
+    queuedActionKeys.add(queuedActionKey);
+  }
+
+  public static void tick(ServerLevel serverLevel) {
+    ArrayDeque<QueuedAction> actionQueue = actionQueueMap.get(serverLevel.dimension());
+    if (actionQueue == null || actionQueue.isEmpty()) {
+      return;
+    }
+    serverLevel.getProfiler().push("easyNPCActionQueue");
+
+    // The max. number of actions is shared between all levels of the same server tick.
+    int serverTick = serverLevel.getServer().getTickCount();
+    if (serverTick != capServerTick) {
+      capServerTick = serverTick;
+      executedActionsInTick = 0;
+    }
+    long gameTime = serverLevel.getGameTime();
+    if (gameTime - lastBucketCleanup >= BUCKET_CLEANUP_TICKS) {
+      removeFullTokenBuckets(gameTime);
+      lastBucketCleanup = gameTime;
+    }
+
+    Set<QueuedActionKey> queuedActionKeys = queuedActionKeyMap.get(serverLevel.dimension());
+    int maxActionsPerTick = ActionQueueConfig.getMaxActionsPerTick();
+    for (int i = actionQueue.size(); i > 0; i--) {
+      QueuedAction queuedAction = actionQueue.poll();
+      if (queuedAction.easyNPC().getEntity().isRemoved()
+          || (queuedAction.serverPlayer() != null && queuedAction.serverPlayer().isRemoved())) {
+        queuedActionKeys.remove(queuedAction.queuedActionKey());
+        droppedActions++;
+        continue;
+      }
+
+      // Check global limit and token buckets of the NPC and the player.
+      TokenBucket npcTokenBucket =
+          npcTokenBucketMap.computeIfAbsent(
+              queuedAction.easyNPC().getUUID(),
+              uuid ->
+                  new TokenBucket(
+                      ActionQueueConfig.getNpcBucketSize(),
+                      ActionQueueConfig.getNpcRefillTicks(),
+                      gameTime));
+      TokenBucket playerTokenBucket =
+          queuedAction.serverPlayer() != null
+              ? playerTokenBucketMap.computeIfAbsent(
+                  queuedAction.serverPlayer().getUUID(),
+                  uuid ->
+                      new TokenBucket(
+                          ActionQueueConfig.getPlayerBucketSize(),
+                          ActionQueueConfig.getPlayerRefillTicks(),
+                          gameTime))
+              : null;
+      if ((maxActionsPerTick > 0 && executedActionsInTick >= maxActionsPerTick)
+          || !npcTokenBucket.hasToken(gameTime)
+          || (playerTokenBucket != null && !playerTokenBucket.hasToken(gameTime))) {
+        if (queuedAction.actionQueuePolicy() == ActionQueuePolicy.DROP
+            || gameTime - queuedAction.queuedTick() > ActionQueueConfig.getMaxDelayTicks()) {
+          queuedActionKeys.remove(queuedAction.queuedActionKey());
+          droppedActions++;
+        } else {
+          actionQueue.add(queuedAction);
+        }
+        continue;
+      }
+
+      npcTokenBucket.consumeToken();
+      if (playerTokenBucket != null) {
+        playerTokenBucket.consumeToken();
+      }
+      queuedActionKeys.remove(queuedAction.queuedActionKey());
+      executedActionsInTick++;
+      executeActionEvent(
+          queuedAction.easyNPC(),
+          queuedAction.actionEventType(),
+          queuedAction.serverPlayer(),
+          queuedAction.firstActionOnly());
+    }
+
+    serverLevel.getProfiler().pop();
+  }
+
+  public static void removeEasyNPC(EasyNPC<?> easyNPC) {
+    npcTokenBucketMap.remove(easyNPC.getUUID());
+  }
+
+  public static void removeServerPlayer(ServerPlayer serverPlayer) {
+    playerTokenBucketMap.remove(serverPlayer.getUUID());
+  }
+
+  public static int getQueueDepth(ServerLevel serverLevel) {
+    ArrayDeque<QueuedAction> actionQueue = actionQueueMap.get(serverLevel.dimension());
+    return actionQueue != null ? actionQueue.size() : 0;
+  }
+
+  public static int getQueueDepth() {
+    int queueDepth = 0;
+    for (ArrayDeque<QueuedAction> actionQueue : actionQueueMap.values()) {
+      queueDepth += actionQueue.size();
+    }
+    return queueDepth;
+  }
+
+  public static long getExecutedActions() {
+    return executedActions;
+  }
+
+  public static long getCoalescedActions() {
+    return coalescedActions;
+  }
+
+  public static long getDroppedActions() {
+    return droppedActions;
+  }
+
+  private static void executeActionEvent(
+      EasyNPC<?> easyNPC,
+      ActionEventType actionEventType,
+      ServerPlayer serverPlayer,
+      boolean firstActionOnly) {
+    ActionEventData<?> actionEventData = easyNPC.getEasyNPCActionEventData();
+    ActionHandler<?> actionHandler = easyNPC.getEasyNPCActionHandler();
+    if (actionEventData == null
+        || actionHandler == null
+        || !actionEventData.hasActionEvent(actionEventType)) {
+      return;
+    }
+    executedActions++;
+    if (firstActionOnly) {
+      actionHandler.executeAction(actionEventData.getActionEvent(actionEventType), serverPlayer);
+    } else {
+      actionHandler.executeActions(actionEventData.getActionDataSet(actionEventType), serverPlayer);
+    }
+  }
+
+  private static void removeFullTokenBuckets(long gameTime) {
+    Iterator<TokenBucket> iterator = npcTokenBucketMap.values().iterator();
+    while (iterator.hasNext()) {
+      if (iterator.next().isFull(gameTime)) {
+        iterator.remove();
+      }
+    }
+    iterator = playerTokenBucketMap.values().iterator();
+    while (iterator.hasNext()) {
+      if (iterator.next().isFull(gameTime)) {
+        iterator.remove();
+      }
+    }
+  }
+
+  private record QueuedActionKey(UUID npcUUID, UUID playerUUID, ActionEventType actionEventType) {}
+
+  private record QueuedAction(
+      EasyNPC<?> easyNPC,
+      ActionEventType actionEventType,
+      ServerPlayer serverPlayer,
+      boolean firstActionOnly,
+      ActionQueuePolicy actionQueuePolicy,
+      QueuedActionKey queuedActionKey,
+      long queuedTick) {}
+
+  private static class TokenBucket {
+
+    private final int size;
+    private final int refillTicks;
+    private int tokens;
+    private long lastRefillTick;
+
+    TokenBucket(int size, int refillTicks, long gameTime) {
+      this.size = size;
+      this.refillTicks = refillTicks;
+      this.tokens = size;
+      this.lastRefillTick = gameTime;
+    }
+
+    private void refill(long gameTime) {
+      long refills = (gameTime - this.lastRefillTick) / this.refillTicks;
+      if (refills > 0) {
+        this.tokens = (int) Math.min(this.size, this.tokens + refills);
+        this.lastRefillTick += refills * this.refillTicks;
+      }
+    }
+
+    boolean hasToken(long gameTime) {
+      this.refill(gameTime);
+      return this.tokens > 0;
+    }
+
+    void consumeToken() {
+      this.tokens--;
+    }
+
+    boolean isFull(long gameTime) {
+      this.refill(gameTime);
+      return this.tokens >= this.size;
+    }
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2024 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easynpc.data.action;
+
+import de.markusbordihn.easynpc.data.ticker.TickerScheduler;
+import de.markusbordihn.easynpc.data.ticker.TickerTask;
+import java.util.UUID;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.server.level.ServerLevel;
+
+/**
+ * Pending delayed or repeating action of a single Easy NPC for a single player. The remaining ticks
+ * are only used until the timer is scheduled, afterward they are derived from the ticker task.
+ */
+public class ActionTimer {
+
+  public static final String DATA_ACTION_TAG = "Action";
+  public static final String DATA_PLAYER_TAG = "Player";
+  public static final String DATA_REMAINING_TICKS_TAG = "Remaining";
+
+  private final ActionDataEntry actionDataEntry;
+  private final UUID playerUUID;
+  private long remainingTicks;
+  private TickerTask tickerTask;
+
+  public ActionTimer(ActionDataEntry actionDataEntry, UUID playerUUID, long remainingTicks) {
+    this.actionDataEntry = actionDataEntry;
+    this.playerUUID = playerUUID;
+    this.remainingTicks = remainingTicks;
+  }
+
+  public ActionTimer(CompoundTag compoundTag) {
+    this(
+        new ActionDataEntry(compoundTag.getCompound(DATA_ACTION_TAG)),
+        compoundTag.getUUID(DATA_PLAYER_TAG),
+        Math.max(1, compoundTag.getLong(DATA_REMAINING_TICKS_TAG)));
+  }
+
+  public static boolean isValid(CompoundTag compoundTag) {
+    return compoundTag.contains(DATA_ACTION_TAG) && compoundTag.hasUUID(DATA_PLAYER_TAG);
+  }
+
+  public ActionDataEntry getActionDataEntry() {
+    return this.actionDataEntry;
+  }
+
+  public UUID getPlayerUUID() {
+    return this.playerUUID;
+  }
+
+  public long getRemainingTicks(ServerLevel serverLevel) {
+    if (this.tickerTask != null && serverLevel != null) {
+      return TickerScheduler.getRemainingTicks(serverLevel, this.tickerTask);
+    }
+    return this.remainingTicks;
+  }
+
+  public TickerTask getTickerTask() {
+    return this.tickerTask;
+  }
+
+  public void setTickerTask(TickerTask tickerTask) {
+    this.tickerTask = tickerTask;
+  }
+
+  public boolean isScheduled() {
+    return this.tickerTask != null;
+  }
+
+  public void cancel(ServerLevel serverLevel) {
+    if (this.tickerTask != null) {
+      this.remainingTicks = this.getRemainingTicks(serverLevel);
+      this.tickerTask.cancel();
+      this.tickerTask = null;
+    }
+  }
+
+  public boolean matches(ActionDataEntry actionDataEntry, UUID playerUUID) {
+    return this.actionDataEntry.equals(actionDataEntry) && this.playerUUID.equals(playerUUID);
+  }
+
+  public CompoundTag save(CompoundTag compoundTag, ServerLevel serverLevel) {
+    compoundTag.put(DATA_ACTION_TAG, this.actionDataEntry.createTag());
+    compoundTag.putUUID(DATA_PLAYER_TAG, this.playerUUID);
+    compoundTag.putLong(DATA_REMAINING_TICKS_TAG, this.getRemainingTicks(serverLevel));
+    return compoundTag;
+  }
+
+  @Override
+  public String toString() {
+    return "ActionTimer [action="
+        + this.actionDataEntry
+        + ", player="
+        + this.playerUUID
+        + ", remainingTicks="
+        + this.remainingTicks
+        + ", scheduled="
+        + this.isScheduled()
+        + "]";
+  }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2024 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easynpc.data.action;
+
+import de.markusbordihn.easynpc.Constants;
+import de.markusbordihn.easynpc.data.ticker.TickerScheduler;
+import de.markusbordihn.easynpc.data.ticker.TickerTask;
+import de.markusbordihn.easynpc.entity.easynpc.EasyNPC;
+import de.markusbordihn.easynpc.entity.easynpc.data.ActionEventData;
+import de.markusbordihn.easynpc.entity.easynpc.handlers.ActionHandler;
+import java.util.HashSet;
+import java.util.Set;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Runs delayed and repeating actions on the timing wheel of the {@link TickerScheduler}. Pending
+ * timers are stored inside the {@link ActionTimerState} of the Easy NPC itself, so that they are
+ * saved with the Easy NPC and scheduled again, once the Easy NPC is loaded. Repeating actions stop,
+ * as soon as their conditions are no longer met or the player left the server. All methods are only
+ * accessed from the server thread.
+ */
+public class ActionTimerManager {
+
+  public static final int MAX_ACTION_TIMERS_PER_NPC = 32;
+  protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
+  protected static final String LOG_PREFIX = "[Action Timer Manager]";
+
+  private static final Set<EasyNPC<?>> easyNPCsWithTimers = new HashSet<>();
+
+  private static long executedTimers = 0;
+  private static long droppedTimers = 0;
+
+  private ActionTimerManager() {}
+
+  public static void scheduleAction(
+      EasyNPC<?> easyNPC, ActionDataEntry actionDataEntry, ServerPlayer serverPlayer) {
+    ActionTimerState actionTimerState = getActionTimerState(easyNPC);
+    if (actionTimerState == null || actionDataEntry == null || serverPlayer == null) {
+      return;
+    }
+
+    // Don't stack the same timer for the same player, e.g. for repeated interactions.
+    if (actionTimerState.get(actionDataEntry, serverPlayer.getUUID()) != null) {
+      log.debug(
+          "{} Timer for {} and {} is already pending for {}",
+          LOG_PREFIX,
+          actionDataEntry,
+          serverPlayer,
+          easyNPC);
+      return;
+    }
+    if (actionTimerState.size() >= MAX_ACTION_TIMERS_PER_NPC) {
+      log.warn(
+          "{} Reached max. number of {} timers for {}, ignoring {}!",
+          LOG_PREFIX,
+          MAX_ACTION_TIMERS_PER_NPC,
+          easyNPC,
+          actionDataEntry);
+      droppedTimers++;
+      return;
+    }
+
+    ActionTimer actionTimer =
+        new ActionTimer(actionDataEntry, serverPlayer.getUUID(), actionDataEntry.delay());
+    if (scheduleActionTimer(easyNPC, actionTimerState, actionTimer)) {
+      actionTimerState.add(actionTimer);
+      easyNPCsWithTimers.add(easyNPC);
+    }
+  }
+
+  public static void restoreActionTimers(EasyNPC<?> easyNPC) {
+    ActionTimerState actionTimerState = getActionTimerState(easyNPC);
+    if (actionTimerState == null || actionTimerState.isEmpty()) {
+      return;
+    }
+    for (ActionTimer actionTimer : actionTimerState.getActionTimers()) {
+      if (!actionTimer.isScheduled()) {
+        scheduleActionTimer(easyNPC, actionTimerState, actionTimer);
+      }
+    }
+    easyNPCsWithTimers.add(easyNPC);
+    log.debug(
+        "{} Restored {} timers for {}", LOG_PREFIX, actionTimerState.size(), easyNPC.getUUID());
+  }
+
+  public static void removeEasyNPC(EasyNPC<?> easyNPC) {
+    ActionTimerState actionTimerState = getActionTimerState(easyNPC);
+    if (actionTimerState != null) {
+      actionTimerState.cancel(easyNPC.getServerLevel());
+      actionTimerState.clear();
+    }
+    easyNPCsWithTimers.remove(easyNPC);
+  }
+
+  public static int getNumberOfEasyNPCs() {
+    return easyNPCsWithTimers.size();
+  }
+
+  public static int getNumberOfActionTimers() {
+    int numberOfActionTimers = 0;
+    for (EasyNPC<?> easyNPC : easyNPCsWithTimers) {
+      ActionTimerState actionTimerState = getActionTimerState(easyNPC);
+      if (actionTimerState != null) {
+        numberOfActionTimers += actionTimerState.size();
+      }
+    }
+    return numberOfActionTimers;
+  }
+
+  public static long getExecutedTimers() {
+    return executedTimers;
+  }
+
+  public static long getDroppedTimers() {
+    return droppedTimers;
+  }
+
+  private static boolean scheduleActionTimer(
+      EasyNPC<?> easyNPC, ActionTimerState actionTimerState, ActionTimer actionTimer) {
+    ServerLevel serverLevel = easyNPC.getServerLevel();
+    TickerTask tickerTask =
+        TickerScheduler.scheduleTimer(
+            easyNPC,
+            actionTimer.getRemainingTicks(serverLevel),
+            actionTimer.getActionDataEntry().interval(),
+            () -> runActionTimer(easyNPC, actionTimerState, actionTimer));
+    actionTimer.setTickerTask(tickerTask);
+    return tickerTask != null;
+  }
+
+  private static void runActionTimer(
+      EasyNPC<?> easyNPC, ActionTimerState actionTimerState, ActionTimer actionTimer) {
+    ActionHandler<?> actionHandler = easyNPC.getEasyNPCActionHandler();
+    ServerLevel serverLevel = easyNPC.getServerLevel();
+    ServerPlayer serverPlayer =
+        serverLevel != null
+            ? serverLevel.getServer().getPlayerList().getPlayer(actionTimer.getPlayerUUID())
+            : null;
+
+    // Stop the timer, if the player left or the conditions of a repeating action are not met.
+    boolean performed =
+        actionHandler != null
+            && serverPlayer != null
+            && actionHandler.performAction(actionTimer.getActionDataEntry(), serverPlayer);
+    if (performed) {
+      executedTimers++;
+    }
+    if (!performed || !actionTimer.getActionDataEntry().hasInterval()) {
+      stopActionTimer(easyNPC, actionTimerState, actionTimer);
+    }
+  }
+
+  private static void stopActionTimer(
+      EasyNPC<?> easyNPC, ActionTimerState actionTimerState, ActionTimer actionTimer) {
+    actionTimer.cancel(easyNPC.getServerLevel());
+    actionTimerState.remove(actionTimer);
+    if (actionTimerState.isEmpty()) {
+      easyNPCsWithTimers.remove(easyNPC);
+    }
+  }
+
+  private static ActionTimerState getActionTimerState(EasyNPC<?> easyNPC) {
+    if (easyNPC == null) {
+      return null;
+    }
+    ActionEventData<?> actionEventData = easyNPC.getEasyNPCActionEventData();
+    return actionEventData != null ? actionEventData.getActionTimerState() : null;
+  }
+}
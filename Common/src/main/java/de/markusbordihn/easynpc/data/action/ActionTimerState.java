@@ -0,0 +1,107 @@
+/*
+ * Copyright 2024 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easynpc.data.action;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.server.level.ServerLevel;
+
+/**
+ * Pending action timers of a single Easy NPC, which are saved together with the Easy NPC and
+ * scheduled again by the {@link ActionTimerManager} once the Easy NPC is loaded.
+ */
+public class ActionTimerState {
+
+  public static final String DATA_ACTION_TIMERS_TAG = "ActionTimers";
+
+  private final List<ActionTimer> actionTimers = new ArrayList<>();
+
+  public ActionTimerState() {}
+
+  public void add(ActionTimer actionTimer) {
+    this.actionTimers.add(actionTimer);
+  }
+
+  public ActionTimer get(ActionDataEntry actionDataEntry, UUID playerUUID) {
+    for (ActionTimer actionTimer : this.actionTimers) {
+      if (actionTimer.matches(actionDataEntry, playerUUID)) {
+        return actionTimer;
+      }
+    }
+    return null;
+  }
+
+  public void remove(ActionTimer actionTimer) {
+    this.actionTimers.remove(actionTimer);
+  }
+
+  public void cancel(ServerLevel serverLevel) {
+    for (ActionTimer actionTimer : this.actionTimers) {
+      actionTimer.cancel(serverLevel);
+    }
+  }
+
+  public void clear() {
+    this.actionTimers.clear();
+  }
+
+  public List<ActionTimer> getActionTimers() {
+    return Collections.unmodifiableList(this.actionTimers);
+  }
+
+  public boolean isEmpty() {
+    return this.actionTimers.isEmpty();
+  }
+
+  public int size() {
+    return this.actionTimers.size();
+  }
+
+  public void load(CompoundTag compoundTag) {
+    this.actionTimers.clear();
+    if (!compoundTag.contains(DATA_ACTION_TIMERS_TAG)) {
+      return;
+    }
+    ListTag actionTimerListTag = compoundTag.getList(DATA_ACTION_TIMERS_TAG, Tag.TAG_COMPOUND);
+    for (int i = 0; i < actionTimerListTag.size(); i++) {
+      CompoundTag actionTimerTag = actionTimerListTag.getCompound(i);
+      if (ActionTimer.isValid(actionTimerTag)) {
+        this.actionTimers.add(new ActionTimer(actionTimerTag));
+      }
+    }
+  }
+
+  public CompoundTag save(CompoundTag compoundTag, ServerLevel serverLevel) {
+    if (this.actionTimers.isEmpty()) {
+      return compoundTag;
+    }
+    ListTag actionTimerListTag = new ListTag();
+    for (ActionTimer actionTimer : this.actionTimers) {
+      actionTimerListTag.add(actionTimer.save(new CompoundTag(), serverLevel));
+    }
+    compoundTag.put(DATA_ACTION_TIMERS_TAG, actionTimerListTag);
+    return compoundTag;
+  }
+}
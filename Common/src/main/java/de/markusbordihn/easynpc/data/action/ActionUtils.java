@@ -19,9 +19,6 @@
 
 package de.markusbordihn.easynpc.data.action;
 
-import net.minecraft.server.level.ServerPlayer;
-import net.minecraft.world.entity.LivingEntity;
-
 public class ActionUtils {
 
   public static final String COMMAND_DISPLAY_TITLE = "/title @initiator title {\"text\":\"";
@@ -36,7 +33,7 @@ public class ActionUtils {
 
   private ActionUtils() {}
 
-  public static String parseAction(String command, LivingEntity entity, ServerPlayer player) {
+  public static String parseCommandShortcuts(String command) {
     if (command == null || command.isEmpty()) {
       return "";
     }
@@ -61,19 +58,6 @@ public class ActionUtils {
       output = output.replace(MACRO_SUCCESS_MESSAGE, "").replace("\"", "").trim();
       output = COMMAND_DISPLAY_TITLE + output + "\",\"color\":\"green\"}";
     }
-
-    // Replace NPC macros.
-    if (entity != null) {
-      output = output.replace(MACRO_NPC_UUID, entity.getUUID().toString());
-      output = output.replace(MACRO_NPC, entity.getName().getString());
-    }
-
-    // Replace player macros.
-    if (player != null) {
-      output = output.replace(MACRO_INITIATOR_UUID, player.getUUID().toString());
-      output = output.replace(MACRO_INITIATOR, player.getName().getString());
-    }
-
     return output;
   }
 }
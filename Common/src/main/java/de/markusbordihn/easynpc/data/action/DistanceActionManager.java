@@ -0,0 +1,266 @@
+/*
+ * Copyright 2024 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easynpc.data.action;
+
+import de.markusbordihn.easynpc.Constants;
+import de.markusbordihn.easynpc.entity.EasyNPCSpatialIndex;
+import de.markusbordihn.easynpc.entity.LivingEntityManager;
+import de.markusbordihn.easynpc.entity.easynpc.EasyNPC;
+import de.markusbordihn.easynpc.entity.easynpc.data.ActionEventData;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.Mob;
+import net.minecraft.world.level.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Shared player proximity pass for the distance action events. Only Easy NPCs with at least one
+ * distance action are registered for the pass, all other Easy NPCs are skipped without any distance
+ * check. Once per tick and level, the Easy NPCs around each player are looked up in the spatial
+ * index and the distance band of each registered Easy NPC and player pair is compared with the
+ * players already in the matching action group. Actions are executed when a player enters a
+ * distance band, and the player is removed from the action group once it leaves. The whole pass is
+ * only accessed from the server thread.
+ */
+public class DistanceActionManager {
+
+  protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
+  protected static final String LOG_PREFIX = "[Distance Action Manager]";
+
+  private static final ActionEventType[] DISTANCE_ACTION_EVENT_TYPES = {
+    ActionEventType.ON_DISTANCE_NEAR,
+    ActionEventType.ON_DISTANCE_CLOSE,
+    ActionEventType.ON_DISTANCE_VERY_CLOSE,
+    ActionEventType.ON_DISTANCE_TOUCH
+  };
+  private static final ActionGroup[] DISTANCE_ACTION_GROUPS = {
+    ActionGroup.DISTANCE_NEAR,
+    ActionGroup.DISTANCE_CLOSE,
+    ActionGroup.DISTANCE_VERY_CLOSE,
+    ActionGroup.DISTANCE_TOUCH
+  };
+  private static final double[] DISTANCE_RANGES = {16.0D, 8.0D, 4.0D, 1.25D};
+  private static final double MAX_DISTANCE_RANGE = DISTANCE_RANGES[0];
+
+  // Easy NPCs with at least one distance action, which are part of the proximity pass.
+  private static final Map<ResourceKey<Level>, Set<EasyNPC<?>>> registeredEasyNPCMap =
+      new HashMap<>();
+
+  // Easy NPCs with at least one player in one of their distance action groups.
+  private static final Map<ResourceKey<Level>, Set<EasyNPC<?>>> activeEasyNPCMap = new HashMap<>();
+
+  // Number of Easy NPCs per level, which were skipped by the last proximity pass.
+  private static final Object2IntOpenHashMap<ResourceKey<Level>> skippedEasyNPCMap =
+      new Object2IntOpenHashMap<>();
+
+  // Reused buffers for actions, which are executed after the proximity pass.
+  private static final ArrayList<EasyNPC<?>> pendingEasyNPCs = new ArrayList<>();
+  private static final ArrayList<ServerPlayer> pendingServerPlayers = new ArrayList<>();
+  private static final ArrayList<ActionEventType> pendingActionEventTypes = new ArrayList<>();
+
+  // Player and sets of the running pass, to avoid a new consumer for each player.
+  private static ServerPlayer currentServerPlayer;
+  private static Set<EasyNPC<?>> currentRegisteredEasyNPCs;
+  private static Set<EasyNPC<?>> currentActiveEasyNPCs;
+  private static final Consumer<EasyNPC<?>> DISTANCE_CHECK =
+      DistanceActionManager::checkDistanceActions;
+
+  private DistanceActionManager() {}
+
+  public static void addEasyNPC(EasyNPC<?> easyNPC) {
+    ActionEventData<?> actionEventData = easyNPC.getEasyNPCActionEventData();
+    ServerLevel serverLevel = easyNPC.getServerLevel();
+    if (actionEventData == null || serverLevel == null) {
+      return;
+    }
+    if (actionEventData.hasDistanceActionEvent()) {
+      registeredEasyNPCMap
+          .computeIfAbsent(serverLevel.dimension(), key -> new LinkedHashSet<>())
+          .add(easyNPC);
+    } else {
+      removeEasyNPC(easyNPC);
+    }
+  }
+
+  public static void updateEasyNPC(EasyNPC<?> easyNPC) {
+    // Easy NPCs which are not added to a level yet are registered by addEasyNPC.
+    if (LivingEntityManager.getEasyNPCEntityByUUID(easyNPC.getUUID()) != easyNPC) {
+      return;
+    }
+    addEasyNPC(easyNPC);
+  }
+
+  public static void removeEasyNPC(EasyNPC<?> easyNPC) {
+    boolean isRegistered = false;
+    for (Set<EasyNPC<?>> registeredEasyNPCs : registeredEasyNPCMap.values()) {
+      isRegistered |= registeredEasyNPCs.remove(easyNPC);
+    }
+    if (!isRegistered) {
+      return;
+    }
+    for (Set<EasyNPC<?>> activeEasyNPCs : activeEasyNPCMap.values()) {
+      activeEasyNPCs.remove(easyNPC);
+    }
+    for (ActionGroup actionGroup : DISTANCE_ACTION_GROUPS) {
+      ActionManager.removeActionGroup(easyNPC, actionGroup);
+    }
+  }
+
+  public static void tick(ServerLevel serverLevel) {
+    Set<EasyNPC<?>> registeredEasyNPCs = registeredEasyNPCMap.get(serverLevel.dimension());
+    int numberOfRegisteredEasyNPCs = registeredEasyNPCs != null ? registeredEasyNPCs.size() : 0;
+    skippedEasyNPCMap.put(
+        serverLevel.dimension(),
+        Math.max(
+            0, EasyNPCSpatialIndex.getNumberOfEasyNPCs(serverLevel) - numberOfRegisteredEasyNPCs));
+
+    List<ServerPlayer> serverPlayers = serverLevel.players();
+    Set<EasyNPC<?>> activeEasyNPCs = activeEasyNPCMap.get(serverLevel.dimension());
+    if ((serverPlayers.isEmpty() || numberOfRegisteredEasyNPCs == 0)
+        && (activeEasyNPCs == null || activeEasyNPCs.isEmpty())) {
+      return;
+    }
+    serverLevel.getProfiler().push("easyNPCDistanceActions");
+
+    // Remove players, which left the distance bands of the active easy NPCs.
+    if (activeEasyNPCs != null) {
+      Iterator<EasyNPC<?>> iterator = activeEasyNPCs.iterator();
+      while (iterator.hasNext()) {
+        if (!updateDistanceActionGroups(iterator.next())) {
+          iterator.remove();
+        }
+      }
+    } else {
+      activeEasyNPCs = new LinkedHashSet<>();
+      activeEasyNPCMap.put(serverLevel.dimension(), activeEasyNPCs);
+    }
+
+    // Add players, which entered the distance bands of the registered easy NPCs around them.
+    if (numberOfRegisteredEasyNPCs > 0) {
+      currentRegisteredEasyNPCs = registeredEasyNPCs;
+      currentActiveEasyNPCs = activeEasyNPCs;
+      for (ServerPlayer serverPlayer : serverPlayers) {
+        if (!serverPlayer.isSpectator()) {
+          currentServerPlayer = serverPlayer;
+          EasyNPCSpatialIndex.findNpcsInRadius(
+              serverLevel,
+              serverPlayer.getX(),
+              serverPlayer.getY(),
+              serverPlayer.getZ(),
+              MAX_DISTANCE_RANGE,
+              DISTANCE_CHECK);
+        }
+      }
+      currentServerPlayer = null;
+      currentRegisteredEasyNPCs = null;
+      currentActiveEasyNPCs = null;
+    }
+
+    // Queue actions after the pass, because they are able to add or remove entities.
+    for (int i = 0; i < pendingEasyNPCs.size(); i++) {
+      executeDistanceAction(
+          pendingEasyNPCs.get(i), pendingActionEventTypes.get(i), pendingServerPlayers.get(i));
+    }
+    pendingEasyNPCs.clear();
+    pendingServerPlayers.clear();
+    pendingActionEventTypes.clear();
+
+    serverLevel.getProfiler().pop();
+  }
+
+  public static int getNumberOfActiveEasyNPCs() {
+    int numberOfActiveEasyNPCs = 0;
+    for (Set<EasyNPC<?>> activeEasyNPCs : activeEasyNPCMap.values()) {
+      numberOfActiveEasyNPCs += activeEasyNPCs.size();
+    }
+    return numberOfActiveEasyNPCs;
+  }
+
+  public static int getNumberOfRegisteredEasyNPCs(ServerLevel serverLevel) {
+    Set<EasyNPC<?>> registeredEasyNPCs = registeredEasyNPCMap.get(serverLevel.dimension());
+    return registeredEasyNPCs != null ? registeredEasyNPCs.size() : 0;
+  }
+
+  public static int getNumberOfSkippedEasyNPCs(ServerLevel serverLevel) {
+    return skippedEasyNPCMap.getInt(serverLevel.dimension());
+  }
+
+  private static void checkDistanceActions(EasyNPC<?> easyNPC) {
+    if (!currentRegisteredEasyNPCs.contains(easyNPC)) {
+      return;
+    }
+    ActionEventData<?> actionEventData = easyNPC.getEasyNPCActionEventData();
+    Mob mob = easyNPC.getMob();
+    if (actionEventData == null || mob == null || mob.isRemoved() || mob.isDeadOrDying()) {
+      return;
+    }
+
+    double distanceSqr = mob.distanceToSqr(currentServerPlayer);
+    for (int i = 0; i < DISTANCE_RANGES.length; i++) {
+      if (distanceSqr >= DISTANCE_RANGES[i] * DISTANCE_RANGES[i]) {
+        // The distance ranges are sorted, so all following ranges are smaller.
+        break;
+      }
+      ActionEventType actionEventType = DISTANCE_ACTION_EVENT_TYPES[i];
+      ActionGroup actionGroup = DISTANCE_ACTION_GROUPS[i];
+      if (actionEventData.hasActionEvent(actionEventType)
+          && !ActionManager.containsPlayer(easyNPC, actionGroup, currentServerPlayer)) {
+        ActionManager.addPlayer(easyNPC, actionGroup, currentServerPlayer);
+        currentActiveEasyNPCs.add(easyNPC);
+        pendingEasyNPCs.add(easyNPC);
+        pendingServerPlayers.add(currentServerPlayer);
+        pendingActionEventTypes.add(actionEventType);
+      }
+    }
+  }
+
+  private static boolean updateDistanceActionGroups(EasyNPC<?> easyNPC) {
+    boolean isRemoved = easyNPC.getEntity().isRemoved();
+    boolean hasPlayers = false;
+    for (int i = 0; i < DISTANCE_ACTION_GROUPS.length; i++) {
+      if (isRemoved) {
+        ActionManager.removeActionGroup(easyNPC, DISTANCE_ACTION_GROUPS[i]);
+      } else if (ActionManager.removePlayersOutOfRange(
+          easyNPC, DISTANCE_ACTION_GROUPS[i], DISTANCE_RANGES[i])) {
+        hasPlayers = true;
+      }
+    }
+    return hasPlayers;
+  }
+
+  private static void executeDistanceAction(
+      EasyNPC<?> easyNPC, ActionEventType actionEventType, ServerPlayer serverPlayer) {
+    if (!easyNPC.getEntity().isRemoved()) {
+      log.debug("{} {} for {} and {}", LOG_PREFIX, actionEventType, easyNPC, serverPlayer);
+      ActionQueueManager.queueActionEvent(easyNPC, actionEventType, serverPlayer, true);
+    }
+  }
+}
@@ -19,21 +19,172 @@
 
 package de.markusbordihn.easynpc.data.condition;
 
+import de.markusbordihn.easynpc.Constants;
+import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.minecraft.world.scores.Objective;
+import net.minecraft.world.scores.Scoreboard;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
-public record ConditionDataEntry(ConditionType conditionType) {
+public record ConditionDataEntry(
+    ConditionType conditionType,
+    ConditionOperation operation,
+    String name,
+    int value,
+    int maxValue) {
 
-  public static final ConditionDataEntry EMPTY =
-      new ConditionDataEntry(de.markusbordihn.easynpc.data.condition.ConditionType.NONE);
+  public static final ConditionDataEntry EMPTY = new ConditionDataEntry(ConditionType.NONE);
   public static final String DATA_TYPE_TAG = "Type";
+  public static final String DATA_OPERATION_TAG = "Op";
+  public static final String DATA_NAME_TAG = "Name";
+  public static final String DATA_VALUE_TAG = "Value";
+  public static final String DATA_MAX_VALUE_TAG = "MaxValue";
+  public static final int DAY_TICKS = 24000;
+  private static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
+
+  public ConditionDataEntry(ConditionType conditionType) {
+    this(conditionType, ConditionOperation.EQUAL, "", 0, 0);
+  }
 
   public ConditionDataEntry(CompoundTag compoundTag) {
-    this(ConditionType.get(compoundTag.getString(DATA_TYPE_TAG)));
+    this(
+        ConditionType.get(compoundTag.getString(DATA_TYPE_TAG)),
+        ConditionOperation.get(compoundTag.getString(DATA_OPERATION_TAG)),
+        compoundTag.getString(DATA_NAME_TAG),
+        compoundTag.getInt(DATA_VALUE_TAG),
+        compoundTag.getInt(DATA_MAX_VALUE_TAG));
+  }
+
+  public ConditionPredicate compile() {
+    return switch (this.conditionType) {
+      case NONE -> ConditionPredicate.ALWAYS;
+      case DISTANCE -> compileDistance();
+      case ITEM_IN_HAND -> compileItemInHand();
+      case PERMISSION_LEVEL -> compilePermissionLevel();
+      case PLAYER_TAG -> compilePlayerTag();
+      case SCOREBOARD -> compileScoreboard();
+      case TIME_OF_DAY -> compileTimeOfDay();
+    };
+  }
+
+  public int getEvaluationCost() {
+    // Relative costs to evaluate cheap conditions first.
+    return switch (this.conditionType) {
+      case NONE -> 0;
+      case PERMISSION_LEVEL, TIME_OF_DAY -> 1;
+      case DISTANCE, ITEM_IN_HAND -> 2;
+      case PLAYER_TAG -> 3;
+      case SCOREBOARD -> 4;
+    };
+  }
+
+  private ConditionPredicate compileDistance() {
+    // Compare squared distances to avoid the square root.
+    double distanceSqr = (double) this.value * this.value;
+    ConditionOperation conditionOperation = this.operation;
+    return (livingEntity, serverPlayer) ->
+        livingEntity != null
+            && serverPlayer != null
+            && livingEntity.level() == serverPlayer.level()
+            && conditionOperation.compare(livingEntity.distanceToSqr(serverPlayer), distanceSqr);
+  }
+
+  private ConditionPredicate compileItemInHand() {
+    ResourceLocation itemId = ResourceLocation.tryParse(this.name);
+    Item item = itemId != null ? BuiltInRegistries.ITEM.get(itemId) : Items.AIR;
+    if (item == Items.AIR) {
+      log.warn("Unknown item {} for condition {}", this.name, this);
+      return ConditionPredicate.NEVER;
+    }
+    int count = Math.max(1, this.value);
+    ConditionOperation conditionOperation =
+        this.operation == ConditionOperation.EQUAL
+            ? ConditionOperation.GREATER_OR_EQUAL
+            : this.operation;
+    return (livingEntity, serverPlayer) -> {
+      if (serverPlayer == null) {
+        return false;
+      }
+      ItemStack itemStack = serverPlayer.getMainHandItem();
+      return itemStack.is(item) && conditionOperation.compare(itemStack.getCount(), count);
+    };
+  }
+
+  private ConditionPredicate compilePermissionLevel() {
+    int permissionLevel = this.value;
+    ConditionOperation conditionOperation = this.operation;
+    return (livingEntity, serverPlayer) -> {
+      MinecraftServer minecraftServer = serverPlayer != null ? serverPlayer.getServer() : null;
+      return minecraftServer != null
+          && conditionOperation.compare(
+              minecraftServer.getProfilePermissions(serverPlayer.getGameProfile()),
+              permissionLevel);
+    };
+  }
+
+  private ConditionPredicate compilePlayerTag() {
+    String tag = this.name;
+    boolean hasTag = this.operation != ConditionOperation.NOT_EQUAL;
+    return (livingEntity, serverPlayer) ->
+        serverPlayer != null && serverPlayer.getTags().contains(tag) == hasTag;
+  }
+
+  private ConditionPredicate compileScoreboard() {
+    String objectiveName = this.name;
+    int score = this.value;
+    ConditionOperation conditionOperation = this.operation;
+    return (livingEntity, serverPlayer) -> {
+      if (serverPlayer == null) {
+        return false;
+      }
+      Scoreboard scoreboard = serverPlayer.getScoreboard();
+      Objective objective = scoreboard.getObjective(objectiveName);
+      String scoreHolder = serverPlayer.getScoreboardName();
+      return objective != null
+          && scoreboard.hasPlayerScore(scoreHolder, objective)
+          && conditionOperation.compare(
+              scoreboard.getOrCreatePlayerScore(scoreHolder, objective).getScore(), score);
+    };
+  }
+
+  private ConditionPredicate compileTimeOfDay() {
+    // Time range within a day, which could also wrap around midnight, like 13000 to 1000.
+    int fromTime = Math.floorMod(this.value, DAY_TICKS);
+    int toTime = Math.floorMod(this.maxValue, DAY_TICKS);
+    return (livingEntity, serverPlayer) -> {
+      if (livingEntity == null) {
+        return false;
+      }
+      long dayTime = livingEntity.level().getDayTime() % DAY_TICKS;
+      return fromTime <= toTime
+          ? dayTime >= fromTime && dayTime <= toTime
+          : dayTime >= fromTime || dayTime <= toTime;
+    };
   }
 
   public CompoundTag create(CompoundTag compoundTag) {
     compoundTag.putString(DATA_TYPE_TAG, this.conditionType.name());
 
+    // Only save operation, name and values if they are different from default.
+    if (this.operation != ConditionOperation.EQUAL) {
+      compoundTag.putString(DATA_OPERATION_TAG, this.operation.name());
+    }
+    if (this.name != null && !this.name.isEmpty()) {
+      compoundTag.putString(DATA_NAME_TAG, this.name);
+    }
+    if (this.value != 0) {
+      compoundTag.putInt(DATA_VALUE_TAG, this.value);
+    }
+    if (this.maxValue != 0) {
+      compoundTag.putInt(DATA_MAX_VALUE_TAG, this.maxValue);
+    }
+
     return compoundTag;
   }
 
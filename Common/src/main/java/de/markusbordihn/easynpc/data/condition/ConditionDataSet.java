@@ -19,16 +19,27 @@
 
 package de.markusbordihn.easynpc.data.condition;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.ListTag;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.LivingEntity;
 
 public class ConditionDataSet {
 
-  public static final ConditionDataSet EMPTY = new ConditionDataSet();
   public static final String CONDITION_DATA_SET_TAG = "ConditionDataSet";
   private final Set<ConditionDataEntry> conditionDataEntries = new LinkedHashSet<>();
+  private ConditionPredicate conditionPredicate = ConditionPredicate.ALWAYS;
+
+  // Last evaluation result, which is re-used for the same entity and player within the same tick.
+  private long lastGameTime = -1;
+  private int lastEntityId;
+  private int lastPlayerId;
+  private boolean lastResult;
 
   public ConditionDataSet() {}
 
@@ -44,20 +55,63 @@ public class ConditionDataSet {
     return this.conditionDataEntries.size();
   }
 
+  public void add(ConditionDataEntry conditionDataEntry) {
+    if (conditionDataEntry != null && this.conditionDataEntries.add(conditionDataEntry)) {
+      this.compile();
+    }
+  }
+
+  public Set<ConditionDataEntry> getEntries() {
+    return this.conditionDataEntries;
+  }
+
+  public boolean test(LivingEntity livingEntity, ServerPlayer serverPlayer) {
+    if (this.conditionPredicate == ConditionPredicate.ALWAYS) {
+      return true;
+    }
+    long gameTime = livingEntity != null ? livingEntity.level().getGameTime() : -1;
+    int entityId = livingEntity != null ? livingEntity.getId() : -1;
+    int playerId = serverPlayer != null ? serverPlayer.getId() : -1;
+    if (gameTime >= 0
+        && gameTime == this.lastGameTime
+        && entityId == this.lastEntityId
+        && playerId == this.lastPlayerId) {
+      return this.lastResult;
+    }
+    this.lastResult = this.conditionPredicate.test(livingEntity, serverPlayer);
+    this.lastGameTime = gameTime;
+    this.lastEntityId = entityId;
+    this.lastPlayerId = playerId;
+    return this.lastResult;
+  }
+
+  private void compile() {
+    // Combine all conditions into a short-circuit predicate, with the cheapest conditions first.
+    List<ConditionDataEntry> sortedConditionDataEntries =
+        new ArrayList<>(this.conditionDataEntries);
+    sortedConditionDataEntries.sort(Comparator.comparingInt(ConditionDataEntry::getEvaluationCost));
+    ConditionPredicate predicate = ConditionPredicate.ALWAYS;
+    for (ConditionDataEntry conditionDataEntry : sortedConditionDataEntries) {
+      predicate = predicate.and(conditionDataEntry.compile());
+    }
+    this.conditionPredicate = predicate;
+    this.lastGameTime = -1;
+  }
+
   public void load(CompoundTag compoundTag) {
     if (compoundTag == null || !compoundTag.contains(CONDITION_DATA_SET_TAG)) {
       return;
     }
-    CompoundTag conditionDataSetTag = compoundTag.getCompound(CONDITION_DATA_SET_TAG);
 
     // Load condition data entries
     this.conditionDataEntries.clear();
-    ListTag conditionDataEntriesTag = conditionDataSetTag.getList(CONDITION_DATA_SET_TAG, 10);
+    ListTag conditionDataEntriesTag = compoundTag.getList(CONDITION_DATA_SET_TAG, 10);
     for (int i = 0; i < conditionDataEntriesTag.size(); i++) {
       CompoundTag conditionDataEntryTag = conditionDataEntriesTag.getCompound(i);
       ConditionDataEntry conditionDataEntry = new ConditionDataEntry(conditionDataEntryTag);
       this.conditionDataEntries.add(conditionDataEntry);
     }
+    this.compile();
   }
 
   public CompoundTag save(CompoundTag compoundTag) {
@@ -77,6 +131,17 @@ public class ConditionDataSet {
     return compoundTag;
   }
 
+  @Override
+  public boolean equals(Object object) {
+    return object instanceof ConditionDataSet conditionDataSet
+        && this.conditionDataEntries.equals(conditionDataSet.conditionDataEntries);
+  }
+
+  @Override
+  public int hashCode() {
+    return this.conditionDataEntries.hashCode();
+  }
+
   public String toString() {
     return this.conditionDataEntries.toString();
   }
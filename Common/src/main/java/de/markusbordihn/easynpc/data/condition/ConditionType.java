@@ -20,7 +20,13 @@
 package de.markusbordihn.easynpc.data.condition;
 
 public enum ConditionType {
-  NONE;
+  NONE,
+  DISTANCE,
+  ITEM_IN_HAND,
+  PERMISSION_LEVEL,
+  PLAYER_TAG,
+  SCOREBOARD,
+  TIME_OF_DAY;
 
   public static ConditionType get(String conditionType) {
     if (conditionType == null || conditionType.isEmpty()) {
@@ -20,7 +20,10 @@
 package de.markusbordihn.easynpc.data.dialog;
 
 import de.markusbordihn.easynpc.Constants;
+import de.markusbordihn.easynpc.utils.MacroTemplate;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
@@ -39,6 +42,7 @@ public final class DialogDataEntry {
   public static final int MAX_DIALOG_LABEL_LENGTH = 32;
   private Set<DialogButtonEntry> dialogButtons = new LinkedHashSet<>();
   private Set<DialogTextData> dialogTexts = new LinkedHashSet<>();
+  private final Map<String, MacroTemplate> dialogTextTemplates = new HashMap<>();
   private UUID id;
   private String label = "";
   private String name;
@@ -126,7 +130,15 @@ public final class DialogDataEntry {
   }
 
   public String getDialogText(DialogMetaData dialogMetaData) {
-    return DialogUtils.parseDialogText(getDialogText(), dialogMetaData);
+    String dialogText = getDialogText().getString();
+    if (dialogMetaData == null) {
+      return dialogText;
+    }
+
+    // Compile each dialog text only once and bind the macros for the given meta data.
+    return this.dialogTextTemplates
+        .computeIfAbsent(dialogText, DialogUtils::compileDialogText)
+        .render(dialogMetaData.livingEntity(), dialogMetaData.player());
   }
 
   public Set<DialogTextData> getDialogTexts() {
@@ -135,6 +147,7 @@ public final class DialogDataEntry {
 
   public void setDialogTexts(Set<DialogTextData> dialogTexts) {
     this.dialogTexts = dialogTexts;
+    this.dialogTextTemplates.clear();
   }
 
   public Set<DialogButtonEntry> getDialogButtons() {
@@ -220,6 +233,7 @@ public final class DialogDataEntry {
         compoundTag.contains(DATA_LABEL_TAG) ? compoundTag.getString(DATA_LABEL_TAG) : this.name);
 
     // Load dialog texts, if available.
+    this.dialogTextTemplates.clear();
     if (compoundTag.contains(DATA_TEXTS_TAG)) {
       this.dialogTexts.clear();
       ListTag dialogTextsList = compoundTag.getList(DATA_TEXTS_TAG, 10);
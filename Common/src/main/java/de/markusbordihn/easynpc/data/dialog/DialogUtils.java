@@ -23,6 +23,7 @@ import de.markusbordihn.easynpc.data.action.ActionDataEntry;
 import de.markusbordihn.easynpc.data.action.ActionDataSet;
 import de.markusbordihn.easynpc.data.action.ActionDataType;
 import de.markusbordihn.easynpc.network.components.TextComponent;
+import de.markusbordihn.easynpc.utils.MacroTemplate;
 import de.markusbordihn.easynpc.utils.TextFormattingCodes;
 import java.util.LinkedHashSet;
 import java.util.Set;
@@ -50,18 +51,12 @@ public class DialogUtils {
   }
 
   public static String parseDialogText(String text, LivingEntity entity, Player player) {
+    return compileDialogText(text).render(entity, player);
+  }
 
-    // Handle dialog macros, if any.
-    if (hasDialogMacros(text)) {
-      // Replace entity macros.
-      if (entity != null) {
-        text = text.replace(MACRO_NPC_STRING, entity.getName().getString());
-      }
-
-      // Replace player macros.
-      if (player != null) {
-        text = text.replace(MACRO_INITIATOR_STRING, player.getName().getString());
-      }
+  public static MacroTemplate compileDialogText(String text) {
+    if (text == null || text.isEmpty()) {
+      return MacroTemplate.EMPTY;
     }
 
     // Replace all line breaks macros.
@@ -70,7 +65,8 @@ public class DialogUtils {
     // Replace color codes.
     text = TextFormattingCodes.parseTextFormattingCodes(text);
 
-    return text;
+    // Split the remaining text into static parts and dialog macros.
+    return MacroTemplate.compile(text, MacroTemplate.DIALOG_MACROS);
   }
 
   public static boolean hasDialogMacros(Component component) {
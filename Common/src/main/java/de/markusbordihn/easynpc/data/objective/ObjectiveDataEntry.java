@@ -21,6 +21,8 @@ package de.markusbordihn.easynpc.data.objective;
 
 import de.markusbordihn.easynpc.entity.LivingEntityManager;
 import de.markusbordihn.easynpc.entity.easynpc.EasyNPC;
+import de.markusbordihn.easynpc.entity.easynpc.ai.goal.LevelOfDetailGoal;
+import java.util.Objects;
 import java.util.UUID;
 import java.util.function.BooleanSupplier;
 import net.minecraft.nbt.CompoundTag;
@@ -60,6 +62,8 @@ public final class ObjectiveDataEntry {
   private int interval = 10;
   // Cache
   private boolean isRegistered = false;
+  private boolean isTargetValid = false;
+  private boolean isTargetStateDirty = true;
   private float lookDistance = 15.0F;
   private boolean mustReachTarget = true;
   // Objective Data
@@ -166,6 +170,7 @@ public final class ObjectiveDataEntry {
 
   public void setTargetPlayerName(String targetPlayerName) {
     this.targetPlayerName = targetPlayerName;
+    this.invalidateTargetState();
   }
 
   public float getLookDistance() {
@@ -193,6 +198,7 @@ public final class ObjectiveDataEntry {
 
   public void setTargetOwnerUUID(UUID targetOwnerUUID) {
     this.targetOwnerUUID = targetOwnerUUID;
+    this.invalidateTargetState();
   }
 
   public UUID getTargetEntityUUID() {
@@ -201,6 +207,7 @@ public final class ObjectiveDataEntry {
 
   public void setTargetEntityUUID(UUID targetEntityUUID) {
     this.targetEntityUUID = targetEntityUUID;
+    this.invalidateTargetState();
   }
 
   public LivingEntity getTargetEntity(EasyNPC<?> easyNPC) {
@@ -240,7 +247,9 @@ public final class ObjectiveDataEntry {
   }
 
   public boolean hasEntityTarget() {
-    return this.getType() == ObjectiveType.FOLLOW_ENTITY_BY_UUID && this.targetEntityUUID != null;
+    return (this.getType() == ObjectiveType.FOLLOW_ENTITY_BY_UUID
+            || this.getType() == ObjectiveType.FOLLOW_GROUP)
+        && this.targetEntityUUID != null;
   }
 
   public boolean hasValidTarget(EasyNPC<?> easyNPC) {
@@ -271,20 +280,121 @@ public final class ObjectiveDataEntry {
     return this.goal != null;
   }
 
+  public boolean isTarget(UUID uuid) {
+    return uuid != null
+        && ((this.hasEntityTarget() && uuid.equals(this.targetEntityUUID))
+            || (this.hasOwnerTarget() && uuid.equals(this.targetOwnerUUID)));
+  }
+
+  public boolean isTarget(String playerName) {
+    return playerName != null && this.hasPlayerTarget() && playerName.equals(this.targetPlayerName);
+  }
+
+  public boolean hasResolvedTarget(EasyNPC<?> easyNPC) {
+    if (this.isTargetStateDirty) {
+      this.updateTargetState(easyNPC);
+    }
+    return this.isTargetValid;
+  }
+
+  /**
+   * Resolves the target again, if the cached target state was invalidated by a join or leave event
+   * of the target or by an edit of the objective.
+   *
+   * @return true, if the target state has changed since the last resolution.
+   */
+  public boolean updateTargetState(EasyNPC<?> easyNPC) {
+    if (!this.isTargetStateDirty) {
+      return false;
+    }
+    boolean wasTargetValid = this.isTargetValid;
+    this.isTargetValid = this.hasValidTarget(easyNPC);
+    this.isTargetStateDirty = false;
+    return wasTargetValid != this.isTargetValid;
+  }
+
+  public boolean isTargetStateDirty() {
+    return this.isTargetStateDirty;
+  }
+
+  public void invalidateTargetState() {
+    this.isTargetStateDirty = true;
+  }
+
+  public boolean hasSameParameters(ObjectiveDataEntry objectiveDataEntry) {
+    return this.objectiveType == objectiveDataEntry.objectiveType
+        && Objects.equals(this.id, objectiveDataEntry.id)
+        && Objects.equals(this.targetEntityUUID, objectiveDataEntry.targetEntityUUID)
+        && Objects.equals(this.targetPlayerName, objectiveDataEntry.targetPlayerName)
+        && Objects.equals(this.targetOwnerUUID, objectiveDataEntry.targetOwnerUUID)
+        && this.speedModifier == objectiveDataEntry.speedModifier
+        && this.startDistance == objectiveDataEntry.startDistance
+        && this.stopDistance == objectiveDataEntry.stopDistance
+        && this.onlyAtNight == objectiveDataEntry.onlyAtNight
+        && this.distanceToPoi == objectiveDataEntry.distanceToPoi
+        && this.canDealWithDoors.getAsBoolean()
+            == objectiveDataEntry.canDealWithDoors.getAsBoolean()
+        && this.lookDistance == objectiveDataEntry.lookDistance
+        && this.attackInterval == objectiveDataEntry.attackInterval
+        && this.attackRadius == objectiveDataEntry.attackRadius
+        && this.interval == objectiveDataEntry.interval
+        && this.mustSeeTarget == objectiveDataEntry.mustSeeTarget
+        && this.mustReachTarget == objectiveDataEntry.mustReachTarget
+        && this.probability == objectiveDataEntry.probability;
+  }
+
+  /**
+   * Takes over the goal and target of an existing objective with the same type. Changed parameters
+   * are applied in place, if the goals support it.
+   *
+   * @return false, if the goals of the existing objective could not be reused.
+   */
+  public boolean reuseGoals(EasyNPC<?> easyNPC, ObjectiveDataEntry objectiveDataEntry) {
+    if (objectiveDataEntry == this
+        || objectiveDataEntry.objectiveType != this.objectiveType
+        || (objectiveDataEntry.goal == null && objectiveDataEntry.target == null)) {
+      return false;
+    }
+    if (!this.hasSameParameters(objectiveDataEntry)
+        && ((objectiveDataEntry.goal != null
+                && !ObjectiveUtils.updateObjectiveGoal(objectiveDataEntry.goal, this, easyNPC))
+            || (objectiveDataEntry.target != null
+                && !ObjectiveUtils.updateObjectiveGoal(
+                    objectiveDataEntry.target, this, easyNPC)))) {
+      return false;
+    }
+    this.goal = objectiveDataEntry.goal;
+    this.target = objectiveDataEntry.target;
+    this.isRegistered = objectiveDataEntry.isRegistered;
+    return true;
+  }
+
   public Goal getGoal(EasyNPC<?> easyNPC) {
     if (this.goal == null) {
-      this.goal = ObjectiveUtils.createObjectiveGoal(this, easyNPC);
+      this.goal =
+          LevelOfDetailGoal.wrap(
+              easyNPC, this.objectiveType, ObjectiveUtils.createObjectiveGoal(this, easyNPC));
     }
     return this.goal;
   }
 
   public Goal getTarget(EasyNPC<?> easyNPC) {
     if (this.target == null) {
-      this.target = ObjectiveUtils.createObjectiveTarget(this, easyNPC);
+      this.target =
+          LevelOfDetailGoal.wrap(
+              easyNPC, this.objectiveType, ObjectiveUtils.createObjectiveTarget(this, easyNPC));
     }
     return this.target;
   }
 
+  public Goal getCreatedGoal() {
+    return this.goal;
+  }
+
+  public Goal getCreatedTarget() {
+    return this.target;
+  }
+
   public void load(CompoundTag compoundTag) {
     this.objectiveType = ObjectiveType.get(compoundTag.getString(DATA_TYPE_TAG));
     this.priority = compoundTag.getInt(DATA_PRIORITY_TAG);
@@ -38,12 +38,15 @@ public class ObjectiveDataSet {
   private final HashMap<String, ObjectiveDataEntry> objectives = new HashMap<>();
   private final HashSet<String> targetedPlayerSet = new HashSet<>();
   private final HashSet<UUID> targetedEntitySet = new HashSet<>();
+  private final HashSet<UUID> targetedOwnerSet = new HashSet<>();
   private boolean hasEntityTarget = false;
   private boolean hasObjectives = false;
   private boolean hasOwnerTarget = false;
   // Data
   private boolean hasPlayerTarget = false;
   private boolean hasTravelTarget = false;
+  // Statistics
+  private int numberOfRefreshedObjectives = 0;
 
   public ObjectiveDataSet() {}
 
@@ -146,7 +149,7 @@ public class ObjectiveDataSet {
 
   public boolean isTargetedPlayer(String playerName) {
     return playerName != null
-        && playerName.isEmpty()
+        && !playerName.isEmpty()
         && this.targetedPlayerSet.contains(playerName);
   }
 
@@ -154,27 +157,80 @@ public class ObjectiveDataSet {
     return entityUUID != null && this.targetedEntitySet.contains(entityUUID);
   }
 
+  public Set<String> getTargetedPlayerSet() {
+    return this.targetedPlayerSet;
+  }
+
+  public Set<UUID> getTargetedEntitySet() {
+    return this.targetedEntitySet;
+  }
+
+  public Set<UUID> getTargetedOwnerSet() {
+    return this.targetedOwnerSet;
+  }
+
   public boolean hasValidTarget(EasyNPC<?> easyNPC) {
     for (ObjectiveDataEntry objectiveDataEntry : this.objectives.values()) {
       if (objectiveDataEntry == null || objectiveDataEntry.getType() == ObjectiveType.NONE) {
         continue;
       }
-      if (!objectiveDataEntry.hasValidTarget(easyNPC)) {
+      if (!objectiveDataEntry.hasResolvedTarget(easyNPC)) {
         return false;
       }
     }
     return true;
   }
 
+  public boolean invalidateTargetState(UUID targetUUID) {
+    boolean invalidated = false;
+    for (ObjectiveDataEntry objectiveDataEntry : this.objectives.values()) {
+      if (objectiveDataEntry != null && objectiveDataEntry.isTarget(targetUUID)) {
+        objectiveDataEntry.invalidateTargetState();
+        invalidated = true;
+      }
+    }
+    return invalidated;
+  }
+
+  public boolean invalidateTargetState(String targetPlayerName) {
+    boolean invalidated = false;
+    for (ObjectiveDataEntry objectiveDataEntry : this.objectives.values()) {
+      if (objectiveDataEntry != null && objectiveDataEntry.isTarget(targetPlayerName)) {
+        objectiveDataEntry.invalidateTargetState();
+        invalidated = true;
+      }
+    }
+    return invalidated;
+  }
+
+  public void invalidateUnresolvedTargetStates(EasyNPC<?> easyNPC) {
+    for (ObjectiveDataEntry objectiveDataEntry : this.objectives.values()) {
+      if (objectiveDataEntry != null
+          && !objectiveDataEntry.isTargetStateDirty()
+          && !objectiveDataEntry.hasResolvedTarget(easyNPC)) {
+        objectiveDataEntry.invalidateTargetState();
+      }
+    }
+  }
+
+  public int getNumberOfRefreshedObjectives() {
+    return this.numberOfRefreshedObjectives;
+  }
+
+  public void increaseNumberOfRefreshedObjectives() {
+    this.numberOfRefreshedObjectives++;
+  }
+
   public void clear() {
     this.objectives.clear();
-    this.hasObjectives = false;
+    this.updateTargetFlags();
   }
 
   private void updateTargetFlags() {
     // Clear existing target sets
     this.targetedPlayerSet.clear();
     this.targetedEntitySet.clear();
+    this.targetedOwnerSet.clear();
 
     boolean hasTravelObjectives = false;
     boolean hasPlayerTargetObjective = false;
@@ -198,6 +254,7 @@ public class ObjectiveDataSet {
         targetedEntitySet.add(objectiveDataEntry.getTargetEntityUUID());
         hasEntityTargetObjective = true;
       } else if (objectiveDataEntry.hasOwnerTarget()) {
+        targetedOwnerSet.add(objectiveDataEntry.getTargetOwnerUUID());
         hasOwnerTargetObjective = true;
       }
     }
@@ -260,6 +317,8 @@ public class ObjectiveDataSet {
         + this.targetedEntitySet
         + ", targetedPlayerSet="
         + this.targetedPlayerSet
+        + ", targetedOwnerSet="
+        + this.targetedOwnerSet
         + ", data="
         + this.objectives
         + "]";
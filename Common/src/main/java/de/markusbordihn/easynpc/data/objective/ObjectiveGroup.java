@@ -35,6 +35,7 @@ public class ObjectiveGroup {
   public static final Set<ObjectiveType> FOLLOW =
       EnumSet.of(
           ObjectiveType.FOLLOW_ENTITY_BY_UUID,
+          ObjectiveType.FOLLOW_GROUP,
           ObjectiveType.FOLLOW_OWNER,
           ObjectiveType.FOLLOW_PLAYER);
 
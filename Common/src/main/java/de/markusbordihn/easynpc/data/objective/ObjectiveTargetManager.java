@@ -0,0 +1,187 @@
+/*
+ * Copyright 2024 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easynpc.data.objective;
+
+import de.markusbordihn.easynpc.Constants;
+import de.markusbordihn.easynpc.entity.LivingEntityManager;
+import de.markusbordihn.easynpc.entity.easynpc.EasyNPC;
+import de.markusbordihn.easynpc.entity.easynpc.data.ObjectiveData;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+public class ObjectiveTargetManager {
+
+  protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
+  protected static final String LOG_PREFIX = "[Objective Target Manager]";
+
+  private static final ConcurrentHashMap<UUID, Set<EasyNPC<?>>> targetUUIDSubscriberMap =
+      new ConcurrentHashMap<>();
+  private static final ConcurrentHashMap<String, Set<EasyNPC<?>>> targetNameSubscriberMap =
+      new ConcurrentHashMap<>();
+  private static final ConcurrentHashMap<UUID, Set<UUID>> npcTargetUUIDMap =
+      new ConcurrentHashMap<>();
+  private static final ConcurrentHashMap<UUID, Set<String>> npcTargetNameMap =
+      new ConcurrentHashMap<>();
+
+  private ObjectiveTargetManager() {}
+
+  public static void updateSubscriptions(EasyNPC<?> easyNPC) {
+    if (easyNPC == null || easyNPC.getUUID() == null || easyNPC.isClientSide()) {
+      return;
+    }
+
+    // Only track easy NPCs which are known to the living entity manager.
+    if (LivingEntityManager.getEasyNPCEntityByUUID(easyNPC.getUUID()) != easyNPC) {
+      return;
+    }
+
+    ObjectiveData<?> objectiveData = easyNPC.getEasyNPCObjectiveData();
+    ObjectiveDataSet objectiveDataSet =
+        objectiveData != null ? objectiveData.getObjectiveDataSet() : null;
+    if (objectiveDataSet == null || !objectiveDataSet.hasObjectives()) {
+      removeSubscriptions(easyNPC);
+      return;
+    }
+
+    // Collect all targets which are referenced by the objectives of the easy NPC.
+    Set<UUID> targetUUIDs = new HashSet<>(objectiveDataSet.getTargetedEntitySet());
+    targetUUIDs.addAll(objectiveDataSet.getTargetedOwnerSet());
+    Set<String> targetNames = new HashSet<>(objectiveDataSet.getTargetedPlayerSet());
+
+    // Update subscriptions only for changed targets.
+    UUID npcUUID = easyNPC.getUUID();
+    Set<UUID> oldTargetUUIDs = npcTargetUUIDMap.getOrDefault(npcUUID, Collections.emptySet());
+    Set<String> oldTargetNames = npcTargetNameMap.getOrDefault(npcUUID, Collections.emptySet());
+    for (UUID targetUUID : oldTargetUUIDs) {
+      if (!targetUUIDs.contains(targetUUID)) {
+        unsubscribe(targetUUIDSubscriberMap, targetUUID, easyNPC);
+      }
+    }
+    for (String targetName : oldTargetNames) {
+      if (!targetNames.contains(targetName)) {
+        unsubscribe(targetNameSubscriberMap, targetName, easyNPC);
+      }
+    }
+    for (UUID targetUUID : targetUUIDs) {
+      subscribe(targetUUIDSubscriberMap, targetUUID, easyNPC);
+    }
+    for (String targetName : targetNames) {
+      subscribe(targetNameSubscriberMap, targetName, easyNPC);
+    }
+
+    if (targetUUIDs.isEmpty()) {
+      npcTargetUUIDMap.remove(npcUUID);
+    } else {
+      npcTargetUUIDMap.put(npcUUID, targetUUIDs);
+    }
+    if (targetNames.isEmpty()) {
+      npcTargetNameMap.remove(npcUUID);
+    } else {
+      npcTargetNameMap.put(npcUUID, targetNames);
+    }
+  }
+
+  public static void removeSubscriptions(EasyNPC<?> easyNPC) {
+    if (easyNPC == null || easyNPC.getUUID() == null) {
+      return;
+    }
+    Set<UUID> targetUUIDs = npcTargetUUIDMap.remove(easyNPC.getUUID());
+    if (targetUUIDs != null) {
+      for (UUID targetUUID : targetUUIDs) {
+        unsubscribe(targetUUIDSubscriberMap, targetUUID, easyNPC);
+      }
+    }
+    Set<String> targetNames = npcTargetNameMap.remove(easyNPC.getUUID());
+    if (targetNames != null) {
+      for (String targetName : targetNames) {
+        unsubscribe(targetNameSubscriberMap, targetName, easyNPC);
+      }
+    }
+  }
+
+  public static Set<EasyNPC<?>> getSubscribers(UUID targetUUID) {
+    if (targetUUID == null) {
+      return Collections.emptySet();
+    }
+    Set<EasyNPC<?>> subscribers = targetUUIDSubscriberMap.get(targetUUID);
+    return subscribers != null ? subscribers : Collections.emptySet();
+  }
+
+  public static Set<EasyNPC<?>> getSubscribers(String targetName) {
+    if (targetName == null || targetName.isEmpty()) {
+      return Collections.emptySet();
+    }
+    Set<EasyNPC<?>> subscribers = targetNameSubscriberMap.get(targetName);
+    return subscribers != null ? subscribers : Collections.emptySet();
+  }
+
+  public static Set<EasyNPC<?>> getSubscribers(UUID targetUUID, String targetName) {
+    Set<EasyNPC<?>> uuidSubscribers = getSubscribers(targetUUID);
+    Set<EasyNPC<?>> nameSubscribers = getSubscribers(targetName);
+    if (nameSubscribers.isEmpty()) {
+      return uuidSubscribers;
+    } else if (uuidSubscribers.isEmpty()) {
+      return nameSubscribers;
+    }
+    Set<EasyNPC<?>> subscribers = new HashSet<>(uuidSubscribers);
+    subscribers.addAll(nameSubscribers);
+    return subscribers;
+  }
+
+  public static int getNumberOfSubscriptions() {
+    int result = 0;
+    for (Set<EasyNPC<?>> subscribers : targetUUIDSubscriberMap.values()) {
+      result += subscribers.size();
+    }
+    for (Set<EasyNPC<?>> subscribers : targetNameSubscriberMap.values()) {
+      result += subscribers.size();
+    }
+    return result;
+  }
+
+  private static <K> void subscribe(
+      Map<K, Set<EasyNPC<?>>> subscriberMap, K target, EasyNPC<?> easyNPC) {
+    if (target == null) {
+      return;
+    }
+    if (subscriberMap.computeIfAbsent(target, key -> ConcurrentHashMap.newKeySet()).add(easyNPC)) {
+      log.debug("{} [Subscribe] {} to target {}", LOG_PREFIX, easyNPC, target);
+    }
+  }
+
+  private static <K> void unsubscribe(
+      Map<K, Set<EasyNPC<?>>> subscriberMap, K target, EasyNPC<?> easyNPC) {
+    if (target == null) {
+      return;
+    }
+    subscriberMap.computeIfPresent(
+        target,
+        (key, subscribers) -> {
+          subscribers.remove(easyNPC);
+          return subscribers.isEmpty() ? null : subscribers;
+        });
+  }
+}
@@ -36,6 +36,7 @@ public enum ObjectiveType {
   FLEE_SUN("flee_sun", 3),
   FLOAT("float", 0),
   FOLLOW_ENTITY_BY_UUID("entity", 7),
+  FOLLOW_GROUP("group", 7),
   FOLLOW_ITEM("item", 7),
   FOLLOW_OWNER("owner", 6),
   FOLLOW_PLAYER("player", 7),
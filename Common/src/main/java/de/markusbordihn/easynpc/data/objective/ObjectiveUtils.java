@@ -25,8 +25,11 @@ import de.markusbordihn.easynpc.entity.easynpc.ai.goal.BowAttackGoal;
 import de.markusbordihn.easynpc.entity.easynpc.ai.goal.CrossbowAttackGoal;
 import de.markusbordihn.easynpc.entity.easynpc.ai.goal.CustomLookAtPlayerGoal;
 import de.markusbordihn.easynpc.entity.easynpc.ai.goal.CustomMeleeAttackGoal;
+import de.markusbordihn.easynpc.entity.easynpc.ai.goal.CustomNearestAttackableTargetGoal;
+import de.markusbordihn.easynpc.entity.easynpc.ai.goal.FollowGroupGoal;
 import de.markusbordihn.easynpc.entity.easynpc.ai.goal.FollowLivingEntityGoal;
 import de.markusbordihn.easynpc.entity.easynpc.ai.goal.GunAttackGoal;
+import de.markusbordihn.easynpc.entity.easynpc.ai.goal.LevelOfDetailGoal;
 import de.markusbordihn.easynpc.entity.easynpc.ai.goal.MoveBackToHomeGoal;
 import de.markusbordihn.easynpc.entity.easynpc.ai.goal.RandomStrollAroundGoal;
 import de.markusbordihn.easynpc.entity.easynpc.ai.goal.RandomStrollAroundHomeGoal;
@@ -40,6 +43,7 @@ import net.minecraft.world.entity.PathfinderMob;
 import net.minecraft.world.entity.ai.goal.FleeSunGoal;
 import net.minecraft.world.entity.ai.goal.FloatGoal;
 import net.minecraft.world.entity.ai.goal.Goal;
+import net.minecraft.world.entity.ai.goal.GoalSelector;
 import net.minecraft.world.entity.ai.goal.GolemRandomStrollInVillageGoal;
 import net.minecraft.world.entity.ai.goal.MoveBackToVillageGoal;
 import net.minecraft.world.entity.ai.goal.MoveThroughVillageGoal;
@@ -49,7 +53,7 @@ import net.minecraft.world.entity.ai.goal.RandomLookAroundGoal;
 import net.minecraft.world.entity.ai.goal.RandomSwimmingGoal;
 import net.minecraft.world.entity.ai.goal.RestrictSunGoal;
 import net.minecraft.world.entity.ai.goal.WaterAvoidingRandomStrollGoal;
-import net.minecraft.world.entity.ai.goal.target.NearestAttackableTargetGoal;
+import net.minecraft.world.entity.ai.goal.WrappedGoal;
 import net.minecraft.world.entity.animal.Animal;
 import net.minecraft.world.entity.monster.Creeper;
 import net.minecraft.world.entity.monster.Enemy;
@@ -119,6 +123,22 @@ public class ObjectiveUtils {
               objectiveDataEntry);
         }
         break;
+      case FOLLOW_GROUP:
+        LivingEntity targetGroupEntity = objectiveDataEntry.getTargetEntity(easyNPC);
+        if (targetGroupEntity != null && !targetGroupEntity.isRemoved()) {
+          return new FollowGroupGoal(
+              easyNPC,
+              targetGroupEntity,
+              objectiveDataEntry.getSpeedModifier(),
+              objectiveDataEntry.getStopDistance(),
+              objectiveDataEntry.getStartDistance());
+        } else {
+          log.debug(
+              "Unable to find living entity {} for group {}!",
+              objectiveDataEntry.getTargetEntityUUID(),
+              objectiveDataEntry);
+        }
+        break;
       case RANDOM_STROLL:
         return new RandomStrollAroundGoal<>(easyNPC, objectiveDataEntry.getSpeedModifier());
       case WATER_AVOIDING_RANDOM_STROLL:
@@ -211,13 +231,13 @@ public class ObjectiveUtils {
     PathfinderMob pathfinderMob = easyNPC.getPathfinderMob();
     return switch (objectiveDataEntry.getType()) {
       case ATTACK_ANIMAL ->
-          new NearestAttackableTargetGoal<>(
+          new CustomNearestAttackableTargetGoal<>(
               pathfinderMob, Animal.class, objectiveDataEntry.isMustSeeTarget());
       case ATTACK_PLAYER ->
-          new NearestAttackableTargetGoal<>(
+          new CustomNearestAttackableTargetGoal<>(
               pathfinderMob, Player.class, objectiveDataEntry.isMustSeeTarget());
       case ATTACK_PLAYER_WITHOUT_OWNER ->
-          new NearestAttackableTargetGoal<>(
+          new CustomNearestAttackableTargetGoal<>(
               pathfinderMob,
               Player.class,
               objectiveDataEntry.getInterval(),
@@ -227,10 +247,10 @@ public class ObjectiveUtils {
                   easyNPC.getEasyNPCOwnerData() != null
                       && entity != easyNPC.getEasyNPCOwnerData().getOwner());
       case ATTACK_MONSTER ->
-          new NearestAttackableTargetGoal<>(
+          new CustomNearestAttackableTargetGoal<>(
               pathfinderMob, Monster.class, objectiveDataEntry.isMustSeeTarget());
       case ATTACK_MOB_WITHOUT_CREEPER ->
-          new NearestAttackableTargetGoal<>(
+          new CustomNearestAttackableTargetGoal<>(
               pathfinderMob,
               Mob.class,
               objectiveDataEntry.getInterval(),
@@ -238,7 +258,7 @@ public class ObjectiveUtils {
               objectiveDataEntry.isMustReachTarget(),
               entity -> entity instanceof Enemy && !(entity instanceof Creeper));
       case ATTACK_MOB ->
-          new NearestAttackableTargetGoal<>(
+          new CustomNearestAttackableTargetGoal<>(
               pathfinderMob,
               Mob.class,
               objectiveDataEntry.getInterval(),
@@ -246,9 +266,82 @@ public class ObjectiveUtils {
               objectiveDataEntry.isMustReachTarget(),
               Enemy.class::isInstance);
       case ATTACK_VILLAGER ->
-          new NearestAttackableTargetGoal<>(
+          new CustomNearestAttackableTargetGoal<>(
               pathfinderMob, AbstractVillager.class, objectiveDataEntry.isMustSeeTarget());
       default -> null;
     };
   }
+
+  /**
+   * Updates the parameters of an existing objective goal in place, to keep its state and to avoid
+   * the allocation of a new goal.
+   *
+   * @return false, if the goal doesn't support in place updates or the target is not available.
+   */
+  public static boolean updateObjectiveGoal(
+      Goal goal, ObjectiveDataEntry objectiveDataEntry, EasyNPC<?> easyNPC) {
+    Goal objectiveGoal =
+        goal instanceof LevelOfDetailGoal<?> levelOfDetailGoal ? levelOfDetailGoal.getGoal() : goal;
+    if (objectiveGoal instanceof FollowLivingEntityGoal followLivingEntityGoal) {
+      LivingEntity livingEntity = getFollowTarget(objectiveDataEntry, easyNPC);
+      if (livingEntity == null || livingEntity.isRemoved()) {
+        return false;
+      }
+      followLivingEntityGoal.updateObjective(
+          livingEntity,
+          objectiveDataEntry.getSpeedModifier(),
+          objectiveDataEntry.getStopDistance(),
+          objectiveDataEntry.getStartDistance());
+    } else if (objectiveGoal instanceof MoveBackToHomeGoal<?> moveBackToHomeGoal) {
+      moveBackToHomeGoal.updateObjective(
+          objectiveDataEntry.getSpeedModifier(), objectiveDataEntry.getStopDistance());
+    } else if (objectiveGoal instanceof BowAttackGoal<?> bowAttackGoal) {
+      bowAttackGoal.updateObjective(
+          objectiveDataEntry.getSpeedModifier(),
+          objectiveDataEntry.getAttackInterval(),
+          objectiveDataEntry.getAttackRadius());
+    } else if (objectiveGoal instanceof GunAttackGoal<?> gunAttackGoal) {
+      gunAttackGoal.updateObjective(
+          objectiveDataEntry.getSpeedModifier(),
+          objectiveDataEntry.getAttackInterval(),
+          objectiveDataEntry.getAttackRadius());
+    } else if (objectiveGoal instanceof CrossbowAttackGoal<?> crossbowAttackGoal) {
+      crossbowAttackGoal.updateObjective(
+          objectiveDataEntry.getSpeedModifier(), objectiveDataEntry.getAttackRadius());
+    } else {
+      return false;
+    }
+    return true;
+  }
+
+  private static LivingEntity getFollowTarget(
+      ObjectiveDataEntry objectiveDataEntry, EasyNPC<?> easyNPC) {
+    return switch (objectiveDataEntry.getType()) {
+      case FOLLOW_PLAYER -> objectiveDataEntry.getTargetPlayer();
+      case FOLLOW_OWNER ->
+          objectiveDataEntry.getTargetOwner(easyNPC) instanceof LivingEntity livingEntity
+              ? livingEntity
+              : null;
+      case FOLLOW_ENTITY_BY_UUID, FOLLOW_GROUP -> objectiveDataEntry.getTargetEntity(easyNPC);
+      default -> null;
+    };
+  }
+
+  /** Releases the state of an objective goal, which is kept outside the goal selectors. */
+  public static void releaseObjectiveGoal(Goal goal) {
+    Goal objectiveGoal =
+        goal instanceof LevelOfDetailGoal<?> levelOfDetailGoal ? levelOfDetailGoal.getGoal() : goal;
+    if (objectiveGoal instanceof FollowGroupGoal followGroupGoal) {
+      followGroupGoal.leaveGroup();
+    }
+  }
+
+  public static boolean hasGoal(GoalSelector goalSelector, Goal goal, int priority) {
+    for (WrappedGoal wrappedGoal : goalSelector.getAvailableGoals()) {
+      if (wrappedGoal.getGoal() == goal) {
+        return wrappedGoal.getPriority() == priority;
+      }
+    }
+    return false;
+  }
 }
@@ -0,0 +1,384 @@
+/*
+ * Copyright 2024 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easynpc.data.ticker;
+
+import de.markusbordihn.easynpc.Constants;
+import de.markusbordihn.easynpc.config.PerformanceConfig;
+import de.markusbordihn.easynpc.entity.easynpc.EasyNPC;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.level.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Hierarchical timing wheel per level for the periodic work of Easy NPC entities. The inner wheel
+ * has one bucket per game tick, the outer wheel one bucket per revolution of the inner wheel. Tasks
+ * with a longer delay are parked in the outer wheel and cascaded into the inner wheel once their
+ * revolution starts. Each task starts with a phase based on the NPC UUID, so that NPCs loaded in
+ * the same tick are spread over the whole interval.
+ *
+ * <p>The time budget per server tick is split evenly between the levels, so that an overloaded
+ * level can't starve the levels ticked after it. Tasks which don't fit into the budget of their
+ * level are deferred to the next tick in their original order, and the intervals are stretched
+ * while the server stays overloaded.
+ *
+ * <p>Timers are tasks without phase and without ticker type slot per NPC. They run once after the
+ * given delay or repeat with the given interval until they are cancelled.
+ */
+public class TickerScheduler {
+
+  public static final int WHEEL_SIZE = 256;
+  public static final int OUTER_WHEEL_SIZE = 64;
+  protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
+  protected static final String LOG_PREFIX = "[Ticker Scheduler]";
+  private static final int WHEEL_BITS = 8;
+  private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+  private static final int OUTER_WHEEL_MASK = OUTER_WHEEL_SIZE - 1;
+  private static final int TIMER_RETRY_TICKS = 20;
+  private static final int OVERLOAD_TICKS_PER_STEP = 100;
+  private static final int MAX_INTERVAL_FACTOR = 4;
+  private static final int MAX_OVERLOAD_TICKS = OVERLOAD_TICKS_PER_STEP * (MAX_INTERVAL_FACTOR - 1);
+
+  private static final Map<ResourceKey<Level>, TickerScheduler> levelSchedulerMap =
+      new ConcurrentHashMap<>();
+
+  private static final Map<UUID, EnumMap<TickerType, TickerTask>> entityTaskMap =
+      new ConcurrentHashMap<>();
+
+  private static int budgetServerTick = -1;
+  private static long lastBudgetUsedNanos = 0;
+  private static int lastDeferredTasks = 0;
+  private static int overloadTicks = 0;
+
+  private final ArrayDeque<TickerTask> deferredTaskQueue = new ArrayDeque<>();
+  private final ArrayList<ArrayList<TickerTask>> wheel = createWheel(WHEEL_SIZE);
+  private final ArrayList<ArrayList<TickerTask>> outerWheel = createWheel(OUTER_WHEEL_SIZE);
+  private ArrayList<TickerTask> spareBucket = new ArrayList<>();
+  private long currentTick = 0;
+  private long budgetUsedNanos = 0;
+  private int deferredTasks = 0;
+
+  private TickerScheduler() {}
+
+  public static TickerTask scheduleTask(
+      EasyNPC<?> easyNPC, TickerType tickerType, int interval, Runnable runnable) {
+    ServerLevel serverLevel = easyNPC.getServerLevel();
+    if (serverLevel == null) {
+      return null;
+    }
+    TickerScheduler tickerScheduler =
+        levelSchedulerMap.computeIfAbsent(serverLevel.dimension(), key -> new TickerScheduler());
+
+    // Use a stable phase per NPC and ticker type to spread the work over the interval.
+    int tickerInterval = Math.max(1, interval);
+    int phase =
+        Math.floorMod(easyNPC.getUUID().hashCode() * 31 + tickerType.ordinal(), tickerInterval);
+    TickerTask tickerTask =
+        new TickerTask(
+            easyNPC, tickerType, tickerInterval, runnable, tickerScheduler.currentTick + 1 + phase);
+
+    // Replace existing task of the same ticker type.
+    TickerTask existingTickerTask =
+        entityTaskMap
+            .computeIfAbsent(easyNPC.getUUID(), key -> new EnumMap<>(TickerType.class))
+            .put(tickerType, tickerTask);
+    if (existingTickerTask != null) {
+      existingTickerTask.cancel();
+    }
+
+    tickerScheduler.add(tickerTask);
+    return tickerTask;
+  }
+
+  public static TickerTask scheduleTimer(
+      EasyNPC<?> easyNPC, long delay, int interval, Runnable runnable) {
+    ServerLevel serverLevel = easyNPC.getServerLevel();
+    if (serverLevel == null) {
+      return null;
+    }
+    TickerScheduler tickerScheduler =
+        levelSchedulerMap.computeIfAbsent(serverLevel.dimension(), key -> new TickerScheduler());
+    TickerTask tickerTask =
+        new TickerTask(
+            easyNPC,
+            TickerType.ACTION_TIMER,
+            interval,
+            runnable,
+            tickerScheduler.currentTick + Math.max(1, delay));
+    tickerScheduler.add(tickerTask);
+    return tickerTask;
+  }
+
+  public static long getRemainingTicks(ServerLevel serverLevel, TickerTask tickerTask) {
+    TickerScheduler tickerScheduler = levelSchedulerMap.get(serverLevel.dimension());
+    long currentTick = tickerScheduler != null ? tickerScheduler.currentTick : 0;
+    return Math.max(1, tickerTask.getNextTick() - currentTick);
+  }
+
+  public static void cancelTasks(EasyNPC<?> easyNPC) {
+    EnumMap<TickerType, TickerTask> tickerTaskMap = entityTaskMap.remove(easyNPC.getUUID());
+    if (tickerTaskMap != null) {
+      for (TickerTask tickerTask : tickerTaskMap.values()) {
+        tickerTask.cancel();
+      }
+    }
+  }
+
+  public static void cancelTask(EasyNPC<?> easyNPC, TickerType tickerType) {
+    EnumMap<TickerType, TickerTask> tickerTaskMap = entityTaskMap.get(easyNPC.getUUID());
+    if (tickerTaskMap != null) {
+      TickerTask tickerTask = tickerTaskMap.remove(tickerType);
+      if (tickerTask != null) {
+        tickerTask.cancel();
+      }
+    }
+  }
+
+  public static void clearTasks() {
+    for (EnumMap<TickerType, TickerTask> tickerTaskMap : entityTaskMap.values()) {
+      for (TickerTask tickerTask : tickerTaskMap.values()) {
+        tickerTask.cancel();
+      }
+    }
+    entityTaskMap.clear();
+    levelSchedulerMap.clear();
+    budgetServerTick = -1;
+    lastBudgetUsedNanos = 0;
+    lastDeferredTasks = 0;
+    overloadTicks = 0;
+  }
+
+  public static void tick(ServerLevel serverLevel) {
+    TickerScheduler tickerScheduler = levelSchedulerMap.get(serverLevel.dimension());
+    if (tickerScheduler != null) {
+      serverLevel.getProfiler().push("easyNPCTickerScheduler");
+      updateBudget(serverLevel.getServer().getTickCount());
+      long startNanos = System.nanoTime();
+      tickerScheduler.tick(serverLevel, tickerScheduler.currentTick + 1, startNanos);
+      tickerScheduler.budgetUsedNanos += System.nanoTime() - startNanos;
+      serverLevel.getProfiler().pop();
+    }
+  }
+
+  public static int getIntervalFactor() {
+    return 1 + overloadTicks / OVERLOAD_TICKS_PER_STEP;
+  }
+
+  public static long getLastBudgetUsedNanos() {
+    return lastBudgetUsedNanos;
+  }
+
+  public static int getLastDeferredTasks() {
+    return lastDeferredTasks;
+  }
+
+  public static int getNumberOfDeferredTasks(ServerLevel serverLevel) {
+    TickerScheduler tickerScheduler = levelSchedulerMap.get(serverLevel.dimension());
+    return tickerScheduler != null ? tickerScheduler.deferredTaskQueue.size() : 0;
+  }
+
+  public static int[] getBucketSizes(ServerLevel serverLevel) {
+    TickerScheduler tickerScheduler = levelSchedulerMap.get(serverLevel.dimension());
+    return tickerScheduler != null ? tickerScheduler.getBucketSizes() : new int[WHEEL_SIZE];
+  }
+
+  public static int getNumberOfTasks(ServerLevel serverLevel) {
+    TickerScheduler tickerScheduler = levelSchedulerMap.get(serverLevel.dimension());
+    return tickerScheduler != null ? tickerScheduler.getNumberOfTasks() : 0;
+  }
+
+  public static Map<UUID, EnumMap<TickerType, TickerTask>> getEntityTaskMap() {
+    return Collections.unmodifiableMap(entityTaskMap);
+  }
+
+  private static ArrayList<ArrayList<TickerTask>> createWheel(int size) {
+    ArrayList<ArrayList<TickerTask>> buckets = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      buckets.add(new ArrayList<>());
+    }
+    return buckets;
+  }
+
+  private static void updateBudget(int serverTick) {
+    if (serverTick == budgetServerTick) {
+      return;
+    }
+
+    // Collect the budget usage of all levels for the previous tick.
+    long budgetUsedNanos = 0;
+    int deferredTasks = 0;
+    for (TickerScheduler tickerScheduler : levelSchedulerMap.values()) {
+      budgetUsedNanos += tickerScheduler.budgetUsedNanos;
+      deferredTasks += tickerScheduler.deferredTasks;
+      tickerScheduler.budgetUsedNanos = 0;
+      tickerScheduler.deferredTasks = 0;
+    }
+
+    // Stretch intervals while tasks are deferred and relax them again afterward.
+    if (deferredTasks > 0 && overloadTicks < MAX_OVERLOAD_TICKS) {
+      overloadTicks++;
+      if (overloadTicks == MAX_OVERLOAD_TICKS) {
+        log.warn(
+            "{} Periodic work exceeds the tick budget of {} ms, stretching intervals by {}x!",
+            LOG_PREFIX,
+            PerformanceConfig.getTickBudget(),
+            getIntervalFactor());
+      }
+    } else if (deferredTasks == 0 && overloadTicks > 0) {
+      overloadTicks--;
+    }
+
+    lastBudgetUsedNanos = budgetUsedNanos;
+    lastDeferredTasks = deferredTasks;
+    budgetServerTick = serverTick;
+  }
+
+  private static boolean canRun(ServerLevel serverLevel, TickerTask tickerTask) {
+    Entity entity = tickerTask.getEasyNPC().getEntity();
+    if (entity == null || entity.isRemoved()) {
+      tickerTask.cancel();
+      return false;
+    }
+    return entity.isAlive() && serverLevel.isPositionEntityTicking(entity.blockPosition());
+  }
+
+  private boolean isBudgetExceeded(long startNanos) {
+    long tickBudgetNanos =
+        PerformanceConfig.getTickBudget() * 1_000_000L / Math.max(1, levelSchedulerMap.size());
+    return tickBudgetNanos > 0
+        && this.budgetUsedNanos + System.nanoTime() - startNanos >= tickBudgetNanos;
+  }
+
+  private void add(TickerTask tickerTask) {
+    long delay = tickerTask.getNextTick() - this.currentTick;
+    if (delay < WHEEL_SIZE) {
+      this.wheel.get((int) (tickerTask.getNextTick() & WHEEL_MASK)).add(tickerTask);
+    } else {
+      this.outerWheel
+          .get((int) ((tickerTask.getNextTick() >> WHEEL_BITS) & OUTER_WHEEL_MASK))
+          .add(tickerTask);
+    }
+  }
+
+  private ArrayList<TickerTask> swapBucket(ArrayList<ArrayList<TickerTask>> buckets, int index) {
+    ArrayList<TickerTask> bucket = buckets.get(index);
+    buckets.set(index, this.spareBucket);
+    this.spareBucket = bucket;
+    return bucket;
+  }
+
+  private void tick(ServerLevel serverLevel, long tick, long startNanos) {
+    this.currentTick = tick;
+
+    // Cascade tasks of the outer wheel into the inner wheel for the new revolution.
+    if ((tick & WHEEL_MASK) == 0) {
+      ArrayList<TickerTask> outerBucket =
+          swapBucket(this.outerWheel, (int) ((tick >> WHEEL_BITS) & OUTER_WHEEL_MASK));
+      for (TickerTask tickerTask : outerBucket) {
+        if (!tickerTask.isCancelled()) {
+          add(tickerTask);
+        }
+      }
+      outerBucket.clear();
+    }
+
+    // Run deferred tasks of the previous ticks first, as long as the budget allows it.
+    while (!this.deferredTaskQueue.isEmpty()) {
+      if (isBudgetExceeded(startNanos)) {
+        this.deferredTasks += this.deferredTaskQueue.size();
+        break;
+      }
+      runTask(serverLevel, this.deferredTaskQueue.poll(), tick);
+    }
+
+    // Run all tasks of the current tick and defer the rest, if the budget is exceeded.
+    ArrayList<TickerTask> bucket = swapBucket(this.wheel, (int) (tick & WHEEL_MASK));
+    for (TickerTask tickerTask : bucket) {
+      if (tickerTask.isCancelled()) {
+        continue;
+      }
+      if (isBudgetExceeded(startNanos)) {
+        this.deferredTaskQueue.add(tickerTask);
+        this.deferredTasks++;
+      } else {
+        runTask(serverLevel, tickerTask, tick);
+      }
+    }
+    bucket.clear();
+  }
+
+  private void runTask(ServerLevel serverLevel, TickerTask tickerTask, long tick) {
+    if (tickerTask.isCancelled()) {
+      return;
+    }
+    boolean canRun = canRun(serverLevel, tickerTask);
+    if (canRun) {
+      try {
+        tickerTask.run();
+      } catch (RuntimeException exception) {
+        log.error("{} Unable to run {}:", LOG_PREFIX, tickerTask, exception);
+      }
+    }
+    if (tickerTask.isCancelled()) {
+      return;
+    }
+
+    // Reschedule the task for the next interval, stretched under sustained overload.
+    if (tickerTask.isRepeating()) {
+      tickerTask.setNextTick(tick + (long) tickerTask.getInterval() * getIntervalFactor());
+      add(tickerTask);
+    } else if (!canRun) {
+      // Retry one-shot timers later, if the NPC is currently not ticking.
+      tickerTask.setNextTick(tick + TIMER_RETRY_TICKS);
+      add(tickerTask);
+    } else {
+      tickerTask.cancel();
+    }
+  }
+
+  private int[] getBucketSizes() {
+    int[] bucketSizes = new int[WHEEL_SIZE];
+    for (int i = 0; i < WHEEL_SIZE; i++) {
+      // Order the buckets by their distance to the current tick.
+      bucketSizes[i] = this.wheel.get((int) ((this.currentTick + 1 + i) & WHEEL_MASK)).size();
+    }
+    return bucketSizes;
+  }
+
+  private int getNumberOfTasks() {
+    int numberOfTasks = 0;
+    for (ArrayList<TickerTask> bucket : this.wheel) {
+      numberOfTasks += bucket.size();
+    }
+    for (ArrayList<TickerTask> bucket : this.outerWheel) {
+      numberOfTasks += bucket.size();
+    }
+    return numberOfTasks + this.deferredTaskQueue.size();
+  }
+}
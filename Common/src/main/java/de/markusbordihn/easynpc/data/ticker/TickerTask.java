@@ -0,0 +1,92 @@
+/*
+ * Copyright 2024 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easynpc.data.ticker;
+
+import de.markusbordihn.easynpc.entity.easynpc.EasyNPC;
+
+public class TickerTask {
+
+  private final EasyNPC<?> easyNPC;
+  private final TickerType tickerType;
+  private final int interval;
+  private final Runnable runnable;
+  private long nextTick;
+  private boolean cancelled = false;
+
+  TickerTask(
+      EasyNPC<?> easyNPC, TickerType tickerType, int interval, Runnable runnable, long nextTick) {
+    this.easyNPC = easyNPC;
+    this.tickerType = tickerType;
+    this.interval = Math.max(0, interval);
+    this.runnable = runnable;
+    this.nextTick = nextTick;
+  }
+
+  public EasyNPC<?> getEasyNPC() {
+    return this.easyNPC;
+  }
+
+  public TickerType getTickerType() {
+    return this.tickerType;
+  }
+
+  public int getInterval() {
+    return this.interval;
+  }
+
+  public boolean isRepeating() {
+    return this.interval > 0;
+  }
+
+  public long getNextTick() {
+    return this.nextTick;
+  }
+
+  void setNextTick(long nextTick) {
+    this.nextTick = nextTick;
+  }
+
+  public boolean isCancelled() {
+    return this.cancelled;
+  }
+
+  public void cancel() {
+    this.cancelled = true;
+  }
+
+  void run() {
+    this.runnable.run();
+  }
+
+  @Override
+  public String toString() {
+    return "TickerTask [easyNPC="
+        + this.easyNPC
+        + ", tickerType="
+        + this.tickerType
+        + ", interval="
+        + this.interval
+        + ", nextTick="
+        + this.nextTick
+        + ", cancelled="
+        + this.cancelled
+        + "]";
+  }
+}
@@ -0,0 +1,402 @@
+/*
+ * Copyright 2024 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easynpc.entity;
+
+import de.markusbordihn.easynpc.Constants;
+import de.markusbordihn.easynpc.config.PerformanceConfig;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.PathfinderMob;
+import net.minecraft.world.entity.ai.attributes.Attributes;
+import net.minecraft.world.entity.ai.navigation.PathNavigation;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.pathfinder.FlyNodeEvaluator;
+import net.minecraft.world.level.pathfinder.NodeEvaluator;
+import net.minecraft.world.level.pathfinder.Path;
+import net.minecraft.world.level.pathfinder.PathFinder;
+import net.minecraft.world.level.pathfinder.WalkNodeEvaluator;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Optional asynchronous path calculation for Easy NPC goals. The block states within the search
+ * range are copied into a {@link PathSnapshotRegion} and the state of the NPC into a reused {@link
+ * PathSnapshotMob} on the server thread, and only the path search itself runs on a bounded worker
+ * pool. Chunk sections are copied at most once per tick for all requests of a level. Finished paths
+ * are applied on the next level tick, unless the NPC requested another path in the meantime or the
+ * blocks along the path have changed. Paths are calculated synchronously, if the worker pool is
+ * disabled, saturated or the navigation of the NPC isn't supported. Apart from the path calculation
+ * itself, all methods are only accessed from the server thread.
+ */
+public class AsyncPathManager {
+
+  protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
+  protected static final String LOG_PREFIX = "[Async Path Manager]";
+
+  // Additional blocks around the start and target, which are part of the block snapshot.
+  private static final int REGION_MARGIN = 8;
+
+  // Additional blocks around the search range, which are checked for the outermost nodes.
+  private static final int NODE_MARGIN = 2;
+
+  private static final Map<PathfinderMob, PathRequest> pendingRequestMap = new HashMap<>();
+  private static final Map<PathfinderMob, PathSnapshotMob> pathSnapshotMobMap = new WeakHashMap<>();
+  private static final Map<ResourceKey<Level>, PathSnapshotRegion.SectionCache> sectionCacheMap =
+      new HashMap<>();
+  private static final Map<ResourceKey<Level>, Queue<PathRequest>> completedRequestMap =
+      new ConcurrentHashMap<>();
+  private static ThreadPoolExecutor threadPoolExecutor;
+  private static Integer threadsOverride = null;
+  private static long numberOfAsyncPaths = 0;
+  private static long numberOfSyncPaths = 0;
+  private static long numberOfRejectedPaths = 0;
+  private static long numberOfDiscardedPaths = 0;
+  private static long asyncPathNanos = 0;
+  private static long syncPathNanos = 0;
+
+  private AsyncPathManager() {}
+
+  /**
+   * Runs the given task with the given number of pathfinding threads, regardless of the performance
+   * config, e.g. to compare both modes. The previous number is restored, even if the task fails.
+   */
+  public static void runWithThreads(int threads, Runnable runnable) {
+    Integer lastThreadsOverride = threadsOverride;
+    threadsOverride = threads;
+    try {
+      runnable.run();
+    } finally {
+      threadsOverride = lastThreadsOverride;
+    }
+  }
+
+  public static boolean moveTo(
+      PathfinderMob pathfinderMob,
+      BlockPos targetBlockPos,
+      int reachRange,
+      double speedModifier,
+      Consumer<Path> pathListener) {
+    PathNavigation pathNavigation = pathfinderMob.getNavigation();
+    long startTime = System.nanoTime();
+
+    // Keep the current path, if it already leads to the target position.
+    Path currentPath = pathNavigation.getPath();
+    if (currentPath != null
+        && !currentPath.isDone()
+        && targetBlockPos.equals(pathNavigation.getTargetPos())) {
+      cancel(pathfinderMob);
+      return true;
+    }
+
+    // Calculate path on the worker pool, if possible.
+    if (getThreads() > 0 && pathfinderMob.level() instanceof ServerLevel serverLevel) {
+      NodeEvaluator nodeEvaluator = createNodeEvaluator(pathNavigation.getNodeEvaluator());
+      if (nodeEvaluator != null) {
+        PathRequest pathRequest =
+            new PathRequest(
+                serverLevel,
+                pathfinderMob,
+                getPathSnapshotMob(pathfinderMob),
+                nodeEvaluator,
+                targetBlockPos,
+                reachRange,
+                speedModifier,
+                pathListener);
+        pendingRequestMap.put(pathfinderMob, pathRequest);
+        try {
+          getThreadPoolExecutor().execute(pathRequest);
+          numberOfAsyncPaths++;
+          asyncPathNanos += System.nanoTime() - startTime;
+          return true;
+        } catch (RejectedExecutionException exception) {
+          pendingRequestMap.remove(pathfinderMob);
+          pathRequest.pathSnapshotMob.setInUse(false);
+          numberOfRejectedPaths++;
+        }
+      }
+    }
+
+    // Fallback to synchronous path calculation.
+    cancel(pathfinderMob);
+    Path path = pathNavigation.createPath(targetBlockPos, reachRange);
+    numberOfSyncPaths++;
+    if (pathListener != null) {
+      pathListener.accept(path);
+    }
+    boolean hasPath = pathNavigation.moveTo(path, speedModifier);
+    syncPathNanos += System.nanoTime() - startTime;
+    return hasPath;
+  }
+
+  public static void tick(ServerLevel serverLevel) {
+    Queue<PathRequest> completedRequests = completedRequestMap.get(serverLevel.dimension());
+    if (completedRequests == null || completedRequests.isEmpty()) {
+      return;
+    }
+    serverLevel.getProfiler().push("easyNPCAsyncPaths");
+    long startTime = System.nanoTime();
+    PathRequest pathRequest;
+    while ((pathRequest = completedRequests.poll()) != null) {
+      PathfinderMob pathfinderMob = pathRequest.pathfinderMob;
+
+      // Ignore outdated requests, which were replaced or cancelled in the meantime.
+      if (pendingRequestMap.get(pathfinderMob) != pathRequest) {
+        continue;
+      }
+      pendingRequestMap.remove(pathfinderMob);
+      if (pathfinderMob.isRemoved() || pathfinderMob.level() != serverLevel) {
+        continue;
+      }
+
+      // Discard paths, which are based on outdated block states.
+      Path path = pathRequest.path;
+      if (path != null && !pathRequest.pathSnapshotRegion.matchesLevel(serverLevel, path)) {
+        log.debug("{} Discard outdated path {} for {}", LOG_PREFIX, path, pathfinderMob);
+        numberOfDiscardedPaths++;
+        continue;
+      }
+      if (pathRequest.pathListener != null) {
+        pathRequest.pathListener.accept(path);
+      }
+      pathfinderMob.getNavigation().moveTo(path, pathRequest.speedModifier);
+    }
+    asyncPathNanos += System.nanoTime() - startTime;
+    serverLevel.getProfiler().pop();
+  }
+
+  public static void shutdown() {
+    if (threadPoolExecutor != null) {
+      log.info("{} Stopping pathfinding threads ...", LOG_PREFIX);
+      threadPoolExecutor.shutdownNow();
+      threadPoolExecutor = null;
+    }
+    pendingRequestMap.clear();
+    pathSnapshotMobMap.clear();
+    sectionCacheMap.clear();
+    completedRequestMap.clear();
+  }
+
+  public static boolean hasPendingPath(PathfinderMob pathfinderMob) {
+    return !pendingRequestMap.isEmpty() && pendingRequestMap.containsKey(pathfinderMob);
+  }
+
+  public static void cancel(PathfinderMob pathfinderMob) {
+    if (!pendingRequestMap.isEmpty()) {
+      pendingRequestMap.remove(pathfinderMob);
+    }
+  }
+
+  public static int getNumberOfPendingPaths() {
+    return pendingRequestMap.size();
+  }
+
+  public static long getNumberOfAsyncPaths() {
+    return numberOfAsyncPaths;
+  }
+
+  public static long getNumberOfSyncPaths() {
+    return numberOfSyncPaths;
+  }
+
+  public static long getNumberOfRejectedPaths() {
+    return numberOfRejectedPaths;
+  }
+
+  public static long getNumberOfDiscardedPaths() {
+    return numberOfDiscardedPaths;
+  }
+
+  /** Server thread time for requesting and applying asynchronous paths. */
+  public static long getAsyncPathNanos() {
+    return asyncPathNanos;
+  }
+
+  /** Server thread time for calculating and applying synchronous paths. */
+  public static long getSyncPathNanos() {
+    return syncPathNanos;
+  }
+
+  private static int getThreads() {
+    return threadsOverride != null
+        ? threadsOverride
+        : PerformanceConfig.getAsyncPathfindingThreads();
+  }
+
+  private static PathSnapshotMob getPathSnapshotMob(PathfinderMob pathfinderMob) {
+    // Reuse the snapshot of the NPC, unless it is still used by a running path calculation.
+    PathSnapshotMob pathSnapshotMob = pathSnapshotMobMap.get(pathfinderMob);
+    if (pathSnapshotMob == null
+        || pathSnapshotMob.isInUse()
+        || pathSnapshotMob.level() != pathfinderMob.level()) {
+      pathSnapshotMob = new PathSnapshotMob(pathfinderMob);
+      pathSnapshotMobMap.put(pathfinderMob, pathSnapshotMob);
+    } else {
+      pathSnapshotMob.update(pathfinderMob);
+    }
+    pathSnapshotMob.setInUse(true);
+    return pathSnapshotMob;
+  }
+
+  private static NodeEvaluator createNodeEvaluator(NodeEvaluator nodeEvaluator) {
+    NodeEvaluator asyncNodeEvaluator;
+    if (nodeEvaluator == null) {
+      return null;
+    } else if (nodeEvaluator.getClass() == WalkNodeEvaluator.class) {
+      asyncNodeEvaluator = new WalkNodeEvaluator();
+    } else if (nodeEvaluator.getClass() == FlyNodeEvaluator.class) {
+      asyncNodeEvaluator = new FlyNodeEvaluator();
+    } else {
+      // Other node evaluators are using additional state and are calculated synchronously.
+      return null;
+    }
+    asyncNodeEvaluator.setCanPassDoors(nodeEvaluator.canPassDoors());
+    asyncNodeEvaluator.setCanOpenDoors(nodeEvaluator.canOpenDoors());
+    asyncNodeEvaluator.setCanFloat(nodeEvaluator.canFloat());
+    return asyncNodeEvaluator;
+  }
+
+  private static ThreadPoolExecutor getThreadPoolExecutor() {
+    if (threadPoolExecutor == null) {
+      int threads = getThreads();
+      AtomicInteger threadCounter = new AtomicInteger();
+      log.info("{} Starting {} pathfinding threads ...", LOG_PREFIX, threads);
+      threadPoolExecutor =
+          new ThreadPoolExecutor(
+              threads,
+              threads,
+              60L,
+              TimeUnit.SECONDS,
+              new ArrayBlockingQueue<>(PerformanceConfig.getAsyncPathfindingQueueSize()),
+              runnable -> {
+                Thread thread =
+                    new Thread(
+                        runnable,
+                        Constants.MOD_ID + "_pathfinding_" + threadCounter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+              });
+      threadPoolExecutor.allowCoreThreadTimeOut(true);
+    }
+    return threadPoolExecutor;
+  }
+
+  private static final class PathRequest implements Runnable {
+
+    private final PathfinderMob pathfinderMob;
+    private final PathSnapshotMob pathSnapshotMob;
+    private final NodeEvaluator nodeEvaluator;
+    private final PathSnapshotRegion pathSnapshotRegion;
+    private final BlockPos targetBlockPos;
+    private final int reachRange;
+    private final float maxRange;
+    private final int maxVisitedNodes;
+    private final double speedModifier;
+    private final Consumer<Path> pathListener;
+    private final Queue<PathRequest> completedRequests;
+    private volatile Path path;
+
+    private PathRequest(
+        ServerLevel serverLevel,
+        PathfinderMob pathfinderMob,
+        PathSnapshotMob pathSnapshotMob,
+        NodeEvaluator nodeEvaluator,
+        BlockPos targetBlockPos,
+        int reachRange,
+        double speedModifier,
+        Consumer<Path> pathListener) {
+      this.pathfinderMob = pathfinderMob;
+      this.pathSnapshotMob = pathSnapshotMob;
+      this.nodeEvaluator = nodeEvaluator;
+      this.targetBlockPos = targetBlockPos.immutable();
+      this.reachRange = reachRange;
+      this.speedModifier = speedModifier;
+      this.pathListener = pathListener;
+      this.completedRequests =
+          completedRequestMap.computeIfAbsent(
+              serverLevel.dimension(), key -> new ConcurrentLinkedQueue<>());
+
+      // Same limits as the navigation of the mob, see PathNavigation#createPath.
+      this.maxRange = (float) pathfinderMob.getAttributeValue(Attributes.FOLLOW_RANGE);
+      this.maxVisitedNodes =
+          (int) Math.floor(pathfinderMob.getAttributeBaseValue(Attributes.FOLLOW_RANGE) * 16.0D);
+
+      // Snapshot of the blocks around the start and the target, limited by the search range.
+      BlockPos startBlockPos = pathfinderMob.blockPosition();
+      int maxRegionSize = (int) Math.ceil(this.maxRange) + NODE_MARGIN;
+      this.pathSnapshotRegion =
+          new PathSnapshotRegion(
+              serverLevel,
+              new BlockPos(
+                  getRegionMin(startBlockPos.getX(), this.targetBlockPos.getX(), maxRegionSize),
+                  getRegionMin(startBlockPos.getY(), this.targetBlockPos.getY(), maxRegionSize),
+                  getRegionMin(startBlockPos.getZ(), this.targetBlockPos.getZ(), maxRegionSize)),
+              new BlockPos(
+                  getRegionMax(startBlockPos.getX(), this.targetBlockPos.getX(), maxRegionSize),
+                  getRegionMax(startBlockPos.getY(), this.targetBlockPos.getY(), maxRegionSize),
+                  getRegionMax(startBlockPos.getZ(), this.targetBlockPos.getZ(), maxRegionSize)),
+              sectionCacheMap.computeIfAbsent(
+                  serverLevel.dimension(), key -> new PathSnapshotRegion.SectionCache()));
+    }
+
+    private static int getRegionMin(int start, int target, int maxRegionSize) {
+      return Math.max(Math.min(start, target) - REGION_MARGIN, start - maxRegionSize);
+    }
+
+    private static int getRegionMax(int start, int target, int maxRegionSize) {
+      return Math.min(Math.max(start, target) + REGION_MARGIN, start + maxRegionSize);
+    }
+
+    @Override
+    public void run() {
+      try {
+        PathFinder pathFinder = new PathFinder(this.nodeEvaluator, this.maxVisitedNodes);
+        this.path =
+            pathFinder.findPath(
+                this.pathSnapshotRegion,
+                this.pathSnapshotMob,
+                Set.of(this.targetBlockPos),
+                this.maxRange,
+                this.reachRange,
+                1.0F);
+      } catch (Exception exception) {
+        log.debug(
+            "{} Unable to calculate path for {}: {}", LOG_PREFIX, this.pathSnapshotMob, exception);
+        this.path = null;
+      } finally {
+        this.pathSnapshotMob.setInUse(false);
+      }
+      this.completedRequests.add(this);
+    }
+  }
+}
@@ -20,6 +20,8 @@
 package de.markusbordihn.easynpc.entity;
 
 import de.markusbordihn.easynpc.Constants;
+import de.markusbordihn.easynpc.data.action.ActionGroupState;
+import de.markusbordihn.easynpc.data.action.ActionTimerState;
 import de.markusbordihn.easynpc.data.server.ServerEntityData;
 import de.markusbordihn.easynpc.data.synched.SynchedDataIndex;
 import de.markusbordihn.easynpc.data.synched.SynchedEntityData;
@@ -79,7 +81,9 @@ public class EasyNPCBaseEntity<E extends PathfinderMob> extends PathfinderMob
     EasyNPCBase.registerEasyNPCSyncedData(entityDataAccessorMap, EasyNPCBaseEntity.class);
   }
 
-  private final EnumMap<TickerType, Integer> tickerMap = new EnumMap<>(TickerType.class);
+  private final int[] tickerValues = new int[TickerType.values().length];
+  private final ActionGroupState actionGroupState = new ActionGroupState();
+  private final ActionTimerState actionTimerState = new ActionTimerState();
   protected MerchantOffers merchantTradingOffers;
   private ServerEntityData serverEntityData;
   private int attackAnimationTick;
@@ -107,14 +111,24 @@ public class EasyNPCBaseEntity<E extends PathfinderMob> extends PathfinderMob
     return this.fakePlayer.updatePosition(level, blockPos);
   }
 
+  @Override
+  public ActionGroupState getActionGroupState() {
+    return this.actionGroupState;
+  }
+
+  @Override
+  public ActionTimerState getActionTimerState() {
+    return this.actionTimerState;
+  }
+
   @Override
   public int getTicker(TickerType tickerType) {
-    return this.tickerMap.getOrDefault(tickerType, 0);
+    return this.tickerValues[tickerType.ordinal()];
   }
 
   @Override
   public void setTicker(TickerType tickerType, int ticker) {
-    this.tickerMap.put(tickerType, ticker);
+    this.tickerValues[tickerType.ordinal()] = ticker;
   }
 
   @Override
@@ -172,6 +186,18 @@ public class EasyNPCBaseEntity<E extends PathfinderMob> extends PathfinderMob
     return component != null ? TextUtils.removeAction(component) : this.getTypeName();
   }
 
+  @Override
+  public void setCustomName(Component component) {
+    super.setCustomName(component);
+    LivingEntityManager.updateEasyNPCName(this);
+  }
+
+  @Override
+  protected void updateControlFlags() {
+    super.updateControlFlags();
+    this.updateDormantControlFlags();
+  }
+
   @Override
   public boolean hurt(DamageSource damageSource, float damage) {
     this.handleHurtEvent(damageSource, damage);
@@ -426,11 +452,9 @@ public class EasyNPCBaseEntity<E extends PathfinderMob> extends PathfinderMob
       return;
     }
 
-    // Handle custom objective base tick.
-    this.handleCustomObjectiveBaseTick();
-
-    // Handle base tick for specific conditions.
-    this.handleBaseTick();
+    // Update chunk section for range queries, if the NPC has moved.
+    // Periodic work is handled by the ticker scheduler of the level.
+    EasyNPCSpatialIndex.updateEasyNPC(this);
   }
 
   @Override
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2024 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easynpc.entity;
+
+import de.markusbordihn.easynpc.Constants;
+import de.markusbordihn.easynpc.config.ObjectiveLevelOfDetailConfig;
+import de.markusbordihn.easynpc.config.PerformanceConfig;
+import de.markusbordihn.easynpc.entity.easynpc.EasyNPC;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Keeps track of Easy NPC entities without any player nearby. A single proximity pass per level
+ * wakes up all NPCs around each player and records the distance to the nearest player. All other
+ * NPCs become dormant after a short delay and skip goal selection, base tick actions and objective
+ * refreshes. Damage, commands and actions wake up the targeted NPC directly.
+ */
+public class EasyNPCDormancyManager {
+
+  public static final int PROXIMITY_CHECK_TICK = 20;
+  protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
+  protected static final String LOG_PREFIX = "[Easy NPC Dormancy Manager]";
+
+  // NPCs stay awake for two proximity passes after the last wake-up.
+  private static final int AWAKE_TICKS = PROXIMITY_CHECK_TICK * 2;
+
+  private static final Map<UUID, ProximityState> proximityStateMap = new HashMap<>();
+
+  private EasyNPCDormancyManager() {}
+
+  public static void tick(ServerLevel serverLevel) {
+    int proximityRadius = getProximityRadius();
+    long gameTime = serverLevel.getGameTime();
+    if (proximityRadius <= 0 || gameTime % PROXIMITY_CHECK_TICK != 0) {
+      return;
+    }
+    serverLevel.getProfiler().push("easyNPCDormancy");
+    int dormantRadius = PerformanceConfig.getDormantRadius();
+    double dormantRadiusSqr = (double) dormantRadius * dormantRadius;
+    for (ServerPlayer serverPlayer : serverLevel.players()) {
+      if (!serverPlayer.isSpectator()) {
+        EasyNPCSpatialIndex.findNpcsInRadius(
+            serverLevel,
+            serverPlayer.getX(),
+            serverPlayer.getY(),
+            serverPlayer.getZ(),
+            proximityRadius,
+            easyNPC -> {
+              ProximityState proximityState = getProximityState(easyNPC);
+              double distanceSqr = easyNPC.getEntity().distanceToSqr(serverPlayer);
+              if (proximityState.checkTick != gameTime
+                  || distanceSqr < proximityState.nearestPlayerDistanceSqr) {
+                proximityState.nearestPlayerDistanceSqr = distanceSqr;
+              }
+              proximityState.checkTick = gameTime;
+              if (distanceSqr <= dormantRadiusSqr) {
+                proximityState.awakeUntil =
+                    Math.max(proximityState.awakeUntil, gameTime + AWAKE_TICKS);
+              }
+            });
+      }
+    }
+    serverLevel.getProfiler().pop();
+  }
+
+  public static void wakeUp(EasyNPC<?> easyNPC) {
+    ServerLevel serverLevel = easyNPC != null ? easyNPC.getServerLevel() : null;
+    if (serverLevel == null) {
+      return;
+    }
+    ProximityState proximityState = getProximityState(easyNPC);
+    long awakeUntil = serverLevel.getGameTime() + AWAKE_TICKS;
+    if (proximityState.awakeUntil < awakeUntil) {
+      if (isDormant(easyNPC)) {
+        log.debug("{} Wake up {}", LOG_PREFIX, easyNPC);
+      }
+      proximityState.awakeUntil = awakeUntil;
+    }
+  }
+
+  public static boolean isDormant(EasyNPC<?> easyNPC) {
+    if (PerformanceConfig.getDormantRadius() <= 0) {
+      return false;
+    }
+    ServerLevel serverLevel = easyNPC.getServerLevel();
+    if (serverLevel == null) {
+      return false;
+    }
+    ProximityState proximityState = proximityStateMap.get(easyNPC.getUUID());
+    return proximityState == null || serverLevel.getGameTime() > proximityState.awakeUntil;
+  }
+
+  /**
+   * Returns the squared distance to the nearest player of the last proximity passes, or {@link
+   * Double#MAX_VALUE} if no player was found within the proximity radius.
+   */
+  public static double getNearestPlayerDistanceSqr(EasyNPC<?> easyNPC) {
+    ServerLevel serverLevel = easyNPC.getServerLevel();
+    ProximityState proximityState = proximityStateMap.get(easyNPC.getUUID());
+    if (serverLevel == null || proximityState == null) {
+      return Double.MAX_VALUE;
+    }
+
+    // Allow one additional tick, in case the current proximity pass hasn't run yet.
+    return serverLevel.getGameTime() - proximityState.checkTick <= PROXIMITY_CHECK_TICK
+        ? proximityState.nearestPlayerDistanceSqr
+        : Double.MAX_VALUE;
+  }
+
+  public static void removeEasyNPC(EasyNPC<?> easyNPC) {
+    proximityStateMap.remove(easyNPC.getUUID());
+  }
+
+  public static int getNumberOfAwakeEasyNPCs(long gameTime) {
+    int awakeEasyNPCs = 0;
+    for (ProximityState proximityState : proximityStateMap.values()) {
+      if (gameTime <= proximityState.awakeUntil) {
+        awakeEasyNPCs++;
+      }
+    }
+    return awakeEasyNPCs;
+  }
+
+  private static int getProximityRadius() {
+    return Math.max(
+        PerformanceConfig.getDormantRadius(), ObjectiveLevelOfDetailConfig.getMaxDistance());
+  }
+
+  private static ProximityState getProximityState(EasyNPC<?> easyNPC) {
+    return proximityStateMap.computeIfAbsent(easyNPC.getUUID(), uuid -> new ProximityState());
+  }
+
+  private static final class ProximityState {
+    private long awakeUntil = 0;
+    private long checkTick = 0;
+    private double nearestPlayerDistanceSqr = Double.MAX_VALUE;
+  }
+}
@@ -0,0 +1,266 @@
+/*
+ * Copyright 2024 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easynpc.entity;
+
+import de.markusbordihn.easynpc.Constants;
+import de.markusbordihn.easynpc.entity.easynpc.EasyNPC;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import net.minecraft.core.SectionPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.phys.AABB;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Per-level index of all server-side Easy NPC entities, grouped by chunk sections. Range queries
+ * only need to visit the sections overlapping the requested area instead of all living entities.
+ * The index is only accessed from the server thread, so consumers must not add or remove Easy NPCs
+ * while a query is running.
+ */
+public class EasyNPCSpatialIndex {
+
+  protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
+  protected static final String LOG_PREFIX = "[Easy NPC Spatial Index]";
+
+  // Additional search margin for entities with a bounding box larger than their position.
+  private static final double ENTITY_SIZE_MARGIN = 2.0D;
+
+  private static final Map<ResourceKey<Level>, EasyNPCSpatialIndex> levelIndexMap =
+      new ConcurrentHashMap<>();
+
+  private final Long2ObjectOpenHashMap<ArrayList<EasyNPC<?>>> sectionMap =
+      new Long2ObjectOpenHashMap<>();
+  private final Object2LongOpenHashMap<EasyNPC<?>> entitySectionMap =
+      new Object2LongOpenHashMap<>();
+
+  private EasyNPCSpatialIndex() {}
+
+  public static void addEasyNPC(EasyNPC<?> easyNPC) {
+    ServerLevel serverLevel = easyNPC.getServerLevel();
+    Entity entity = easyNPC.getEntity();
+    if (serverLevel == null || entity == null) {
+      return;
+    }
+    levelIndexMap
+        .computeIfAbsent(serverLevel.dimension(), key -> new EasyNPCSpatialIndex())
+        .add(easyNPC, getSectionKey(entity));
+  }
+
+  public static void removeEasyNPC(EasyNPC<?> easyNPC) {
+    ServerLevel serverLevel = easyNPC.getServerLevel();
+    EasyNPCSpatialIndex spatialIndex =
+        serverLevel != null ? levelIndexMap.get(serverLevel.dimension()) : null;
+    if (spatialIndex != null && spatialIndex.remove(easyNPC)) {
+      return;
+    }
+
+    // Fallback for entities which are no longer assigned to their original level.
+    for (EasyNPCSpatialIndex otherSpatialIndex : levelIndexMap.values()) {
+      if (otherSpatialIndex.remove(easyNPC)) {
+        return;
+      }
+    }
+  }
+
+  public static void updateEasyNPC(EasyNPC<?> easyNPC) {
+    ServerLevel serverLevel = easyNPC.getServerLevel();
+    Entity entity = easyNPC.getEntity();
+    if (serverLevel == null || entity == null) {
+      return;
+    }
+    EasyNPCSpatialIndex spatialIndex = levelIndexMap.get(serverLevel.dimension());
+    if (spatialIndex != null) {
+      spatialIndex.move(easyNPC, getSectionKey(entity));
+    }
+  }
+
+  public static void findNpcsInRadius(
+      ServerLevel serverLevel,
+      double x,
+      double y,
+      double z,
+      double radius,
+      Consumer<EasyNPC<?>> consumer) {
+    EasyNPCSpatialIndex spatialIndex =
+        serverLevel != null ? levelIndexMap.get(serverLevel.dimension()) : null;
+    if (spatialIndex != null && radius >= 0) {
+      spatialIndex.find(x, y, z, radius, null, consumer, null);
+    }
+  }
+
+  public static void findNpcsInBox(
+      ServerLevel serverLevel, AABB aabb, Consumer<EasyNPC<?>> consumer) {
+    EasyNPCSpatialIndex spatialIndex =
+        serverLevel != null ? levelIndexMap.get(serverLevel.dimension()) : null;
+    if (spatialIndex != null && aabb != null) {
+      spatialIndex.find(0, 0, 0, 0, aabb, consumer, null);
+    }
+  }
+
+  public static EasyNPC<?> findFirstNpcInBox(
+      ServerLevel serverLevel, AABB aabb, Predicate<EasyNPC<?>> predicate) {
+    EasyNPCSpatialIndex spatialIndex =
+        serverLevel != null ? levelIndexMap.get(serverLevel.dimension()) : null;
+    return spatialIndex != null && aabb != null
+        ? spatialIndex.find(0, 0, 0, 0, aabb, null, predicate)
+        : null;
+  }
+
+  public static int getNumberOfEasyNPCs(ServerLevel serverLevel) {
+    EasyNPCSpatialIndex spatialIndex =
+        serverLevel != null ? levelIndexMap.get(serverLevel.dimension()) : null;
+    return spatialIndex != null ? spatialIndex.entitySectionMap.size() : 0;
+  }
+
+  public static int getNumberOfSections(ServerLevel serverLevel) {
+    EasyNPCSpatialIndex spatialIndex =
+        serverLevel != null ? levelIndexMap.get(serverLevel.dimension()) : null;
+    return spatialIndex != null ? spatialIndex.sectionMap.size() : 0;
+  }
+
+  private static long getSectionKey(Entity entity) {
+    return SectionPos.asLong(
+        SectionPos.blockToSectionCoord(entity.getX()),
+        SectionPos.blockToSectionCoord(entity.getY()),
+        SectionPos.blockToSectionCoord(entity.getZ()));
+  }
+
+  /**
+   * Visits all Easy NPCs within the radius around the given position or, if a box is given, all
+   * Easy NPCs intersecting the box. The checks are done inside the section loop, so that a query
+   * doesn't allocate anything.
+   *
+   * @return the first Easy NPC accepted by the predicate or null, if no predicate is given.
+   */
+  private EasyNPC<?> find(
+      double x,
+      double y,
+      double z,
+      double radius,
+      AABB aabb,
+      Consumer<EasyNPC<?>> consumer,
+      Predicate<EasyNPC<?>> predicate) {
+    double radiusSqr = radius * radius;
+    double minX = aabb != null ? aabb.minX - ENTITY_SIZE_MARGIN : x - radius;
+    double minY = aabb != null ? aabb.minY - ENTITY_SIZE_MARGIN : y - radius;
+    double minZ = aabb != null ? aabb.minZ - ENTITY_SIZE_MARGIN : z - radius;
+    double maxX = aabb != null ? aabb.maxX + ENTITY_SIZE_MARGIN : x + radius;
+    double maxY = aabb != null ? aabb.maxY + ENTITY_SIZE_MARGIN : y + radius;
+    double maxZ = aabb != null ? aabb.maxZ + ENTITY_SIZE_MARGIN : z + radius;
+    int minSectionX = SectionPos.blockToSectionCoord(minX);
+    int minSectionY = SectionPos.blockToSectionCoord(minY);
+    int minSectionZ = SectionPos.blockToSectionCoord(minZ);
+    int maxSectionX = SectionPos.blockToSectionCoord(maxX);
+    int maxSectionY = SectionPos.blockToSectionCoord(maxY);
+    int maxSectionZ = SectionPos.blockToSectionCoord(maxZ);
+    for (int sectionX = minSectionX; sectionX <= maxSectionX; sectionX++) {
+      for (int sectionZ = minSectionZ; sectionZ <= maxSectionZ; sectionZ++) {
+        for (int sectionY = minSectionY; sectionY <= maxSectionY; sectionY++) {
+          ArrayList<EasyNPC<?>> easyNPCs =
+              this.sectionMap.get(SectionPos.asLong(sectionX, sectionY, sectionZ));
+          if (easyNPCs == null) {
+            continue;
+          }
+          for (int i = 0; i < easyNPCs.size(); i++) {
+            EasyNPC<?> easyNPC = easyNPCs.get(i);
+            Entity entity = easyNPC.getEntity();
+            if (aabb != null
+                ? !entity.getBoundingBox().intersects(aabb)
+                : entity.distanceToSqr(x, y, z) > radiusSqr) {
+              continue;
+            }
+            if (predicate == null) {
+              consumer.accept(easyNPC);
+            } else if (predicate.test(easyNPC)) {
+              return easyNPC;
+            }
+          }
+        }
+      }
+    }
+    return null;
+  }
+
+  private void add(EasyNPC<?> easyNPC, long sectionKey) {
+    if (this.entitySectionMap.containsKey(easyNPC)) {
+      this.move(easyNPC, sectionKey);
+      return;
+    }
+    this.entitySectionMap.put(easyNPC, sectionKey);
+    this.addToSection(easyNPC, sectionKey);
+  }
+
+  private boolean remove(EasyNPC<?> easyNPC) {
+    if (!this.entitySectionMap.containsKey(easyNPC)) {
+      return false;
+    }
+    this.removeFromSection(easyNPC, this.entitySectionMap.removeLong(easyNPC));
+    return true;
+  }
+
+  private void move(EasyNPC<?> easyNPC, long sectionKey) {
+    if (!this.entitySectionMap.containsKey(easyNPC)) {
+      return;
+    }
+    long lastSectionKey = this.entitySectionMap.getLong(easyNPC);
+    if (lastSectionKey == sectionKey) {
+      return;
+    }
+    if (log.isTraceEnabled()) {
+      log.trace(
+          "{} [Move] {} from section {} to {}",
+          LOG_PREFIX,
+          easyNPC,
+          SectionPos.of(lastSectionKey),
+          SectionPos.of(sectionKey));
+    }
+    this.removeFromSection(easyNPC, lastSectionKey);
+    this.entitySectionMap.put(easyNPC, sectionKey);
+    this.addToSection(easyNPC, sectionKey);
+  }
+
+  private void addToSection(EasyNPC<?> easyNPC, long sectionKey) {
+    ArrayList<EasyNPC<?>> easyNPCs = this.sectionMap.get(sectionKey);
+    if (easyNPCs == null) {
+      easyNPCs = new ArrayList<>();
+      this.sectionMap.put(sectionKey, easyNPCs);
+    }
+    easyNPCs.add(easyNPC);
+  }
+
+  private void removeFromSection(EasyNPC<?> easyNPC, long sectionKey) {
+    ArrayList<EasyNPC<?>> easyNPCs = this.sectionMap.get(sectionKey);
+    if (easyNPCs != null) {
+      easyNPCs.remove(easyNPC);
+      if (easyNPCs.isEmpty()) {
+        this.sectionMap.remove(sectionKey);
+      }
+    }
+  }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2024 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easynpc.entity;
+
+import de.markusbordihn.easynpc.Constants;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import net.minecraft.world.entity.PathfinderMob;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Keeps track of the NPCs which are following the same target as a group. The first member of a
+ * group is the leader, which is the only member calculating paths to the target. All other members
+ * get a formation slot behind the leader, which they are reaching with local steering. Members
+ * which are no longer following the target are removed after a short time, so that the remaining
+ * members move up. All methods are only accessed from the server thread.
+ */
+public class FollowGroupManager {
+
+  protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
+  protected static final String LOG_PREFIX = "[Follow Group Manager]";
+  private static final int CLEANUP_INTERVAL_TICKS = 200;
+  private static final int MAX_MEMBER_AGE_TICKS = 40;
+
+  private static final Map<UUID, List<GroupMember>> followGroupMap = new HashMap<>();
+  private static long nextCleanupTick = 0;
+  private static long numberOfSteeringTicks = 0;
+  private static long numberOfFallbackPaths = 0;
+
+  private FollowGroupManager() {}
+
+  /**
+   * Adds the NPC to the group of the target or refreshes its membership.
+   *
+   * @return the formation slot of the NPC, whereby slot 0 is the leader of the group.
+   */
+  public static int join(UUID targetUUID, PathfinderMob pathfinderMob, long gameTime) {
+    List<GroupMember> groupMembers =
+        followGroupMap.computeIfAbsent(targetUUID, key -> new ArrayList<>());
+
+    // Remove expired or removed members, so that the remaining members move up.
+    int slot = -1;
+    int index = 0;
+    Iterator<GroupMember> iterator = groupMembers.iterator();
+    while (iterator.hasNext()) {
+      GroupMember groupMember = iterator.next();
+      if (groupMember.pathfinderMob == pathfinderMob) {
+        groupMember.lastSeen = gameTime;
+        slot = index++;
+      } else if (groupMember.isExpired(gameTime)) {
+        log.debug("{} Removing {} from group of {}", LOG_PREFIX, groupMember, targetUUID);
+        iterator.remove();
+      } else {
+        index++;
+      }
+    }
+    if (slot < 0) {
+      groupMembers.add(new GroupMember(pathfinderMob, gameTime));
+      slot = groupMembers.size() - 1;
+    }
+
+    if (gameTime >= nextCleanupTick) {
+      removeExpiredGroups(gameTime);
+      nextCleanupTick = gameTime + CLEANUP_INTERVAL_TICKS;
+    }
+    return slot;
+  }
+
+  public static void leave(UUID targetUUID, PathfinderMob pathfinderMob) {
+    List<GroupMember> groupMembers = followGroupMap.get(targetUUID);
+    if (groupMembers != null) {
+      groupMembers.removeIf(groupMember -> groupMember.pathfinderMob == pathfinderMob);
+      if (groupMembers.isEmpty()) {
+        followGroupMap.remove(targetUUID);
+      }
+    }
+  }
+
+  public static PathfinderMob getLeader(UUID targetUUID) {
+    List<GroupMember> groupMembers = followGroupMap.get(targetUUID);
+    return groupMembers != null && !groupMembers.isEmpty()
+        ? groupMembers.get(0).pathfinderMob
+        : null;
+  }
+
+  public static void countSteeringTick() {
+    numberOfSteeringTicks++;
+  }
+
+  public static void countFallbackPath() {
+    numberOfFallbackPaths++;
+  }
+
+  public static int getNumberOfGroups() {
+    return followGroupMap.size();
+  }
+
+  public static int getNumberOfMembers() {
+    int numberOfMembers = 0;
+    for (List<GroupMember> groupMembers : followGroupMap.values()) {
+      numberOfMembers += groupMembers.size();
+    }
+    return numberOfMembers;
+  }
+
+  public static long getNumberOfSteeringTicks() {
+    return numberOfSteeringTicks;
+  }
+
+  public static long getNumberOfFallbackPaths() {
+    return numberOfFallbackPaths;
+  }
+
+  private static void removeExpiredGroups(long gameTime) {
+    Iterator<List<GroupMember>> iterator = followGroupMap.values().iterator();
+    while (iterator.hasNext()) {
+      List<GroupMember> groupMembers = iterator.next();
+      groupMembers.removeIf(groupMember -> groupMember.isExpired(gameTime));
+      if (groupMembers.isEmpty()) {
+        iterator.remove();
+      }
+    }
+  }
+
+  private static final class GroupMember {
+
+    private final PathfinderMob pathfinderMob;
+    private long lastSeen;
+
+    private GroupMember(PathfinderMob pathfinderMob, long gameTime) {
+      this.pathfinderMob = pathfinderMob;
+      this.lastSeen = gameTime;
+    }
+
+    private boolean isExpired(long gameTime) {
+      return this.pathfinderMob.isRemoved()
+          || !this.pathfinderMob.isAlive()
+          || gameTime - this.lastSeen > MAX_MEMBER_AGE_TICKS;
+    }
+
+    @Override
+    public String toString() {
+      return "GroupMember [entity=" + this.pathfinderMob + ", lastSeen=" + this.lastSeen + "]";
+    }
+  }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright 2024 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easynpc.entity;
+
+import de.markusbordihn.easynpc.Constants;
+import de.markusbordihn.easynpc.config.PerformanceConfig;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.PathfinderMob;
+import net.minecraft.world.entity.ai.navigation.PathNavigation;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.pathfinder.Node;
+import net.minecraft.world.level.pathfinder.Path;
+import net.minecraft.world.phys.Vec3;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Shares recently calculated paths between NPCs which are following the same target. A follower
+ * close to one of the nodes of a recent path to its target reuses the remaining nodes of this path,
+ * starting from its own position, instead of calculating a new path. Shared paths expire after a
+ * short time or once the target moved away from the position the path was calculated for. All
+ * methods are only accessed from the server thread.
+ */
+public class FollowPathManager {
+
+  // Min. displacement of the target, before followers need to recalculate their path.
+  public static final double REPATH_DISTANCE = 1.5D;
+  public static final double REPATH_DISTANCE_SQR = REPATH_DISTANCE * REPATH_DISTANCE;
+  protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
+  protected static final String LOG_PREFIX = "[Follow Path Manager]";
+  private static final int CLEANUP_INTERVAL_TICKS = 200;
+  private static final int MAX_PATH_AGE_TICKS = 40;
+  private static final int MAX_PATHS_PER_TARGET = 4;
+  private static final double MAX_SHARE_DISTANCE = 4.0D;
+  private static final double MAX_SHARE_DISTANCE_SQR = MAX_SHARE_DISTANCE * MAX_SHARE_DISTANCE;
+
+  private static final Map<UUID, SharedPath[]> sharedPathMap = new HashMap<>();
+  private static long nextCleanupTick = 0;
+  private static long numberOfCalculatedPaths = 0;
+  private static long numberOfSharedPaths = 0;
+  private static Boolean sharePathsOverride = null;
+
+  private FollowPathManager() {}
+
+  /**
+   * Runs the given task with path sharing enabled or disabled, regardless of the performance
+   * config, e.g. to compare both modes. The previous mode is restored, even if the task fails.
+   */
+  public static void runWithSharing(boolean sharePaths, Runnable runnable) {
+    Boolean lastSharePathsOverride = sharePathsOverride;
+    sharePathsOverride = sharePaths;
+    try {
+      runnable.run();
+    } finally {
+      sharePathsOverride = lastSharePathsOverride;
+    }
+  }
+
+  public static boolean moveTo(
+      PathfinderMob pathfinderMob, LivingEntity livingEntity, double speedModifier) {
+    boolean sharePath =
+        sharePathsOverride != null ? sharePathsOverride : PerformanceConfig.isShareFollowPaths();
+    PathNavigation pathNavigation = pathfinderMob.getNavigation();
+    long gameTime = pathfinderMob.level().getGameTime();
+
+    // Reuse a recent path of a nearby follower, if available.
+    if (sharePath) {
+      Path sharedPath = getSharedPath(pathfinderMob, livingEntity, gameTime);
+      if (sharedPath != null && pathNavigation.moveTo(sharedPath, speedModifier)) {
+        numberOfSharedPaths++;
+        return true;
+      }
+    }
+
+    // Calculate a new path, which is shared once it is available.
+    return AsyncPathManager.moveTo(
+        pathfinderMob,
+        livingEntity.blockPosition(),
+        1,
+        speedModifier,
+        path -> {
+          numberOfCalculatedPaths++;
+          if (path != null && sharePath) {
+            addSharedPath(livingEntity, path, pathfinderMob.level().getGameTime());
+          }
+        });
+  }
+
+  public static int getNumberOfTargets() {
+    return sharedPathMap.size();
+  }
+
+  public static long getNumberOfCalculatedPaths() {
+    return numberOfCalculatedPaths;
+  }
+
+  public static long getNumberOfSharedPaths() {
+    return numberOfSharedPaths;
+  }
+
+  private static Path getSharedPath(
+      PathfinderMob pathfinderMob, LivingEntity livingEntity, long gameTime) {
+    SharedPath[] sharedPaths = sharedPathMap.get(livingEntity.getUUID());
+    if (sharedPaths == null) {
+      return null;
+    }
+    for (SharedPath sharedPath : sharedPaths) {
+      if (sharedPath != null && sharedPath.isValid(livingEntity, gameTime)) {
+        Path path = sharedPath.createPath(pathfinderMob);
+        if (path != null) {
+          return path;
+        }
+      }
+    }
+    return null;
+  }
+
+  private static void addSharedPath(LivingEntity livingEntity, Path path, long gameTime) {
+    SharedPath[] sharedPaths =
+        sharedPathMap.computeIfAbsent(
+            livingEntity.getUUID(), key -> new SharedPath[MAX_PATHS_PER_TARGET]);
+
+    // Replace the first expired or otherwise the oldest shared path.
+    int index = 0;
+    for (int i = 0; i < sharedPaths.length; i++) {
+      if (sharedPaths[i] == null || !sharedPaths[i].isValid(livingEntity, gameTime)) {
+        index = i;
+        break;
+      } else if (sharedPaths[i].gameTime < sharedPaths[index].gameTime) {
+        index = i;
+      }
+    }
+    sharedPaths[index] = new SharedPath(livingEntity, path, gameTime);
+
+    if (gameTime >= nextCleanupTick) {
+      removeExpiredPaths(gameTime);
+      nextCleanupTick = gameTime + CLEANUP_INTERVAL_TICKS;
+    }
+  }
+
+  private static void removeExpiredPaths(long gameTime) {
+    Iterator<SharedPath[]> iterator = sharedPathMap.values().iterator();
+    while (iterator.hasNext()) {
+      boolean isExpired = true;
+      for (SharedPath sharedPath : iterator.next()) {
+        if (sharedPath != null && gameTime - sharedPath.gameTime <= MAX_PATH_AGE_TICKS) {
+          isExpired = false;
+          break;
+        }
+      }
+      if (isExpired) {
+        iterator.remove();
+      }
+    }
+  }
+
+  private static final class SharedPath {
+
+    private final Level level;
+    private final Vec3 targetPosition;
+    private final List<Node> nodes;
+    private final BlockPos target;
+    private final boolean canReach;
+    private final long gameTime;
+
+    private SharedPath(LivingEntity livingEntity, Path path, long gameTime) {
+      this.level = livingEntity.level();
+      this.targetPosition = livingEntity.position();
+      this.nodes = new ArrayList<>(path.getNodeCount());
+      for (int i = 0; i < path.getNodeCount(); i++) {
+        this.nodes.add(path.getNode(i));
+      }
+      this.target = path.getTarget();
+      this.canReach = path.canReach();
+      this.gameTime = gameTime;
+    }
+
+    private boolean isValid(LivingEntity livingEntity, long gameTime) {
+      return gameTime - this.gameTime <= MAX_PATH_AGE_TICKS
+          && livingEntity.level() == this.level
+          && livingEntity.distanceToSqr(this.targetPosition) <= REPATH_DISTANCE_SQR;
+    }
+
+    private Path createPath(PathfinderMob pathfinderMob) {
+      if (pathfinderMob.level() != this.level) {
+        return null;
+      }
+
+      // Find the nearest node to the follower within the share distance.
+      int nearestNodeIndex = -1;
+      double nearestDistanceSqr = MAX_SHARE_DISTANCE_SQR;
+      for (int i = 0; i < this.nodes.size(); i++) {
+        Node node = this.nodes.get(i);
+        double distanceSqr = pathfinderMob.distanceToSqr(node.x + 0.5D, node.y, node.z + 0.5D);
+        if (distanceSqr <= nearestDistanceSqr) {
+          nearestNodeIndex = i;
+          nearestDistanceSqr = distanceSqr;
+        }
+      }
+      if (nearestNodeIndex < 0) {
+        return null;
+      }
+
+      // Start the path at the position of the follower and continue with the shared nodes.
+      BlockPos blockPos = pathfinderMob.blockPosition();
+      List<Node> pathNodes = new ArrayList<>(this.nodes.size() - nearestNodeIndex + 1);
+      pathNodes.add(new Node(blockPos.getX(), blockPos.getY(), blockPos.getZ()));
+      pathNodes.addAll(this.nodes.subList(nearestNodeIndex, this.nodes.size()));
+      return new Path(pathNodes, this.target, this.canReach);
+    }
+  }
+}
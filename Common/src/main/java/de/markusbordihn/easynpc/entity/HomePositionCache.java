@@ -0,0 +1,271 @@
+/*
+ * Copyright 2024 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easynpc.entity;
+
+import de.markusbordihn.easynpc.Constants;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.GlobalPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.entity.PathfinderMob;
+import net.minecraft.world.entity.ai.util.GoalUtils;
+import net.minecraft.world.entity.ai.util.LandRandomPos;
+import net.minecraft.world.level.gameevent.BlockPositionSource;
+import net.minecraft.world.level.gameevent.DynamicGameEventListener;
+import net.minecraft.world.level.gameevent.GameEvent;
+import net.minecraft.world.level.gameevent.GameEventListener;
+import net.minecraft.world.level.gameevent.PositionSource;
+import net.minecraft.world.level.pathfinder.BlockPathTypes;
+import net.minecraft.world.phys.AABB;
+import net.minecraft.world.phys.Vec3;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Cache of walkable positions around home positions, which are used for strolling around the home
+ * instead of probing random blocks on every activation. The positions are sampled lazily per home
+ * position and level, and separately for each entity type, size and set of avoided path types, so
+ * that they are only shared by NPCs which would accept the same positions. A game event listener
+ * invalidates the positions, once a block within their bounds is placed, destroyed or changed.
+ * Positions also expire after a while, because the game event listener is lost when the chunk of
+ * the home position is unloaded. All methods are only accessed from the server thread.
+ */
+public class HomePositionCache {
+
+  public static final int HORIZONTAL_RANGE = 10;
+  public static final int VERTICAL_RANGE = 7;
+  protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
+  protected static final String LOG_PREFIX = "[Home Position Cache]";
+  private static final int CLEANUP_INTERVAL_TICKS = 1200;
+  private static final int MAX_AGE_TICKS = 6000;
+  private static final int MAX_POSITIONS = 16;
+  private static final int SAMPLE_ATTEMPTS = 64;
+
+  private static final BlockPathTypes[] BLOCK_PATH_TYPES = BlockPathTypes.values();
+
+  private static final Map<HomePositionKey, HomePositions> homePositionsMap = new HashMap<>();
+  private static long nextCleanupTick = 0;
+  private static long hits = 0;
+  private static long misses = 0;
+  private static long invalidations = 0;
+
+  private HomePositionCache() {}
+
+  public static Vec3 getRandomPosition(PathfinderMob pathfinderMob, BlockPos homeBlockPos) {
+    if (!(pathfinderMob.level() instanceof ServerLevel serverLevel)) {
+      return null;
+    }
+    long gameTime = serverLevel.getGameTime();
+    if (gameTime >= nextCleanupTick) {
+      removeExpiredHomePositions(serverLevel, gameTime);
+      nextCleanupTick = gameTime + CLEANUP_INTERVAL_TICKS;
+    }
+
+    // Sample walkable positions around the home position, if needed.
+    HomePositionKey homePositionKey =
+        new HomePositionKey(
+            GlobalPos.of(serverLevel.dimension(), homeBlockPos),
+            pathfinderMob.getType(),
+            pathfinderMob.getBbWidth(),
+            pathfinderMob.getBbHeight(),
+            getMalusMask(pathfinderMob));
+    HomePositions homePositions = homePositionsMap.get(homePositionKey);
+    if (homePositions == null || homePositions.isExpired(gameTime)) {
+      if (homePositions != null) {
+        homePositions.remove(serverLevel);
+      }
+      homePositions = new HomePositions(pathfinderMob, homeBlockPos.immutable(), gameTime);
+      homePositions.add(serverLevel);
+      homePositionsMap.put(homePositionKey, homePositions);
+      misses++;
+    } else {
+      hits++;
+    }
+    if (homePositions.positions.isEmpty()) {
+      return null;
+    }
+
+    // Verify the picked position, in case a block change was not reported by a game event.
+    Vec3 position =
+        homePositions.positions.get(
+            pathfinderMob.getRandom().nextInt(homePositions.positions.size()));
+    if (!isWalkable(pathfinderMob, BlockPos.containing(position))) {
+      log.debug("{} Invalidate positions around {}", LOG_PREFIX, homeBlockPos);
+      homePositions.invalidate();
+      return null;
+    }
+    return position;
+  }
+
+  public static int getNumberOfHomePositions() {
+    return homePositionsMap.size();
+  }
+
+  public static long getHits() {
+    return hits;
+  }
+
+  public static long getMisses() {
+    return misses;
+  }
+
+  public static long getInvalidations() {
+    return invalidations;
+  }
+
+  private static boolean isWalkable(PathfinderMob pathfinderMob, BlockPos blockPos) {
+    return !GoalUtils.isOutsideLimits(blockPos, pathfinderMob)
+        && !GoalUtils.isSolid(pathfinderMob, blockPos)
+        && !GoalUtils.isWater(pathfinderMob, blockPos)
+        && !GoalUtils.hasMalus(pathfinderMob, blockPos)
+        && !GoalUtils.isNotStable(pathfinderMob.getNavigation(), blockPos);
+  }
+
+  private static long getMalusMask(PathfinderMob pathfinderMob) {
+    // Walkable positions only depend on whether a path type is avoided, not on its exact malus.
+    long malusMask = 0;
+    for (BlockPathTypes blockPathTypes : BLOCK_PATH_TYPES) {
+      if (pathfinderMob.getPathfindingMalus(blockPathTypes) != 0.0F) {
+        malusMask |= 1L << blockPathTypes.ordinal();
+      }
+    }
+    return malusMask;
+  }
+
+  private static void removeExpiredHomePositions(ServerLevel serverLevel, long gameTime) {
+    Iterator<Map.Entry<HomePositionKey, HomePositions>> iterator =
+        homePositionsMap.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<HomePositionKey, HomePositions> entry = iterator.next();
+      if (entry.getKey().globalPos().dimension().equals(serverLevel.dimension())
+          && entry.getValue().isExpired(gameTime)) {
+        entry.getValue().remove(serverLevel);
+        iterator.remove();
+      }
+    }
+  }
+
+  private record HomePositionKey(
+      GlobalPos globalPos, EntityType<?> entityType, float width, float height, long malusMask) {}
+
+  private static final class HomePositions implements GameEventListener {
+
+    private final BlockPos homeBlockPos;
+    private final AABB bounds;
+    private final List<Vec3> positions = new ArrayList<>(MAX_POSITIONS);
+    private final PositionSource positionSource;
+    private final DynamicGameEventListener<HomePositions> dynamicGameEventListener;
+    private final long gameTime;
+    private boolean isInvalid = false;
+
+    private HomePositions(PathfinderMob pathfinderMob, BlockPos homeBlockPos, long gameTime) {
+      this.homeBlockPos = homeBlockPos;
+      this.gameTime = gameTime;
+      this.positionSource = new BlockPositionSource(homeBlockPos);
+      this.dynamicGameEventListener = new DynamicGameEventListener<>(this);
+
+      // Includes the blocks below the positions, which are needed to stand on.
+      this.bounds =
+          new AABB(homeBlockPos).inflate(HORIZONTAL_RANGE, VERTICAL_RANGE + 1.0D, HORIZONTAL_RANGE);
+
+      // Same sampling as LandRandomPos, but around the home position.
+      RandomSource randomSource = pathfinderMob.getRandom();
+      for (int attempt = 0;
+          attempt < SAMPLE_ATTEMPTS && this.positions.size() < MAX_POSITIONS;
+          attempt++) {
+        BlockPos blockPos =
+            homeBlockPos.offset(
+                randomSource.nextInt(2 * HORIZONTAL_RANGE + 1) - HORIZONTAL_RANGE,
+                randomSource.nextInt(2 * VERTICAL_RANGE + 1) - VERTICAL_RANGE,
+                randomSource.nextInt(2 * HORIZONTAL_RANGE + 1) - HORIZONTAL_RANGE);
+        if (GoalUtils.isOutsideLimits(blockPos, pathfinderMob)) {
+          continue;
+        }
+        blockPos = LandRandomPos.movePosUpOutOfSolid(pathfinderMob, blockPos);
+        if (isWalkable(pathfinderMob, blockPos)) {
+          this.positions.add(Vec3.atBottomCenterOf(blockPos));
+        }
+      }
+      log.debug(
+          "{} Found {} walkable positions around {} after {} attempts",
+          LOG_PREFIX,
+          this.positions.size(),
+          homeBlockPos,
+          SAMPLE_ATTEMPTS);
+    }
+
+    private void add(ServerLevel serverLevel) {
+      this.dynamicGameEventListener.add(serverLevel);
+    }
+
+    private void remove(ServerLevel serverLevel) {
+      this.dynamicGameEventListener.remove(serverLevel);
+    }
+
+    private void invalidate() {
+      if (!this.isInvalid) {
+        this.isInvalid = true;
+        invalidations++;
+      }
+    }
+
+    private boolean isExpired(long gameTime) {
+      return this.isInvalid || gameTime - this.gameTime > MAX_AGE_TICKS;
+    }
+
+    @Override
+    public PositionSource getListenerSource() {
+      return this.positionSource;
+    }
+
+    @Override
+    public int getListenerRadius() {
+      return HORIZONTAL_RANGE + VERTICAL_RANGE;
+    }
+
+    @Override
+    public boolean handleGameEvent(
+        ServerLevel serverLevel, GameEvent gameEvent, GameEvent.Context context, Vec3 position) {
+      if ((gameEvent == GameEvent.BLOCK_PLACE
+              || gameEvent == GameEvent.BLOCK_DESTROY
+              || gameEvent == GameEvent.BLOCK_CHANGE
+              || gameEvent == GameEvent.FLUID_PLACE
+              || gameEvent == GameEvent.FLUID_PICKUP)
+          && !this.isInvalid
+          && this.bounds.contains(position)) {
+        log.debug(
+            "{} Invalidate positions around {} after {} at {}",
+            LOG_PREFIX,
+            this.homeBlockPos,
+            gameEvent,
+            position);
+        this.invalidate();
+        return true;
+      }
+      return false;
+    }
+  }
+}
@@ -20,13 +20,30 @@
 package de.markusbordihn.easynpc.entity;
 
 import de.markusbordihn.easynpc.Constants;
+import de.markusbordihn.easynpc.data.action.ActionManager;
+import de.markusbordihn.easynpc.data.action.ActionQueueManager;
+import de.markusbordihn.easynpc.data.action.ActionTimerManager;
+import de.markusbordihn.easynpc.data.action.DistanceActionManager;
+import de.markusbordihn.easynpc.data.objective.ObjectiveTargetManager;
+import de.markusbordihn.easynpc.data.ticker.TickerScheduler;
 import de.markusbordihn.easynpc.entity.easynpc.EasyNPC;
 import de.markusbordihn.easynpc.entity.easynpc.data.OwnerData;
+import de.markusbordihn.easynpc.entity.easynpc.handlers.BaseTickHandler;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.stream.Stream;
+import net.minecraft.network.chat.Component;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.entity.Entity;
@@ -47,20 +64,53 @@ public class LivingEntityManager {
 
   private static final ConcurrentHashMap<UUID, ServerPlayer> playerMap = new ConcurrentHashMap<>();
 
+  private static final ConcurrentHashMap<UUID, Set<UUID>> ownerEntityMap =
+      new ConcurrentHashMap<>();
+
+  private static final ConcurrentHashMap<UUID, UUID> npcOwnerMap = new ConcurrentHashMap<>();
+
+  private static final ConcurrentSkipListSet<String> npcUUIDStringSet =
+      new ConcurrentSkipListSet<>();
+
+  private static final ConcurrentSkipListMap<String, UUID> npcNameIndexMap =
+      new ConcurrentSkipListMap<>();
+
+  private static final ConcurrentHashMap<UUID, String> npcNameKeyMap = new ConcurrentHashMap<>();
+
+  private static final char NAME_INDEX_SEPARATOR = '\0';
+
   private LivingEntityManager() {}
 
   public static void addEasyNPC(EasyNPC<?> easyNPC) {
     UUID uuid = easyNPC.getUUID();
     log.debug("{} [Add] EASY NPC entity {}: {}", LOG_PREFIX, easyNPC, uuid);
     npcEntityMap.put(uuid, easyNPC);
+    npcUUIDStringSet.add(uuid.toString());
 
     // Client side could stop here.
     if (easyNPC.isClientSide()) {
       return;
     }
 
-    // Inform all server-side easy NPC entities about the new easyNPC.
-    for (EasyNPC<?> easyNPCChild : npcEntityMap.values()) {
+    // Register new easyNPC for range queries, distance actions, owner and name lookups.
+    EasyNPCSpatialIndex.addEasyNPC(easyNPC);
+    DistanceActionManager.addEasyNPC(easyNPC);
+    updateEasyNPCOwner(easyNPC);
+    updateEasyNPCName(easyNPC);
+
+    // Register objective targets of the new easyNPC.
+    ObjectiveTargetManager.updateSubscriptions(easyNPC);
+
+    // Register periodic tasks of the new easyNPC and keep it awake until the next proximity pass.
+    EasyNPCDormancyManager.wakeUp(easyNPC);
+    BaseTickHandler<?> baseTickHandler = easyNPC.getEasyNPCBaseTickHandler();
+    if (baseTickHandler != null) {
+      baseTickHandler.registerBaseTickTasks();
+    }
+    ActionTimerManager.restoreActionTimers(easyNPC);
+
+    // Inform server-side easy NPC entities which are targeting the new easyNPC.
+    for (EasyNPC<?> easyNPCChild : ObjectiveTargetManager.getSubscribers(uuid)) {
       if (easyNPCChild != easyNPC) {
         easyNPCChild.handleEasyNPCJoin(easyNPC);
       }
@@ -70,14 +120,34 @@ public class LivingEntityManager {
   public static void removeEasyNPC(EasyNPC<?> easyNPC) {
     log.debug("{} [Remove] EASY NPC entity {}: {}", LOG_PREFIX, easyNPC, easyNPC.getUUID());
     npcEntityMap.remove(easyNPC.getUUID());
+    npcUUIDStringSet.remove(easyNPC.getUUID().toString());
 
     // Client side could stop here.
     if (easyNPC.isClientSide()) {
       return;
     }
 
-    // Inform all server-side easy NPC entities about the removed easyNPC.
-    for (EasyNPC<?> easyNPCChild : npcEntityMap.values()) {
+    // Remove easyNPC from range queries, distance actions, owner and name lookups.
+    EasyNPCSpatialIndex.removeEasyNPC(easyNPC);
+    DistanceActionManager.removeEasyNPC(easyNPC);
+    removeEasyNPCOwner(easyNPC.getUUID());
+    removeEasyNPCName(easyNPC.getUUID());
+
+    // Remove objective targets of the removed easyNPC.
+    ObjectiveTargetManager.removeSubscriptions(easyNPC);
+
+    // Cancel periodic tasks of the removed easyNPC.
+    TickerScheduler.cancelTasks(easyNPC);
+    EasyNPCDormancyManager.removeEasyNPC(easyNPC);
+
+    // Remove players from the action groups, the action rate limit and pending action timers of
+    // the removed easyNPC.
+    ActionManager.removeEasyNPC(easyNPC);
+    ActionQueueManager.removeEasyNPC(easyNPC);
+    ActionTimerManager.removeEasyNPC(easyNPC);
+
+    // Inform server-side easy NPC entities which are targeting the removed easyNPC.
+    for (EasyNPC<?> easyNPCChild : ObjectiveTargetManager.getSubscribers(easyNPC.getUUID())) {
       if (easyNPCChild != easyNPC) {
         easyNPCChild.handleEasyNPCLeave(easyNPC);
       }
@@ -89,8 +159,8 @@ public class LivingEntityManager {
       log.trace("{} [Add] Living entity {}: {}", LOG_PREFIX, livingEntity, livingEntity.getUUID());
     }
 
-    // Inform all server-side easy NPC entities about the new living entity.
-    for (EasyNPC<?> easyNPC : npcEntityMap.values()) {
+    // Inform server-side easy NPC entities which are targeting the new living entity.
+    for (EasyNPC<?> easyNPC : ObjectiveTargetManager.getSubscribers(livingEntity.getUUID())) {
       easyNPC.handleLivingEntityJoin(livingEntity);
     }
   }
@@ -101,8 +171,8 @@ public class LivingEntityManager {
           "{} [Remove] Living entity {}: {}", LOG_PREFIX, livingEntity, livingEntity.getUUID());
     }
 
-    // Inform all server-side easy NPC entities about the leaved living entity.
-    for (EasyNPC<?> easyNPC : npcEntityMap.values()) {
+    // Inform server-side easy NPC entities which are targeting the leaved living entity.
+    for (EasyNPC<?> easyNPC : ObjectiveTargetManager.getSubscribers(livingEntity.getUUID())) {
       easyNPC.handleLivingEntityLeave(livingEntity);
     }
   }
@@ -112,8 +182,10 @@ public class LivingEntityManager {
     playerMap.put(serverPlayer.getUUID(), serverPlayer);
     playerNameMap.put(serverPlayer.getName().getString(), serverPlayer);
 
-    // Inform all server-side easy NPC entities about the new player.
-    for (EasyNPC<?> easyNPC : npcEntityMap.values()) {
+    // Inform server-side easy NPC entities which are targeting the new player.
+    for (EasyNPC<?> easyNPC :
+        ObjectiveTargetManager.getSubscribers(
+            serverPlayer.getUUID(), serverPlayer.getName().getString())) {
       easyNPC.handlePlayerJoin(serverPlayer);
     }
   }
@@ -123,8 +195,14 @@ public class LivingEntityManager {
     playerMap.remove(serverPlayer.getUUID());
     playerNameMap.remove(serverPlayer.getName().getString());
 
-    // Inform all server-side easy NPC entities about the leaved player.
-    for (EasyNPC<?> easyNPC : npcEntityMap.values()) {
+    // Remove the leaved player from all action groups and the action rate limit.
+    ActionManager.removeServerPlayer(serverPlayer);
+    ActionQueueManager.removeServerPlayer(serverPlayer);
+
+    // Inform server-side easy NPC entities which are targeting the leaved player.
+    for (EasyNPC<?> easyNPC :
+        ObjectiveTargetManager.getSubscribers(
+            serverPlayer.getUUID(), serverPlayer.getName().getString())) {
       easyNPC.handlePlayerLeave(serverPlayer);
     }
   }
@@ -189,26 +267,141 @@ public class LivingEntityManager {
     return npcEntityMap.keySet().stream().map(UUID::toString);
   }
 
+  public static List<String> getUUIDStrings(String prefix, int limit) {
+    List<String> result = new ArrayList<>();
+    if (prefix == null || limit <= 0) {
+      return result;
+    }
+    for (String uuidString :
+        npcUUIDStringSet.subSet(prefix, true, prefix + Character.MAX_VALUE, false)) {
+      result.add(uuidString);
+      if (result.size() >= limit) {
+        break;
+      }
+    }
+    return result;
+  }
+
+  public static Map<UUID, String> getUUIDsByName(String prefix, int limit) {
+    Map<UUID, String> result = new LinkedHashMap<>();
+    if (prefix == null || prefix.isEmpty() || limit <= 0) {
+      return result;
+    }
+    String namePrefix = prefix.toLowerCase(Locale.ROOT);
+    for (Map.Entry<String, UUID> entry :
+        npcNameIndexMap
+            .subMap(namePrefix, true, namePrefix + Character.MAX_VALUE, false)
+            .entrySet()) {
+      EasyNPC<?> easyNPC = npcEntityMap.get(entry.getValue());
+      Component customName = easyNPC != null ? easyNPC.getEntity().getCustomName() : null;
+      if (customName != null) {
+        result.put(entry.getValue(), customName.getString());
+      }
+      if (result.size() >= limit) {
+        break;
+      }
+    }
+    return result;
+  }
+
+  public static void updateEasyNPCName(EasyNPC<?> easyNPC) {
+    if (easyNPC == null || easyNPC.isClientSide()) {
+      return;
+    }
+
+    // Only track easy NPCs which are known to the living entity manager.
+    UUID uuid = easyNPC.getUUID();
+    if (uuid == null || npcEntityMap.get(uuid) != easyNPC) {
+      return;
+    }
+
+    Component customName = easyNPC.getEntity().getCustomName();
+    String name = customName != null ? customName.getString().trim() : "";
+    String nameKey =
+        name.isEmpty()
+            ? null
+            : name.toLowerCase(Locale.ROOT) + NAME_INDEX_SEPARATOR + uuid.toString();
+    if (Objects.equals(nameKey, npcNameKeyMap.get(uuid))) {
+      return;
+    }
+    removeEasyNPCName(uuid);
+    if (nameKey != null) {
+      npcNameKeyMap.put(uuid, nameKey);
+      npcNameIndexMap.put(nameKey, uuid);
+    }
+  }
+
+  private static void removeEasyNPCName(UUID uuid) {
+    String nameKey = uuid != null ? npcNameKeyMap.remove(uuid) : null;
+    if (nameKey != null) {
+      npcNameIndexMap.remove(nameKey);
+    }
+  }
+
   public static Stream<String> getUUIDStringsByOwner(ServerPlayer serverPlayer) {
-    Map<UUID, Entity> npcEntityMapByOwner = getEntityMapByOwner(serverPlayer);
-    return npcEntityMapByOwner != null
-        ? npcEntityMapByOwner.keySet().stream().map(UUID::toString)
+    return serverPlayer != null
+        ? getEasyNPCUUIDsByOwner(serverPlayer.getUUID()).stream().map(UUID::toString)
         : Stream.empty();
   }
 
+  public static Set<UUID> getEasyNPCUUIDsByOwner(UUID ownerUUID) {
+    Set<UUID> ownedEntities = ownerUUID != null ? ownerEntityMap.get(ownerUUID) : null;
+    return ownedEntities != null
+        ? Collections.unmodifiableSet(ownedEntities)
+        : Collections.emptySet();
+  }
+
   public static Map<UUID, Entity> getEntityMapByOwner(ServerPlayer serverPlayer) {
     return serverPlayer != null ? getEntityMapByOwner(serverPlayer.getUUID()) : null;
   }
 
   public static Map<UUID, Entity> getEntityMapByOwner(UUID ownerUUID) {
     HashMap<UUID, Entity> result = new HashMap<>();
-    for (var entry : npcEntityMap.entrySet()) {
-      EasyNPC<?> easyNPC = entry.getValue();
-      if (easyNPC instanceof OwnerData<?> ownerData && ownerData.isOwner(ownerUUID)) {
-        result.put(entry.getKey(), easyNPC.getEntity());
+    for (UUID uuid : getEasyNPCUUIDsByOwner(ownerUUID)) {
+      EasyNPC<?> easyNPC = npcEntityMap.get(uuid);
+      if (easyNPC != null) {
+        result.put(uuid, easyNPC.getEntity());
       }
     }
-    return result;
+    return Collections.unmodifiableMap(result);
+  }
+
+  public static void updateEasyNPCOwner(EasyNPC<?> easyNPC) {
+    if (easyNPC == null || easyNPC.isClientSide()) {
+      return;
+    }
+
+    // Only track easy NPCs which are known to the living entity manager.
+    UUID uuid = easyNPC.getUUID();
+    if (uuid == null || npcEntityMap.get(uuid) != easyNPC) {
+      return;
+    }
+
+    OwnerData<?> ownerData = easyNPC.getEasyNPCOwnerData();
+    UUID ownerUUID = ownerData != null ? ownerData.getOwnerUUID() : null;
+    UUID formerOwnerUUID = npcOwnerMap.get(uuid);
+    if (Objects.equals(ownerUUID, formerOwnerUUID)) {
+      return;
+    }
+    removeEasyNPCOwner(uuid);
+    if (ownerUUID != null) {
+      log.debug("{} [Owner] EASY NPC entity {} is owned by {}", LOG_PREFIX, uuid, ownerUUID);
+      npcOwnerMap.put(uuid, ownerUUID);
+      ownerEntityMap.computeIfAbsent(ownerUUID, key -> ConcurrentHashMap.newKeySet()).add(uuid);
+    }
+  }
+
+  private static void removeEasyNPCOwner(UUID uuid) {
+    UUID ownerUUID = uuid != null ? npcOwnerMap.remove(uuid) : null;
+    if (ownerUUID == null) {
+      return;
+    }
+    ownerEntityMap.computeIfPresent(
+        ownerUUID,
+        (key, ownedEntities) -> {
+          ownedEntities.remove(uuid);
+          return ownedEntities.isEmpty() ? null : ownedEntities;
+        });
   }
 
   public static boolean hasAccess(UUID uuid, ServerPlayer serverPlayer) {
@@ -238,6 +431,11 @@ public class LivingEntityManager {
     if (easyNPC != null && easyNPC.getMob() != null) {
       easyNPC.getMob().discard();
       npcEntityMap.remove(uuid);
+      npcUUIDStringSet.remove(uuid.toString());
+      EasyNPCSpatialIndex.removeEasyNPC(easyNPC);
+      removeEasyNPCOwner(uuid);
+      removeEasyNPCName(uuid);
+      ObjectiveTargetManager.removeSubscriptions(easyNPC);
     } else {
       log.warn("{} [Discard] Unable to discard EASY NPC entity {}: {}", LOG_PREFIX, easyNPC, uuid);
     }
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2024 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easynpc.entity;
+
+import de.markusbordihn.easynpc.Constants;
+import de.markusbordihn.easynpc.config.PerformanceConfig;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import net.minecraft.core.SectionPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.Mob;
+import net.minecraft.world.entity.ai.targeting.TargetingConditions;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.phys.AABB;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Batches the nearest entity queries of look at and target goals. NPCs are grouped by the chunk
+ * section they are standing in. The first query of a section within a tick scans only its own
+ * search area. Starting with the second query, the entities around the whole section are scanned
+ * once for each entity class and search range, and every further NPC of the section filters these
+ * candidates by its own search area and targeting conditions. The result is the same as with an
+ * individual scan. Candidates are only kept for the current tick. All methods are only accessed
+ * from the server thread.
+ */
+public class NearestEntityQueryManager {
+
+  protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
+  protected static final String LOG_PREFIX = "[Nearest Entity Query Manager]";
+
+  // Max. size of the bounding box of a querying NPC outside its chunk section.
+  private static final double ENTITY_SIZE_MARGIN = 2.0D;
+  private static final double ENTITY_HEIGHT_MARGIN = 4.0D;
+
+  // Min. number of queries of a section within a tick, before the section scan is shared.
+  private static final int MIN_SHARED_QUERIES = 2;
+
+  // Search margin of the entity section storage of the level, see EntitySectionStorage#getEntities.
+  private static final double SECTION_SEARCH_MARGIN = 2.0D;
+
+  private static final Map<ResourceKey<Level>, LevelQueries> levelQueriesMap = new HashMap<>();
+  private static long numberOfQueries = 0;
+  private static long numberOfSharedQueries = 0;
+  private static long numberOfScannedSections = 0;
+  private static Boolean shareQueriesOverride = null;
+
+  private NearestEntityQueryManager() {}
+
+  /**
+   * Runs the given task with shared queries enabled or disabled, regardless of the performance
+   * config, e.g. to compare both modes. The previous mode is restored, even if the task fails.
+   */
+  public static void runWithSharing(boolean shareQueries, Runnable runnable) {
+    Boolean lastShareQueriesOverride = shareQueriesOverride;
+    shareQueriesOverride = shareQueries;
+    try {
+      runnable.run();
+    } finally {
+      shareQueriesOverride = lastShareQueriesOverride;
+    }
+  }
+
+  public static <T extends LivingEntity> T getNearestEntity(
+      Mob mob,
+      Class<T> entityClass,
+      TargetingConditions targetingConditions,
+      double horizontalRange,
+      double verticalRange) {
+    Level level = mob.level();
+    AABB searchArea = mob.getBoundingBox().inflate(horizontalRange, verticalRange, horizontalRange);
+    List<T> entities = null;
+    numberOfQueries++;
+
+    // Filter the shared candidates of the section by the search area of this NPC.
+    boolean shareQueries =
+        shareQueriesOverride != null
+            ? shareQueriesOverride
+            : PerformanceConfig.isShareNearestEntityQueries();
+    if (shareQueries && level instanceof ServerLevel serverLevel) {
+      List<? extends LivingEntity> candidates =
+          getCandidates(serverLevel, mob, entityClass, horizontalRange, verticalRange);
+      if (candidates != null) {
+        numberOfSharedQueries++;
+        entities = new ArrayList<>();
+        for (LivingEntity candidate : candidates) {
+          if (candidate.getBoundingBox().intersects(searchArea)) {
+            entities.add(entityClass.cast(candidate));
+          }
+        }
+      }
+    }
+
+    if (entities == null) {
+      numberOfScannedSections += getNumberOfSections(searchArea);
+      entities = level.getEntitiesOfClass(entityClass, searchArea, entity -> true);
+    }
+    return level.getNearestEntity(
+        entities, targetingConditions, mob, mob.getX(), mob.getEyeY(), mob.getZ());
+  }
+
+  public static long getNumberOfQueries() {
+    return numberOfQueries;
+  }
+
+  public static long getNumberOfSharedQueries() {
+    return numberOfSharedQueries;
+  }
+
+  public static long getNumberOfScannedSections() {
+    return numberOfScannedSections;
+  }
+
+  private static long getNumberOfSections(AABB aabb) {
+    long sizeX =
+        SectionPos.blockToSectionCoord(aabb.maxX + SECTION_SEARCH_MARGIN)
+            - SectionPos.blockToSectionCoord(aabb.minX - SECTION_SEARCH_MARGIN)
+            + 1;
+    long sizeY =
+        SectionPos.blockToSectionCoord(aabb.maxY + SECTION_SEARCH_MARGIN)
+            - SectionPos.blockToSectionCoord(aabb.minY - SECTION_SEARCH_MARGIN)
+            + 1;
+    long sizeZ =
+        SectionPos.blockToSectionCoord(aabb.maxZ + SECTION_SEARCH_MARGIN)
+            - SectionPos.blockToSectionCoord(aabb.minZ - SECTION_SEARCH_MARGIN)
+            + 1;
+    return sizeX * sizeY * sizeZ;
+  }
+
+  private static List<? extends LivingEntity> getCandidates(
+      ServerLevel serverLevel,
+      Mob mob,
+      Class<? extends LivingEntity> entityClass,
+      double horizontalRange,
+      double verticalRange) {
+    int sectionX = SectionPos.blockToSectionCoord(mob.getX());
+    int sectionY = SectionPos.blockToSectionCoord(mob.getY());
+    int sectionZ = SectionPos.blockToSectionCoord(mob.getZ());
+    AABB sectionArea =
+        new AABB(
+            SectionPos.sectionToBlockCoord(sectionX) - ENTITY_SIZE_MARGIN,
+            SectionPos.sectionToBlockCoord(sectionY) - ENTITY_SIZE_MARGIN,
+            SectionPos.sectionToBlockCoord(sectionZ) - ENTITY_SIZE_MARGIN,
+            SectionPos.sectionToBlockCoord(sectionX + 1) + ENTITY_SIZE_MARGIN,
+            SectionPos.sectionToBlockCoord(sectionY + 1) + ENTITY_HEIGHT_MARGIN,
+            SectionPos.sectionToBlockCoord(sectionZ + 1) + ENTITY_SIZE_MARGIN);
+
+    // Oversized NPCs are not covered by the shared candidates and need their own scan.
+    AABB boundingBox = mob.getBoundingBox();
+    if (boundingBox.minX < sectionArea.minX
+        || boundingBox.minY < sectionArea.minY
+        || boundingBox.minZ < sectionArea.minZ
+        || boundingBox.maxX > sectionArea.maxX
+        || boundingBox.maxY > sectionArea.maxY
+        || boundingBox.maxZ > sectionArea.maxZ) {
+      return null;
+    }
+
+    LevelQueries levelQueries =
+        levelQueriesMap.computeIfAbsent(serverLevel.dimension(), key -> new LevelQueries());
+    levelQueries.prepare(serverLevel);
+    QueryKey queryKey =
+        new QueryKey(
+            SectionPos.asLong(sectionX, sectionY, sectionZ),
+            entityClass,
+            horizontalRange,
+            verticalRange);
+    SectionQuery sectionQuery =
+        levelQueries.sectionQueryMap.computeIfAbsent(queryKey, key -> new SectionQuery());
+
+    // A single query of a section is cheaper with its own smaller search area.
+    if (sectionQuery.candidates == null && ++sectionQuery.queries >= MIN_SHARED_QUERIES) {
+      AABB searchArea = sectionArea.inflate(horizontalRange, verticalRange, horizontalRange);
+      numberOfScannedSections += getNumberOfSections(searchArea);
+      sectionQuery.candidates =
+          serverLevel.getEntitiesOfClass(entityClass, searchArea, entity -> true);
+    }
+    return sectionQuery.candidates;
+  }
+
+  private record QueryKey(
+      long sectionKey,
+      Class<? extends LivingEntity> entityClass,
+      double horizontalRange,
+      double verticalRange) {}
+
+  private static final class SectionQuery {
+
+    private int queries;
+    private List<? extends LivingEntity> candidates;
+  }
+
+  private static final class LevelQueries {
+
+    private final Map<QueryKey, SectionQuery> sectionQueryMap = new HashMap<>();
+    private ServerLevel serverLevel;
+    private long gameTime = -1;
+
+    private void prepare(ServerLevel serverLevel) {
+      // Candidates are only valid within the same tick of the same level instance.
+      if (this.serverLevel != serverLevel || this.gameTime != serverLevel.getGameTime()) {
+        this.sectionQueryMap.clear();
+        this.serverLevel = serverLevel;
+        this.gameTime = serverLevel.getGameTime();
+      }
+    }
+  }
+}
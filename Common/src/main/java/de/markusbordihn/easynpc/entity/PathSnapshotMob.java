@@ -0,0 +1,85 @@
+/*
+ * Copyright 2024 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easynpc.entity;
+
+import net.minecraft.world.entity.EntityDimensions;
+import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.entity.PathfinderMob;
+import net.minecraft.world.entity.Pose;
+import net.minecraft.world.level.pathfinder.BlockPathTypes;
+
+/**
+ * Detached copy of the pathfinding relevant state of a mob, which is used to calculate paths
+ * outside of the server thread. Position, bounding box, movement state and pathfinding malus are
+ * copied on the server thread before each path calculation, so the node evaluators never read the
+ * live mob during the path calculation. The copy is created once per mob and reused, as long as it
+ * isn't used by a running path calculation. It is never added to the level, the level is only
+ * required to create the entity and is not accessed by the path calculation.
+ */
+public class PathSnapshotMob extends PathfinderMob {
+
+  private EntityDimensions entityDimensions;
+  private boolean inWater;
+  private volatile boolean inUse;
+
+  @SuppressWarnings("unchecked")
+  public PathSnapshotMob(PathfinderMob pathfinderMob) {
+    super((EntityType<? extends PathfinderMob>) pathfinderMob.getType(), pathfinderMob.level());
+    this.update(pathfinderMob);
+  }
+
+  public void update(PathfinderMob pathfinderMob) {
+    if (this.entityDimensions == null
+        || this.entityDimensions.width != pathfinderMob.getBbWidth()
+        || this.entityDimensions.height != pathfinderMob.getBbHeight()) {
+      this.entityDimensions =
+          EntityDimensions.scalable(pathfinderMob.getBbWidth(), pathfinderMob.getBbHeight());
+      this.refreshDimensions();
+    }
+    this.inWater = pathfinderMob.isInWater();
+    this.setPos(pathfinderMob.getX(), pathfinderMob.getY(), pathfinderMob.getZ());
+    this.setBoundingBox(pathfinderMob.getBoundingBox());
+    this.setOnGround(pathfinderMob.onGround());
+    this.setNoGravity(pathfinderMob.isNoGravity());
+    this.setMaxUpStep(pathfinderMob.maxUpStep());
+    for (BlockPathTypes blockPathTypes : BlockPathTypes.values()) {
+      this.setPathfindingMalus(blockPathTypes, pathfinderMob.getPathfindingMalus(blockPathTypes));
+    }
+  }
+
+  public boolean isInUse() {
+    return this.inUse;
+  }
+
+  public void setInUse(boolean inUse) {
+    this.inUse = inUse;
+  }
+
+  @Override
+  public EntityDimensions getDimensions(Pose pose) {
+    // The dimensions are not available yet, while the entity itself is created.
+    return this.entityDimensions != null ? this.entityDimensions : super.getDimensions(pose);
+  }
+
+  @Override
+  public boolean isInWater() {
+    return this.inWater;
+  }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2024 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easynpc.entity;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.util.profiling.InactiveProfiler;
+import net.minecraft.util.profiling.ProfilerFiller;
+import net.minecraft.world.level.BlockGetter;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.PathNavigationRegion;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.border.WorldBorder;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.chunk.PalettedContainer;
+import net.minecraft.world.level.material.FluidState;
+import net.minecraft.world.level.pathfinder.Node;
+import net.minecraft.world.level.pathfinder.Path;
+
+/**
+ * Immutable copy of the block states within a region, which is used to calculate paths outside of
+ * the server thread. The block states of each non-empty chunk section, the build height and the
+ * world border are copied on creation, so later changes of the level are not visible to the path
+ * calculation. Copied chunk sections are only read and are shared with all other regions, which are
+ * created within the same tick by using the same {@link SectionCache}. The underlying navigation
+ * region is created without any chunks and all accessors are answered from the snapshot, so that
+ * the level itself is never accessed. Block entities are not part of the snapshot.
+ */
+public class PathSnapshotRegion extends PathNavigationRegion {
+
+  private static final BlockState AIR = Blocks.AIR.defaultBlockState();
+
+  // Empty area for the underlying navigation region, which doesn't keep any chunk references.
+  private static final BlockPos EMPTY_REGION_FROM = BlockPos.ZERO;
+  private static final BlockPos EMPTY_REGION_TO = new BlockPos(-1, 0, -1);
+
+  private final int minSectionX;
+  private final int minSectionY;
+  private final int minSectionZ;
+  private final int sizeX;
+  private final int sizeY;
+  private final int sizeZ;
+  private final PalettedContainer<BlockState>[] sections;
+  private final int height;
+  private final int minBuildHeight;
+  private final WorldBorder worldBorder;
+
+  @SuppressWarnings("unchecked")
+  public PathSnapshotRegion(
+      Level level, BlockPos fromBlockPos, BlockPos toBlockPos, SectionCache sectionCache) {
+    super(level, EMPTY_REGION_FROM, EMPTY_REGION_TO);
+    this.height = level.getHeight();
+    this.minBuildHeight = level.getMinBuildHeight();
+    this.worldBorder = copyWorldBorder(level.getWorldBorder());
+    this.minSectionX = SectionPos.blockToSectionCoord(fromBlockPos.getX());
+    this.minSectionY =
+        SectionPos.blockToSectionCoord(Math.max(fromBlockPos.getY(), level.getMinBuildHeight()));
+    this.minSectionZ = SectionPos.blockToSectionCoord(fromBlockPos.getZ());
+    this.sizeX = SectionPos.blockToSectionCoord(toBlockPos.getX()) - this.minSectionX + 1;
+    this.sizeY =
+        Math.max(
+            0,
+            SectionPos.blockToSectionCoord(
+                    Math.min(toBlockPos.getY(), level.getMaxBuildHeight() - 1))
+                - this.minSectionY
+                + 1);
+    this.sizeZ = SectionPos.blockToSectionCoord(toBlockPos.getZ()) - this.minSectionZ + 1;
+    this.sections = new PalettedContainer[this.sizeX * this.sizeY * this.sizeZ];
+
+    // Copy the block states of all loaded and non-empty chunk sections, once per tick.
+    sectionCache.prepare(level);
+    for (int x = 0; x < this.sizeX; x++) {
+      for (int z = 0; z < this.sizeZ; z++) {
+        LevelChunk levelChunk =
+            level.getChunkSource().getChunkNow(this.minSectionX + x, this.minSectionZ + z);
+        if (levelChunk == null) {
+          continue;
+        }
+        for (int y = 0; y < this.sizeY; y++) {
+          this.sections[getSectionIndex(x, y, z)] =
+              sectionCache.getSection(
+                  levelChunk, this.minSectionX + x, this.minSectionY + y, this.minSectionZ + z);
+        }
+      }
+    }
+  }
+
+  /**
+   * Checks if the blocks of all path nodes and the blocks below them are still matching the level,
+   * to discard paths which are based on outdated block states.
+   */
+  public boolean matchesLevel(Level level, Path path) {
+    BlockPos.MutableBlockPos blockPos = new BlockPos.MutableBlockPos();
+    for (int i = 0; i < path.getNodeCount(); i++) {
+      Node node = path.getNode(i);
+      blockPos.set(node.x, node.y, node.z);
+      if (this.getBlockState(blockPos) != level.getBlockState(blockPos)) {
+        return false;
+      }
+      blockPos.move(0, -1, 0);
+      if (this.getBlockState(blockPos) != level.getBlockState(blockPos)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public BlockState getBlockState(BlockPos blockPos) {
+    int x = SectionPos.blockToSectionCoord(blockPos.getX()) - this.minSectionX;
+    int y = SectionPos.blockToSectionCoord(blockPos.getY()) - this.minSectionY;
+    int z = SectionPos.blockToSectionCoord(blockPos.getZ()) - this.minSectionZ;
+    if (x < 0 || y < 0 || z < 0 || x >= this.sizeX || y >= this.sizeY || z >= this.sizeZ) {
+      return AIR;
+    }
+    PalettedContainer<BlockState> blockStates = this.sections[getSectionIndex(x, y, z)];
+    return blockStates != null
+        ? blockStates.get(blockPos.getX() & 15, blockPos.getY() & 15, blockPos.getZ() & 15)
+        : AIR;
+  }
+
+  @Override
+  public FluidState getFluidState(BlockPos blockPos) {
+    return this.getBlockState(blockPos).getFluidState();
+  }
+
+  @Override
+  public BlockEntity getBlockEntity(BlockPos blockPos) {
+    return null;
+  }
+
+  @Override
+  public BlockGetter getChunkForCollisions(int chunkX, int chunkZ) {
+    return this;
+  }
+
+  @Override
+  public WorldBorder getWorldBorder() {
+    return this.worldBorder;
+  }
+
+  @Override
+  public int getHeight() {
+    return this.height;
+  }
+
+  @Override
+  public int getMinBuildHeight() {
+    return this.minBuildHeight;
+  }
+
+  @Override
+  public ProfilerFiller getProfiler() {
+    // The profiler of the level is not thread-safe.
+    return InactiveProfiler.INSTANCE;
+  }
+
+  private static WorldBorder copyWorldBorder(WorldBorder levelWorldBorder) {
+    WorldBorder worldBorder = new WorldBorder();
+    worldBorder.setCenter(levelWorldBorder.getCenterX(), levelWorldBorder.getCenterZ());
+    worldBorder.setAbsoluteMaxSize(levelWorldBorder.getAbsoluteMaxSize());
+    worldBorder.setSize(levelWorldBorder.getSize());
+    return worldBorder;
+  }
+
+  private int getSectionIndex(int x, int y, int z) {
+    return (x * this.sizeZ + z) * this.sizeY + y;
+  }
+
+  /**
+   * Copies of the non-empty chunk sections of a level, which are only kept for the current tick.
+   * Only accessed from the server thread.
+   */
+  public static final class SectionCache {
+
+    private final Long2ObjectMap<PalettedContainer<BlockState>> sectionMap =
+        new Long2ObjectOpenHashMap<>();
+    private Level level;
+    private long gameTime = -1;
+
+    private void prepare(Level level) {
+      // Copies are only valid within the same tick of the same level instance.
+      if (this.level != level || this.gameTime != level.getGameTime()) {
+        this.sectionMap.clear();
+        this.level = level;
+        this.gameTime = level.getGameTime();
+      }
+    }
+
+    private PalettedContainer<BlockState> getSection(
+        LevelChunk levelChunk, int sectionX, int sectionY, int sectionZ) {
+      long sectionKey = SectionPos.asLong(sectionX, sectionY, sectionZ);
+      PalettedContainer<BlockState> blockStates = this.sectionMap.get(sectionKey);
+      if (blockStates == null) {
+        LevelChunkSection levelChunkSection =
+            levelChunk.getSection(levelChunk.getSectionIndexFromSectionY(sectionY));
+        if (levelChunkSection.hasOnlyAir()) {
+          return null;
+        }
+        blockStates = levelChunkSection.getStates().copy();
+        this.sectionMap.put(sectionKey, blockStates);
+      }
+      return blockStates;
+    }
+  }
+}
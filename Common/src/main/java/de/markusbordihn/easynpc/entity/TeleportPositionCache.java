@@ -0,0 +1,186 @@
+/*
+ * Copyright 2024 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easynpc.entity;
+
+import de.markusbordihn.easynpc.Constants;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.GlobalPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.PathfinderMob;
+import net.minecraft.world.level.block.LeavesBlock;
+import net.minecraft.world.level.pathfinder.BlockPathTypes;
+import net.minecraft.world.level.pathfinder.WalkNodeEvaluator;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Finds teleport positions for NPCs, which are too far behind their follow target. The columns
+ * around the target are searched ring by ring and the standing height of each column is taken from
+ * a small local heightmap. The walkable positions are memoized per target block position for a few
+ * ticks, so all followers of the same target share one search, including failed searches, e.g.
+ * above an ocean. Only the collision check for the bounding box is done per follower. All methods
+ * are only accessed from the server thread.
+ */
+public class TeleportPositionCache {
+
+  protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
+  protected static final String LOG_PREFIX = "[Teleport Position Cache]";
+
+  // Same search area as before: 2 to 3 blocks around the target and 1 block up or down.
+  private static final int MIN_RING = 2;
+  private static final int MAX_RING = 3;
+  private static final int[] HEIGHT_OFFSETS = {0, -1, 1};
+  private static final int MEMO_TICKS = 10;
+  private static final int CLEANUP_INTERVAL_TICKS = 200;
+  private static final List<int[]> RING_COLUMNS = new ArrayList<>();
+
+  private static final Map<GlobalPos, TeleportPositions> teleportPositionsMap = new HashMap<>();
+  private static long nextCleanupTick = 0;
+  private static long searches = 0;
+  private static long hits = 0;
+  private static long failedSearches = 0;
+
+  static {
+    // Column offsets around the target, ordered by ring, starting with the nearest ring.
+    for (int ring = MIN_RING; ring <= MAX_RING; ring++) {
+      for (int x = -ring; x <= ring; x++) {
+        for (int z = -ring; z <= ring; z++) {
+          if (Math.max(Math.abs(x), Math.abs(z)) == ring) {
+            RING_COLUMNS.add(new int[] {x, z});
+          }
+        }
+      }
+    }
+  }
+
+  private TeleportPositionCache() {}
+
+  public static BlockPos findTeleportPosition(
+      PathfinderMob pathfinderMob, LivingEntity livingEntity, boolean canFly) {
+    if (!(pathfinderMob.level() instanceof ServerLevel serverLevel)) {
+      return null;
+    }
+    List<BlockPos> blockPosList =
+        canFly
+            ? getRingPositions(livingEntity.blockPosition())
+            : getWalkablePositions(serverLevel, livingEntity.blockPosition());
+    if (blockPosList.isEmpty()) {
+      return null;
+    }
+
+    // Start at a different position for each follower, to avoid stacking followers.
+    int startIndex = Math.floorMod(pathfinderMob.getId(), blockPosList.size());
+    for (int i = 0; i < blockPosList.size(); i++) {
+      BlockPos blockPos = blockPosList.get((startIndex + i) % blockPosList.size());
+      if (serverLevel.noCollision(
+          pathfinderMob,
+          pathfinderMob.getBoundingBox().move(blockPos.subtract(pathfinderMob.blockPosition())))) {
+        return blockPos;
+      }
+    }
+    return null;
+  }
+
+  public static long getSearches() {
+    return searches;
+  }
+
+  public static long getHits() {
+    return hits;
+  }
+
+  public static long getFailedSearches() {
+    return failedSearches;
+  }
+
+  private static List<BlockPos> getWalkablePositions(
+      ServerLevel serverLevel, BlockPos targetBlockPos) {
+    long gameTime = serverLevel.getGameTime();
+    GlobalPos globalPos = GlobalPos.of(serverLevel.dimension(), targetBlockPos);
+    TeleportPositions teleportPositions = teleportPositionsMap.get(globalPos);
+    if (teleportPositions != null && gameTime - teleportPositions.gameTime <= MEMO_TICKS) {
+      hits++;
+      return teleportPositions.blockPosList;
+    }
+    if (gameTime >= nextCleanupTick) {
+      teleportPositionsMap.values().removeIf(entry -> gameTime - entry.gameTime > MEMO_TICKS);
+      nextCleanupTick = gameTime + CLEANUP_INTERVAL_TICKS;
+    }
+
+    // Local heightmap with the standing height of each ring column, ordered by ring.
+    List<BlockPos> blockPosList = new ArrayList<>();
+    BlockPos.MutableBlockPos blockPos = new BlockPos.MutableBlockPos();
+    for (int[] ringColumn : RING_COLUMNS) {
+      int height =
+          getStandingHeight(serverLevel, blockPos, targetBlockPos, ringColumn[0], ringColumn[1]);
+      if (height != Integer.MIN_VALUE) {
+        blockPosList.add(
+            new BlockPos(
+                targetBlockPos.getX() + ringColumn[0],
+                height,
+                targetBlockPos.getZ() + ringColumn[1]));
+      }
+    }
+    searches++;
+    if (blockPosList.isEmpty()) {
+      failedSearches++;
+      log.debug("{} No walkable teleport position around {}", LOG_PREFIX, targetBlockPos);
+    }
+    teleportPositionsMap.put(globalPos, new TeleportPositions(blockPosList, gameTime));
+    return blockPosList;
+  }
+
+  private static int getStandingHeight(
+      ServerLevel serverLevel,
+      BlockPos.MutableBlockPos blockPos,
+      BlockPos targetBlockPos,
+      int x,
+      int z) {
+    for (int heightOffset : HEIGHT_OFFSETS) {
+      blockPos.set(
+          targetBlockPos.getX() + x,
+          targetBlockPos.getY() + heightOffset,
+          targetBlockPos.getZ() + z);
+      if (WalkNodeEvaluator.getBlockPathTypeStatic(serverLevel, blockPos) == BlockPathTypes.WALKABLE
+          && !(serverLevel.getBlockState(blockPos.below()).getBlock() instanceof LeavesBlock)) {
+        return blockPos.getY();
+      }
+    }
+    return Integer.MIN_VALUE;
+  }
+
+  /** Returns all positions of the search area, ordered by ring, column and height. */
+  private static List<BlockPos> getRingPositions(BlockPos targetBlockPos) {
+    List<BlockPos> blockPosList = new ArrayList<>(RING_COLUMNS.size() * HEIGHT_OFFSETS.length);
+    for (int[] ringColumn : RING_COLUMNS) {
+      for (int heightOffset : HEIGHT_OFFSETS) {
+        blockPosList.add(targetBlockPos.offset(ringColumn[0], heightOffset, ringColumn[1]));
+      }
+    }
+    return blockPosList;
+  }
+
+  private record TeleportPositions(List<BlockPos> blockPosList, long gameTime) {}
+}
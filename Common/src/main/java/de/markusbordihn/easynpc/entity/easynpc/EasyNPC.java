@@ -22,6 +22,7 @@ package de.markusbordihn.easynpc.entity.easynpc;
 import de.markusbordihn.easynpc.Constants;
 import de.markusbordihn.easynpc.data.action.ActionEventType;
 import de.markusbordihn.easynpc.data.synched.SynchedDataIndex;
+import de.markusbordihn.easynpc.entity.EasyNPCDormancyManager;
 import de.markusbordihn.easynpc.entity.easynpc.data.ActionEventData;
 import de.markusbordihn.easynpc.entity.easynpc.data.AttackData;
 import de.markusbordihn.easynpc.entity.easynpc.data.AttributeData;
@@ -48,6 +49,7 @@ import de.markusbordihn.easynpc.entity.easynpc.data.TradingData;
 import de.markusbordihn.easynpc.entity.easynpc.data.VariantData;
 import de.markusbordihn.easynpc.entity.easynpc.handlers.ActionHandler;
 import de.markusbordihn.easynpc.entity.easynpc.handlers.AttributeHandler;
+import de.markusbordihn.easynpc.entity.easynpc.handlers.BaseTickHandler;
 import de.markusbordihn.easynpc.server.player.FakePlayer;
 import java.util.Random;
 import java.util.UUID;
@@ -196,6 +198,10 @@ public interface EasyNPC<E extends PathfinderMob> extends Npc {
     return this instanceof AttributeHandler<E> attributeHandler ? attributeHandler : null;
   }
 
+  default BaseTickHandler<E> getEasyNPCBaseTickHandler() {
+    return this instanceof BaseTickHandler<E> baseTickHandler ? baseTickHandler : null;
+  }
+
   default PathfinderMob getPathfinderMob() {
     return this instanceof PathfinderMob pathfinderMob ? pathfinderMob : null;
   }
@@ -330,6 +336,7 @@ public interface EasyNPC<E extends PathfinderMob> extends Npc {
   }
 
   default void handleHurtEvent(DamageSource damageSource, float damage) {
+    EasyNPCDormancyManager.wakeUp(this);
     ActionEventData<E> actionEventData = getEasyNPCActionEventData();
     if (actionEventData != null) {
       actionEventData.handleActionEvent(
@@ -31,8 +31,8 @@ import net.minecraft.world.item.BowItem;
 public class BowAttackGoal<T extends EasyNPC<?>> extends Goal {
   private final PathfinderMob pathfinderMob;
   private final RangedAttackMob rangedAttackMob;
-  private final double speedModifier;
-  private final float attackRadiusSqr;
+  private double speedModifier;
+  private float attackRadiusSqr;
   private int attackIntervalMin;
   private int attackTime = -1;
   private int seeTime;
@@ -49,6 +49,12 @@ public class BowAttackGoal<T extends EasyNPC<?>> extends Goal {
     this.setFlags(EnumSet.of(Flag.MOVE, Flag.LOOK));
   }
 
+  public void updateObjective(double speedModifier, int attackInterval, float attackRadius) {
+    this.speedModifier = speedModifier;
+    this.attackIntervalMin = attackInterval;
+    this.attackRadiusSqr = attackRadius * attackRadius;
+  }
+
   public void setMinAttackInterval(int livingEntity) {
     this.attackIntervalMin = livingEntity;
   }
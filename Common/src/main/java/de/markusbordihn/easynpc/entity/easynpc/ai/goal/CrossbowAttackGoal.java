@@ -33,8 +33,8 @@ import net.minecraft.world.item.ItemStack;
 
 public class CrossbowAttackGoal<T extends EasyNPC<?>> extends Goal {
   public static final UniformInt PATHFINDING_DELAY_RANGE = TimeUtil.rangeOfSeconds(1, 2);
-  private final double speedModifier;
-  private final float attackRadiusSqr;
+  private double speedModifier;
+  private float attackRadiusSqr;
   private final PathfinderMob pathfinderMob;
   private final CrossbowAttackMob crossbowAttackMob;
   private int attackDelay;
@@ -50,6 +50,11 @@ public class CrossbowAttackGoal<T extends EasyNPC<?>> extends Goal {
     this.setFlags(EnumSet.of(Goal.Flag.MOVE, Goal.Flag.LOOK));
   }
 
+  public void updateObjective(double speedModifier, float attackRadius) {
+    this.speedModifier = speedModifier;
+    this.attackRadiusSqr = attackRadius * attackRadius;
+  }
+
   public boolean canUse() {
     return this.crossbowAttackMob != null
         && this.isValidTarget()
@@ -19,10 +19,12 @@
 
 package de.markusbordihn.easynpc.entity.easynpc.ai.goal;
 
+import de.markusbordihn.easynpc.entity.NearestEntityQueryManager;
 import de.markusbordihn.easynpc.entity.easynpc.EasyNPC;
 import de.markusbordihn.easynpc.entity.easynpc.data.ModelData;
 import net.minecraft.world.entity.LivingEntity;
 import net.minecraft.world.entity.ai.goal.LookAtPlayerGoal;
+import net.minecraft.world.entity.player.Player;
 
 public class CustomLookAtPlayerGoal<T extends EasyNPC<?>> extends LookAtPlayerGoal {
   private final ModelData<?> modelData;
@@ -44,7 +46,21 @@ public class CustomLookAtPlayerGoal<T extends EasyNPC<?>> extends LookAtPlayerGo
 
   @Override
   public boolean canUse() {
-    return (this.modelData == null || !this.modelData.getModelLockRotation()) && super.canUse();
+    if (this.modelData != null && this.modelData.getModelLockRotation()) {
+      return false;
+    }
+
+    // Players are already looked up without any entity scan.
+    if (this.lookAtType == Player.class) {
+      return super.canUse();
+    }
+    if (this.mob.getRandom().nextFloat() >= this.probability) {
+      return false;
+    }
+    this.lookAt =
+        NearestEntityQueryManager.getNearestEntity(
+            this.mob, this.lookAtType, this.lookAtContext, this.lookDistance, 3.0D);
+    return this.lookAt != null;
   }
 
   @Override
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2024 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easynpc.entity.easynpc.ai.goal;
+
+import de.markusbordihn.easynpc.entity.NearestEntityQueryManager;
+import java.util.function.Predicate;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.Mob;
+import net.minecraft.world.entity.ai.goal.target.NearestAttackableTargetGoal;
+import net.minecraft.world.entity.player.Player;
+
+public class CustomNearestAttackableTargetGoal<T extends LivingEntity>
+    extends NearestAttackableTargetGoal<T> {
+
+  public CustomNearestAttackableTargetGoal(Mob mob, Class<T> targetType, boolean mustSee) {
+    super(mob, targetType, mustSee);
+  }
+
+  public CustomNearestAttackableTargetGoal(
+      Mob mob,
+      Class<T> targetType,
+      int randomInterval,
+      boolean mustSee,
+      boolean mustReach,
+      Predicate<LivingEntity> targetPredicate) {
+    super(mob, targetType, randomInterval, mustSee, mustReach, targetPredicate);
+  }
+
+  @Override
+  protected void findTarget() {
+    // Players are already looked up without any entity scan.
+    if (this.targetType == Player.class || this.targetType == ServerPlayer.class) {
+      super.findTarget();
+      return;
+    }
+    this.target =
+        NearestEntityQueryManager.getNearestEntity(
+            this.mob, this.targetType, this.targetConditions, this.getFollowDistance(), 4.0D);
+  }
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2024 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easynpc.entity.easynpc.ai.goal;
+
+import de.markusbordihn.easynpc.entity.AsyncPathManager;
+import de.markusbordihn.easynpc.entity.FollowGroupManager;
+import de.markusbordihn.easynpc.entity.FollowPathManager;
+import de.markusbordihn.easynpc.entity.easynpc.EasyNPC;
+import net.minecraft.core.BlockPos;
+import net.minecraft.util.Mth;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.PathfinderMob;
+import net.minecraft.world.level.pathfinder.BlockPathTypes;
+import net.minecraft.world.level.pathfinder.WalkNodeEvaluator;
+import net.minecraft.world.phys.Vec3;
+
+/**
+ * Follows a living entity as part of a group. The leader of the group follows the target with
+ * pathfinding, all other members steer directly to their formation slot behind the leader and only
+ * fall back to pathfinding, if they are blocked or their slot is not walkable.
+ */
+public class FollowGroupGoal extends FollowLivingEntityGoal {
+
+  private static final double SLOT_SPACING = 1.5D;
+  private static final double SLOT_REACHED_DISTANCE_SQR = 0.5D * 0.5D;
+  private static final double SLOT_START_DISTANCE_SQR = 2.0D * 2.0D;
+  private static final double MIN_PROGRESS_DISTANCE_SQR = 0.05D * 0.05D;
+  private static final double TELEPORT_DISTANCE_SQR = 12.0D * 12.0D;
+  private static final int MAX_BLOCKED_TICKS = 10;
+  private static final int MAX_FALLBACK_TICKS = 40;
+  private static final int[] SLOT_HEIGHT_OFFSETS = {0, 1, -1};
+  private int slot;
+  private int blockedTicks;
+  private int fallbackTicks;
+  private Vec3 lastPosition;
+  private BlockPos slotBlockPos;
+  private boolean slotWalkable;
+
+  public FollowGroupGoal(
+      EasyNPC<?> easyNPC,
+      LivingEntity livingEntity,
+      double speedModifier,
+      float stopDistance,
+      float startDistance) {
+    super(easyNPC, livingEntity, speedModifier, stopDistance, startDistance);
+  }
+
+  @Override
+  public void updateObjective(
+      LivingEntity livingEntity, double speedModifier, float stopDistance, float startDistance) {
+    if (this.livingEntity != null && !this.livingEntity.getUUID().equals(livingEntity.getUUID())) {
+      this.leaveGroup();
+    }
+    super.updateObjective(livingEntity, speedModifier, stopDistance, startDistance);
+  }
+
+  @Override
+  public boolean canUse() {
+    if (this.pathfinderMob == null
+        || !this.pathfinderMob.isAlive()
+        || this.livingEntity == null
+        || !this.livingEntity.isAlive()) {
+      return false;
+    }
+    this.slot = this.joinGroup();
+    if (this.slot == 0) {
+      return super.canUse();
+    }
+    PathfinderMob leader = FollowGroupManager.getLeader(this.livingEntity.getUUID());
+    return leader != null
+        && this.pathfinderMob.distanceToSqr(this.livingEntity)
+            < (this.startDistance * this.startDistance)
+        && this.pathfinderMob.distanceToSqr(this.getSlotPosition(leader)) > SLOT_START_DISTANCE_SQR;
+  }
+
+  @Override
+  public boolean canContinueToUse() {
+    if (!this.livingEntity.isAlive()) {
+      return false;
+    }
+    int currentSlot = this.joinGroup();
+    if (currentSlot == 0 || this.slot == 0) {
+      // Restart the goal, if a member became the leader of the group.
+      return currentSlot == this.slot && super.canContinueToUse();
+    }
+    this.slot = currentSlot;
+    PathfinderMob leader = FollowGroupManager.getLeader(this.livingEntity.getUUID());
+    return leader != null
+        && leader.isAlive()
+        && (this.fallbackTicks > 0
+            || this.pathfinderMob.distanceToSqr(this.getSlotPosition(leader))
+                > SLOT_REACHED_DISTANCE_SQR);
+  }
+
+  @Override
+  public void start() {
+    super.start();
+    this.blockedTicks = 0;
+    this.fallbackTicks = 0;
+    this.lastPosition = null;
+  }
+
+  @Override
+  public void stop() {
+    super.stop();
+    if (this.slot != 0) {
+      this.pathfinderMob
+          .getMoveControl()
+          .setWantedPosition(
+              this.pathfinderMob.getX(), this.pathfinderMob.getY(), this.pathfinderMob.getZ(), 0);
+    }
+
+    // Leave the group right away, if the target or the NPC is gone, so that the others move up.
+    if (!this.livingEntity.isAlive() || !this.pathfinderMob.isAlive()) {
+      this.leaveGroup();
+    }
+  }
+
+  public void leaveGroup() {
+    FollowGroupManager.leave(this.livingEntity.getUUID(), this.pathfinderMob);
+  }
+
+  @Override
+  public void tick() {
+    if (this.slot == 0) {
+      super.tick();
+      return;
+    }
+    PathfinderMob leader = FollowGroupManager.getLeader(this.livingEntity.getUUID());
+    if (leader == null) {
+      return;
+    }
+    this.pathfinderMob
+        .getLookControl()
+        .setLookAt(this.livingEntity, 10.0F, this.pathfinderMob.getMaxHeadXRot());
+    if (this.pathfinderMob.isLeashed() || this.pathfinderMob.isPassenger()) {
+      return;
+    }
+
+    // Catch up with the leader, if the member is too far behind.
+    if (this.pathfinderMob.distanceToSqr(leader) >= TELEPORT_DISTANCE_SQR) {
+      this.teleportTo(leader);
+      this.resetSteering();
+      return;
+    }
+
+    // Keep following the fallback path, until it is done or expired.
+    if (this.fallbackTicks > 0) {
+      if (--this.fallbackTicks > 0
+          && (!this.pathNavigation.isDone()
+              || AsyncPathManager.hasPendingPath(this.pathfinderMob))) {
+        return;
+      }
+      AsyncPathManager.cancel(this.pathfinderMob);
+      this.pathNavigation.stop();
+      this.resetSteering();
+    }
+
+    Vec3 slotPosition = this.getSlotPosition(leader);
+    if (this.pathfinderMob.distanceToSqr(slotPosition) <= SLOT_REACHED_DISTANCE_SQR) {
+      this.resetSteering();
+      return;
+    }
+
+    // Count the ticks without any progress towards the slot, e.g. by walls or other members.
+    Vec3 position = this.pathfinderMob.position();
+    if (this.lastPosition != null
+        && (this.pathfinderMob.horizontalCollision
+            || position.distanceToSqr(this.lastPosition) < MIN_PROGRESS_DISTANCE_SQR)) {
+      this.blockedTicks++;
+    } else {
+      this.blockedTicks = 0;
+    }
+    this.lastPosition = position;
+
+    if (this.blockedTicks >= MAX_BLOCKED_TICKS || !this.isWalkable(slotPosition)) {
+      // Fall back to the (shared) path of the leader, if the slot cannot be reached directly.
+      if (FollowPathManager.moveTo(this.pathfinderMob, leader, this.speedModifier)) {
+        FollowGroupManager.countFallbackPath();
+        this.fallbackTicks = MAX_FALLBACK_TICKS;
+      }
+      this.blockedTicks = 0;
+    } else {
+      this.pathfinderMob
+          .getMoveControl()
+          .setWantedPosition(slotPosition.x, slotPosition.y, slotPosition.z, this.speedModifier);
+      FollowGroupManager.countSteeringTick();
+    }
+  }
+
+  private int joinGroup() {
+    return FollowGroupManager.join(
+        this.livingEntity.getUUID(), this.pathfinderMob, this.pathfinderMob.level().getGameTime());
+  }
+
+  private void resetSteering() {
+    this.blockedTicks = 0;
+    this.fallbackTicks = 0;
+    this.lastPosition = null;
+  }
+
+  /**
+   * Returns the formation slot of this member behind the leader. Members are placed in rows of two,
+   * alternating between the left and right side of the leader.
+   */
+  private Vec3 getSlotPosition(PathfinderMob leader) {
+    int row = (this.slot + 1) / 2;
+    double side = this.slot % 2 == 0 ? 0.5D : -0.5D;
+    float yRot = leader.getYRot() * Mth.DEG_TO_RAD;
+    double forwardX = -Mth.sin(yRot);
+    double forwardZ = Mth.cos(yRot);
+    double backward = row * SLOT_SPACING;
+    double sideways = side * SLOT_SPACING;
+    return new Vec3(
+        leader.getX() - forwardX * backward - forwardZ * sideways,
+        leader.getY(),
+        leader.getZ() - forwardZ * backward + forwardX * sideways);
+  }
+
+  private boolean isWalkable(Vec3 slotPosition) {
+    if (this.canFly) {
+      return true;
+    }
+    BlockPos blockPos = BlockPos.containing(slotPosition);
+    if (!blockPos.equals(this.slotBlockPos)) {
+      this.slotBlockPos = blockPos;
+      this.slotWalkable = false;
+      BlockPos.MutableBlockPos mutableBlockPos = new BlockPos.MutableBlockPos();
+      for (int heightOffset : SLOT_HEIGHT_OFFSETS) {
+        mutableBlockPos.set(blockPos.getX(), blockPos.getY() + heightOffset, blockPos.getZ());
+        if (WalkNodeEvaluator.getBlockPathTypeStatic(this.pathfinderMob.level(), mutableBlockPos)
+            == BlockPathTypes.WALKABLE) {
+          this.slotWalkable = true;
+          break;
+        }
+      }
+    }
+    return this.slotWalkable;
+  }
+}
@@ -19,6 +19,9 @@
 
 package de.markusbordihn.easynpc.entity.easynpc.ai.goal;
 
+import de.markusbordihn.easynpc.entity.AsyncPathManager;
+import de.markusbordihn.easynpc.entity.FollowPathManager;
+import de.markusbordihn.easynpc.entity.TeleportPositionCache;
 import de.markusbordihn.easynpc.entity.easynpc.EasyNPC;
 import de.markusbordihn.easynpc.entity.easynpc.data.NavigationData;
 import java.util.EnumSet;
@@ -27,24 +30,24 @@ import net.minecraft.world.entity.LivingEntity;
 import net.minecraft.world.entity.PathfinderMob;
 import net.minecraft.world.entity.ai.goal.Goal;
 import net.minecraft.world.entity.ai.navigation.PathNavigation;
-import net.minecraft.world.level.LevelReader;
-import net.minecraft.world.level.block.LeavesBlock;
-import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.pathfinder.BlockPathTypes;
-import net.minecraft.world.level.pathfinder.WalkNodeEvaluator;
+import net.minecraft.world.level.pathfinder.Path;
+import net.minecraft.world.phys.Vec3;
 
 public class FollowLivingEntityGoal extends Goal {
 
-  private final PathfinderMob pathfinderMob;
-  private final LivingEntity livingEntity;
-  private final double speedModifier;
-  private final float stopDistance;
-  private final float startDistance;
-  private final boolean canFly;
-  private final PathNavigation pathNavigation;
-  private final LevelReader level;
+  private static final int MIN_RECALC_PATH_TICKS = 4;
+  private static final int MIN_RECALC_FAILED_PATH_TICKS = 10;
+  protected final PathfinderMob pathfinderMob;
+  protected LivingEntity livingEntity;
+  protected double speedModifier;
+  protected float stopDistance;
+  protected float startDistance;
+  protected final boolean canFly;
+  protected final PathNavigation pathNavigation;
   private float oldWaterCost;
   private int timeToRecalcPath;
+  private Vec3 lastTargetPosition;
 
   public FollowLivingEntityGoal(
       EasyNPC<?> easyNPC,
@@ -60,10 +63,18 @@ public class FollowLivingEntityGoal extends Goal {
     this.startDistance = startDistance;
     this.canFly = navigationData.canFly();
     this.pathNavigation = this.pathfinderMob.getNavigation();
-    this.level = easyNPC.getServerLevel();
     this.setFlags(EnumSet.of(Goal.Flag.MOVE, Goal.Flag.LOOK));
   }
 
+  public void updateObjective(
+      LivingEntity livingEntity, double speedModifier, float stopDistance, float startDistance) {
+    this.livingEntity = livingEntity;
+    this.speedModifier = speedModifier;
+    this.stopDistance = stopDistance;
+    this.startDistance = startDistance;
+    this.lastTargetPosition = null;
+  }
+
   @Override
   public boolean canUse() {
     return this.pathfinderMob != null
@@ -78,7 +89,7 @@ public class FollowLivingEntityGoal extends Goal {
 
   @Override
   public boolean canContinueToUse() {
-    if (this.pathNavigation.isDone()) {
+    if (this.isNavigationDone()) {
       return false;
     } else {
       return this.pathfinderMob.distanceToSqr(this.livingEntity)
@@ -89,12 +100,14 @@ public class FollowLivingEntityGoal extends Goal {
   @Override
   public void start() {
     this.timeToRecalcPath = 0;
+    this.lastTargetPosition = null;
     this.oldWaterCost = this.pathfinderMob.getPathfindingMalus(BlockPathTypes.WATER);
     this.pathfinderMob.setPathfindingMalus(BlockPathTypes.WATER, 0.0F);
   }
 
   @Override
   public void stop() {
+    AsyncPathManager.cancel(this.pathfinderMob);
     this.pathNavigation.stop();
     this.pathfinderMob.setPathfindingMalus(BlockPathTypes.WATER, this.oldWaterCost);
   }
@@ -104,69 +117,61 @@ public class FollowLivingEntityGoal extends Goal {
     this.pathfinderMob
         .getLookControl()
         .setLookAt(this.livingEntity, 10.0F, this.pathfinderMob.getMaxHeadXRot());
-    if (--this.timeToRecalcPath <= 0) {
-      this.timeToRecalcPath = this.adjustedTickDelay(10);
+    if (--this.timeToRecalcPath <= 0 && this.shouldRecalcPath()) {
+      boolean isNavigationDone = this.isNavigationDone();
+      this.timeToRecalcPath = this.adjustedTickDelay(MIN_RECALC_PATH_TICKS);
       if (!this.pathfinderMob.isLeashed() && !this.pathfinderMob.isPassenger()) {
         if (this.pathfinderMob.distanceToSqr(this.livingEntity) >= 144.0D) {
-          this.teleportToLivingEntity();
+          this.teleportTo(this.livingEntity);
+          this.lastTargetPosition = null;
         } else {
-          this.pathNavigation.moveTo(this.livingEntity, this.speedModifier);
+          boolean hasPath =
+              FollowPathManager.moveTo(this.pathfinderMob, this.livingEntity, this.speedModifier);
+          this.lastTargetPosition = this.livingEntity.position();
+
+          // Keep the slower interval for finished or failed paths, e.g. for unreachable targets.
+          if (isNavigationDone || !hasPath || !this.canReachTarget()) {
+            this.timeToRecalcPath = this.adjustedTickDelay(MIN_RECALC_FAILED_PATH_TICKS);
+          }
         }
       }
     }
   }
 
-  private void teleportToLivingEntity() {
-    BlockPos blockPos = this.livingEntity.blockPosition();
-
-    for (int i = 0; i < 10; ++i) {
-      int j = this.randomIntInclusive(-3, 3);
-      int k = this.randomIntInclusive(-1, 1);
-      int l = this.randomIntInclusive(-3, 3);
-      boolean flag =
-          this.maybeTeleportTo(blockPos.getX() + j, blockPos.getY() + k, blockPos.getZ() + l);
-      if (flag) {
-        return;
-      }
+  private boolean shouldRecalcPath() {
+    // Recalculate the path only if the target moved away from the last path target position.
+    return this.lastTargetPosition == null
+        || this.isNavigationDone()
+        || this.livingEntity.distanceToSqr(this.lastTargetPosition)
+            > FollowPathManager.REPATH_DISTANCE_SQR;
+  }
+
+  private boolean isNavigationDone() {
+    return this.pathNavigation.isDone() && !AsyncPathManager.hasPendingPath(this.pathfinderMob);
+  }
+
+  private boolean canReachTarget() {
+    if (AsyncPathManager.hasPendingPath(this.pathfinderMob)) {
+      return true;
     }
+    Path path = this.pathNavigation.getPath();
+    return path != null && path.canReach();
   }
 
-  private boolean maybeTeleportTo(int posX, int posY, int posZ) {
-    if (Math.abs(posX - this.livingEntity.getX()) < 2.0D
-        && Math.abs(posZ - this.livingEntity.getZ()) < 2.0D) {
-      return false;
-    } else if (!this.canTeleportTo(new BlockPos(posX, posY, posZ))) {
-      return false;
-    } else {
+  protected boolean teleportTo(LivingEntity targetLivingEntity) {
+    BlockPos blockPos =
+        TeleportPositionCache.findTeleportPosition(
+            this.pathfinderMob, targetLivingEntity, this.canFly);
+    if (blockPos != null) {
       this.pathfinderMob.moveTo(
-          posX + 0.5D,
-          posY,
-          posZ + 0.5D,
+          blockPos.getX() + 0.5D,
+          blockPos.getY(),
+          blockPos.getZ() + 0.5D,
           this.pathfinderMob.getYRot(),
           this.pathfinderMob.getXRot());
       this.pathNavigation.stop();
       return true;
     }
-  }
-
-  private boolean canTeleportTo(BlockPos blockPos) {
-    BlockPathTypes blockPathTypes =
-        WalkNodeEvaluator.getBlockPathTypeStatic(this.level, blockPos.mutable());
-    if (!this.canFly && blockPathTypes != BlockPathTypes.WALKABLE) {
-      return false;
-    } else {
-      BlockState blockState = this.level.getBlockState(blockPos.below());
-      if (!this.canFly && blockState.getBlock() instanceof LeavesBlock) {
-        return false;
-      } else {
-        BlockPos targetBlockPos = blockPos.subtract(this.pathfinderMob.blockPosition());
-        return this.level.noCollision(
-            this.pathfinderMob, this.pathfinderMob.getBoundingBox().move(targetBlockPos));
-      }
-    }
-  }
-
-  private int randomIntInclusive(int fromRange, int toRange) {
-    return this.pathfinderMob.getRandom().nextInt(toRange - fromRange + 1) + fromRange;
+    return false;
   }
 }
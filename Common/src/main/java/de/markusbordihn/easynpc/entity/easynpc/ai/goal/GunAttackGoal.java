@@ -30,8 +30,8 @@ import net.minecraft.world.entity.monster.RangedAttackMob;
 public class GunAttackGoal<T extends EasyNPC<?>> extends Goal {
   private final PathfinderMob pathfinderMob;
   private final RangedAttackMob rangedAttackMob;
-  private final double speedModifier;
-  private final float attackRadiusSqr;
+  private double speedModifier;
+  private float attackRadiusSqr;
   private int attackIntervalMin;
   private int attackTime = -1;
   private int seeTime;
@@ -48,6 +48,12 @@ public class GunAttackGoal<T extends EasyNPC<?>> extends Goal {
     this.setFlags(EnumSet.of(Flag.MOVE, Flag.LOOK));
   }
 
+  public void updateObjective(double speedModifier, int attackInterval, float attackRadius) {
+    this.speedModifier = speedModifier;
+    this.attackIntervalMin = attackInterval;
+    this.attackRadiusSqr = attackRadius * attackRadius;
+  }
+
   public boolean canUse() {
     return this.pathfinderMob.getTarget() != null
         && AttackHandler.isHoldingGunWeapon(this.pathfinderMob);
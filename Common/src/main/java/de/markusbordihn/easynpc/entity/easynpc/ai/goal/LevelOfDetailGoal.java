@@ -0,0 +1,126 @@
+/*
+ * Copyright 2024 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easynpc.entity.easynpc.ai.goal;
+
+import de.markusbordihn.easynpc.config.ObjectiveLevelOfDetailConfig;
+import de.markusbordihn.easynpc.data.objective.ObjectiveType;
+import de.markusbordihn.easynpc.entity.EasyNPCDormancyManager;
+import de.markusbordihn.easynpc.entity.easynpc.EasyNPC;
+import net.minecraft.world.entity.ai.goal.Goal;
+
+/**
+ * Wraps the goal of an objective and reduces how often it is evaluated, depending on the distance
+ * to the nearest player. Running goals are still ticked at full rate, except for look objectives.
+ */
+public class LevelOfDetailGoal<T extends EasyNPC<?>> extends Goal {
+
+  private static final int REDUCED_RATE = 4;
+
+  private final T easyNPC;
+  private final Goal goal;
+  private final double fullRateDistanceSqr;
+  private final double disableDistanceSqr;
+  private final boolean isLookObjective;
+  private int skippedEvaluations = 0;
+  private int skippedTicks = 0;
+
+  public LevelOfDetailGoal(T easyNPC, ObjectiveType objectiveType, Goal goal) {
+    super();
+    this.easyNPC = easyNPC;
+    this.goal = goal;
+    int fullRateDistance = ObjectiveLevelOfDetailConfig.getFullRateDistance(objectiveType);
+    int disableDistance = ObjectiveLevelOfDetailConfig.getDisableDistance(objectiveType);
+    this.fullRateDistanceSqr =
+        fullRateDistance > 0 ? (double) fullRateDistance * fullRateDistance : Double.MAX_VALUE;
+    this.disableDistanceSqr =
+        disableDistance > 0 ? (double) disableDistance * disableDistance : Double.MAX_VALUE;
+    this.isLookObjective = ObjectiveLevelOfDetailConfig.isLookObjective(objectiveType);
+    this.setFlags(goal.getFlags());
+  }
+
+  public static Goal wrap(EasyNPC<?> easyNPC, ObjectiveType objectiveType, Goal goal) {
+    if (goal == null || !ObjectiveLevelOfDetailConfig.hasLevelOfDetail(objectiveType)) {
+      return goal;
+    }
+    return new LevelOfDetailGoal<>(easyNPC, objectiveType, goal);
+  }
+
+  public Goal getGoal() {
+    return this.goal;
+  }
+
+  private double getNearestPlayerDistanceSqr() {
+    return EasyNPCDormancyManager.getNearestPlayerDistanceSqr(this.easyNPC);
+  }
+
+  @Override
+  public boolean canUse() {
+    double distanceSqr = getNearestPlayerDistanceSqr();
+    if (distanceSqr > this.disableDistanceSqr) {
+      return false;
+    }
+    if (distanceSqr > this.fullRateDistanceSqr && ++this.skippedEvaluations < REDUCED_RATE) {
+      return false;
+    }
+    this.skippedEvaluations = 0;
+    return this.goal.canUse();
+  }
+
+  @Override
+  public boolean canContinueToUse() {
+    return getNearestPlayerDistanceSqr() <= this.disableDistanceSqr && this.goal.canContinueToUse();
+  }
+
+  @Override
+  public boolean isInterruptable() {
+    return this.goal.isInterruptable();
+  }
+
+  @Override
+  public void start() {
+    this.goal.start();
+  }
+
+  @Override
+  public void stop() {
+    this.goal.stop();
+  }
+
+  @Override
+  public boolean requiresUpdateEveryTick() {
+    return this.goal.requiresUpdateEveryTick();
+  }
+
+  @Override
+  public void tick() {
+    // Update look objectives only at half rate, if no player is close.
+    if (this.isLookObjective
+        && getNearestPlayerDistanceSqr() > this.fullRateDistanceSqr
+        && (++this.skippedTicks & 1) == 0) {
+      return;
+    }
+    this.goal.tick();
+  }
+
+  @Override
+  public String toString() {
+    return "LevelOfDetailGoal[" + this.goal + "]";
+  }
+}
@@ -19,6 +19,7 @@
 
 package de.markusbordihn.easynpc.entity.easynpc.ai.goal;
 
+import de.markusbordihn.easynpc.entity.AsyncPathManager;
 import de.markusbordihn.easynpc.entity.easynpc.EasyNPC;
 import de.markusbordihn.easynpc.entity.easynpc.data.NavigationData;
 import net.minecraft.core.BlockPos;
@@ -31,10 +32,10 @@ import net.minecraft.world.phys.Vec3;
 
 public class MoveBackToHomeGoal<T extends EasyNPC<?>> extends Goal {
 
-  private final float stopDistance;
+  private float stopDistance;
   private final NavigationData<?> navigationData;
   private final PathfinderMob pathfinderMob;
-  private final double speedModifier;
+  private double speedModifier;
   private final int interval;
   protected double wantedX;
   protected double wantedY;
@@ -53,6 +54,11 @@ public class MoveBackToHomeGoal<T extends EasyNPC<?>> extends Goal {
     this.pathfinderMob = easyNPCEntity.getPathfinderMob();
   }
 
+  public void updateObjective(double speedModifier, float stopDistance) {
+    this.speedModifier = speedModifier;
+    this.stopDistance = stopDistance;
+  }
+
   @Override
   public boolean canUse() {
     if (this.pathfinderMob.isVehicle()
@@ -76,20 +82,25 @@ public class MoveBackToHomeGoal<T extends EasyNPC<?>> extends Goal {
 
   @Override
   public boolean canContinueToUse() {
-    return !this.pathfinderMob.getNavigation().isDone()
+    return (!this.pathfinderMob.getNavigation().isDone()
+            || AsyncPathManager.hasPendingPath(this.pathfinderMob))
         && !this.pathfinderMob.isVehicle()
         && this.pathfinderMob.getTarget() == null;
   }
 
   @Override
   public void start() {
-    this.pathfinderMob
-        .getNavigation()
-        .moveTo(this.wantedX, this.wantedY, this.wantedZ, this.speedModifier);
+    AsyncPathManager.moveTo(
+        this.pathfinderMob,
+        BlockPos.containing(this.wantedX, this.wantedY, this.wantedZ),
+        1,
+        this.speedModifier,
+        null);
   }
 
   @Override
   public void stop() {
+    AsyncPathManager.cancel(this.pathfinderMob);
     this.pathfinderMob.getNavigation().stop();
     super.stop();
   }
@@ -20,6 +20,8 @@
 package de.markusbordihn.easynpc.entity.easynpc.ai.goal;
 
 import de.markusbordihn.easynpc.Constants;
+import de.markusbordihn.easynpc.entity.AsyncPathManager;
+import de.markusbordihn.easynpc.entity.HomePositionCache;
 import de.markusbordihn.easynpc.entity.easynpc.EasyNPC;
 import de.markusbordihn.easynpc.entity.easynpc.data.NavigationData;
 import net.minecraft.core.BlockPos;
@@ -42,13 +44,41 @@ public class RandomStrollAroundHomeGoal<T extends EasyNPC<?>> extends RandomStro
 
   @Override
   public boolean canContinueToUse() {
-    return !this.mob.getNavigation().isDone()
+    return (!this.mob.getNavigation().isDone() || AsyncPathManager.hasPendingPath(this.mob))
         && !this.mob.isVehicle()
         && (!this.mob.isAggressive() || this.mob.getTarget() == null);
   }
 
+  @Override
+  public void start() {
+    AsyncPathManager.moveTo(
+        this.mob,
+        BlockPos.containing(this.wantedX, this.wantedY, this.wantedZ),
+        1,
+        this.speedModifier,
+        null);
+  }
+
+  @Override
+  public void stop() {
+    AsyncPathManager.cancel(this.mob);
+    super.stop();
+  }
+
   @Override
   protected Vec3 getPosition() {
+    // Use cached walkable positions, if the NPC is already around its home position.
+    if (this.navigationData.hasHomePosition() && !this.navigationData.isFlying()) {
+      BlockPos homeBlockPos = this.navigationData.getHomePosition();
+      int homeRange = HomePositionCache.HORIZONTAL_RANGE;
+      if (this.entity.blockPosition().closerThan(homeBlockPos, homeRange)) {
+        Vec3 cachedPosition = HomePositionCache.getRandomPosition(this.mob, homeBlockPos);
+        if (cachedPosition != null) {
+          return cachedPosition;
+        }
+      }
+    }
+
     if (this.mob.level().random.nextFloat() < 0.5F) {
       return this.getPositionTowardsAnywhere();
     } else {
@@ -24,11 +24,14 @@ import de.markusbordihn.easynpc.data.action.ActionDataSet;
 import de.markusbordihn.easynpc.data.action.ActionDataType;
 import de.markusbordihn.easynpc.data.action.ActionEventSet;
 import de.markusbordihn.easynpc.data.action.ActionEventType;
+import de.markusbordihn.easynpc.data.action.ActionGroupState;
+import de.markusbordihn.easynpc.data.action.ActionQueueManager;
+import de.markusbordihn.easynpc.data.action.ActionTimerState;
+import de.markusbordihn.easynpc.data.action.DistanceActionManager;
 import de.markusbordihn.easynpc.data.server.ServerDataAccessor;
 import de.markusbordihn.easynpc.data.server.ServerDataIndex;
 import de.markusbordihn.easynpc.data.server.ServerEntityData;
 import de.markusbordihn.easynpc.entity.easynpc.EasyNPC;
-import de.markusbordihn.easynpc.entity.easynpc.handlers.ActionHandler;
 import de.markusbordihn.easynpc.network.syncher.EntityDataSerializersManager;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.network.syncher.EntityDataSerializers;
@@ -46,18 +49,42 @@ public interface ActionEventData<E extends PathfinderMob> extends EasyNPC<E> {
   String DATA_ACTION_DATA_TAG = "ActionData";
   String DATA_ACTION_PERMISSION_LEVEL_TAG = "ActionPermissionLevel";
 
+  ActionGroupState getActionGroupState();
+
+  ActionTimerState getActionTimerState();
+
   default ActionEventSet getActionEventSet() {
     return getEasyNPCServerData().getServerEntityData(CUSTOM_DATA_ACTION_EVENT_SET);
   }
 
   default void setActionEventSet(ActionEventSet actions) {
     getEasyNPCServerData().setServerEntityData(CUSTOM_DATA_ACTION_EVENT_SET, actions);
+    this.updateActionEventTypes();
+  }
+
+  default void setActionEvent(ActionEventType actionEventType, ActionDataSet actionDataSet) {
+    ActionEventSet actionEventSet = getActionEventSet();
+    if (actionEventSet != null) {
+      actionEventSet.setActionEvent(actionEventType, actionDataSet);
+      this.updateActionEventTypes();
+    }
   }
 
   default boolean hasActionEvent(ActionEventType actionEventType) {
-    return actionEventType != null
-        && getActionEventSet() != null
-        && getActionEventSet().hasActionEvent(actionEventType);
+    ActionEventSet actionEventSet = getActionEventSet();
+    return actionEventSet != null && actionEventSet.hasActionEvent(actionEventType);
+  }
+
+  default boolean hasDistanceActionEvent() {
+    ActionEventSet actionEventSet = getActionEventSet();
+    return actionEventSet != null && actionEventSet.hasDistanceActionEvent();
+  }
+
+  default void updateActionEventTypes() {
+    // Register or unregister the easy NPC from the proximity pass of the distance actions.
+    if (this.isServerSide()) {
+      DistanceActionManager.updateEasyNPC(this);
+    }
   }
 
   default ActionDataEntry getActionEvent(ActionEventType actionEventType) {
@@ -78,6 +105,7 @@ public interface ActionEventData<E extends PathfinderMob> extends EasyNPC<E> {
 
   default void clearActionEventSet() {
     getEasyNPCServerData().setServerEntityData(CUSTOM_DATA_ACTION_EVENT_SET, new ActionEventSet());
+    this.updateActionEventTypes();
   }
 
   default int getActionPermissionLevel() {
@@ -106,6 +134,7 @@ public interface ActionEventData<E extends PathfinderMob> extends EasyNPC<E> {
         actionEventSet.save(actionDataTag);
       }
       actionDataTag.putInt(DATA_ACTION_PERMISSION_LEVEL_TAG, this.getActionPermissionLevel());
+      this.getActionTimerState().save(actionDataTag, this.getServerLevel());
     }
 
     compoundTag.put(DATA_ACTION_DATA_TAG, actionDataTag);
@@ -132,6 +161,9 @@ public interface ActionEventData<E extends PathfinderMob> extends EasyNPC<E> {
       this.setActionPermissionLevel(actionDataTag.getInt(DATA_ACTION_PERMISSION_LEVEL_TAG));
     }
 
+    // Read pending action timers, which are scheduled once the entity is added to the level.
+    this.getActionTimerState().load(actionDataTag);
+
     // Check for latency action event data from 4.x and force adding default action events.
     if (getNPCDataVersion() < 3) {
       this.registerDefaultActionInteractionEvents();
@@ -168,9 +200,6 @@ public interface ActionEventData<E extends PathfinderMob> extends EasyNPC<E> {
     if (!this.hasActionEvent(actionEventType)) {
       return;
     }
-    ActionHandler<E> actionHandler = this.getEasyNPCActionHandler();
-    if (actionHandler != null) {
-      actionHandler.executeActions(this.getActionDataSet(actionEventType), serverPlayer);
-    }
+    ActionQueueManager.queueActionEvent(this, actionEventType, serverPlayer);
   }
 }
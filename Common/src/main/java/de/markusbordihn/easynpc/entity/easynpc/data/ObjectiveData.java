@@ -22,11 +22,13 @@ package de.markusbordihn.easynpc.entity.easynpc.data;
 import de.markusbordihn.easynpc.data.attribute.EntityAttributes;
 import de.markusbordihn.easynpc.data.objective.ObjectiveDataEntry;
 import de.markusbordihn.easynpc.data.objective.ObjectiveDataSet;
+import de.markusbordihn.easynpc.data.objective.ObjectiveTargetManager;
 import de.markusbordihn.easynpc.data.objective.ObjectiveType;
+import de.markusbordihn.easynpc.data.objective.ObjectiveUtils;
 import de.markusbordihn.easynpc.data.server.ServerDataAccessor;
 import de.markusbordihn.easynpc.data.server.ServerDataIndex;
 import de.markusbordihn.easynpc.data.server.ServerEntityData;
-import de.markusbordihn.easynpc.data.ticker.TickerType;
+import de.markusbordihn.easynpc.entity.EasyNPCDormancyManager;
 import de.markusbordihn.easynpc.entity.easynpc.EasyNPC;
 import de.markusbordihn.easynpc.entity.easynpc.ai.goal.ResetUniversalAngerTargetGoal;
 import de.markusbordihn.easynpc.network.syncher.EntityDataSerializersManager;
@@ -135,8 +137,7 @@ public interface ObjectiveData<T extends PathfinderMob> extends EasyNPC<T> {
   default void onEasyNPCJoinUpdateObjective(EasyNPC<?> easyNPC) {
     // Check if we need to re-register NPC based objectives.
     if (this.hasEntityTargetObjectives()
-        && !this.getObjectiveDataSet().hasValidTarget(this)
-        && getObjectiveDataSet().isTargetedEntity(easyNPC.getUUID())) {
+        && this.getObjectiveDataSet().invalidateTargetState(easyNPC.getUUID())) {
       this.refreshCustomObjectives();
     }
   }
@@ -144,34 +145,32 @@ public interface ObjectiveData<T extends PathfinderMob> extends EasyNPC<T> {
   default void onEasyNPCLeaveUpdateObjective(EasyNPC<?> easyNPC) {
     // Check if we need to re-register NPC based objectives.
     if (this.hasEntityTargetObjectives()
-        && this.getObjectiveDataSet().hasValidTarget(this)
-        && getObjectiveDataSet().isTargetedEntity(this.getUUID())) {
+        && this.getObjectiveDataSet().invalidateTargetState(easyNPC.getUUID())) {
       this.refreshCustomObjectives();
     }
   }
 
   default void onPlayerJoinUpdateObjective(ServerPlayer serverPlayer) {
     // Check if we need to re-register owner and player based objectives.
-    if (this.hasOwnerTargetObjectives()
-        && !this.getObjectiveDataSet().hasValidTarget(this)
-        && (isObjectiveOwner(serverPlayer) || isObjectiveTargetedPlayer(serverPlayer))) {
+    if ((this.hasOwnerTargetObjectives() || this.hasPlayerTargetObjectives())
+        && invalidateObjectiveTargetState(serverPlayer)) {
       this.refreshCustomObjectives();
     }
   }
 
-  private boolean isObjectiveOwner(ServerPlayer serverPlayer) {
-    return this.getEasyNPCOwnerData() != null && this.getEasyNPCOwnerData().isOwner(serverPlayer);
-  }
-
-  private boolean isObjectiveTargetedPlayer(ServerPlayer serverPlayer) {
-    return this.getObjectiveDataSet().isTargetedPlayer(serverPlayer.getName().getString());
+  private boolean invalidateObjectiveTargetState(ServerPlayer serverPlayer) {
+    ObjectiveDataSet objectiveDataSet = this.getObjectiveDataSet();
+    boolean invalidatedOwner = objectiveDataSet.invalidateTargetState(serverPlayer.getUUID());
+    boolean invalidatedPlayer =
+        objectiveDataSet.isTargetedPlayer(serverPlayer.getName().getString())
+            && objectiveDataSet.invalidateTargetState(serverPlayer.getName().getString());
+    return invalidatedOwner || invalidatedPlayer;
   }
 
   default void onPlayerLeaveUpdateObjective(ServerPlayer serverPlayer) {
     // Check if we need to re-register owner and player based objectives.
-    if (this.hasOwnerTargetObjectives()
-        && this.getObjectiveDataSet().hasValidTarget(this)
-        && (isObjectiveOwner(serverPlayer) || isObjectiveTargetedPlayer(serverPlayer))) {
+    if ((this.hasOwnerTargetObjectives() || this.hasPlayerTargetObjectives())
+        && invalidateObjectiveTargetState(serverPlayer)) {
       this.refreshCustomObjectives();
     }
   }
@@ -179,17 +178,15 @@ public interface ObjectiveData<T extends PathfinderMob> extends EasyNPC<T> {
   default void onLivingEntityJoinUpdateObjective(LivingEntity livingEntity) {
     // Check if we need to re-register living entity based objectives.
     if (this.hasEntityTargetObjectives()
-        && !this.getObjectiveDataSet().hasValidTarget(this)
-        && this.getObjectiveDataSet().isTargetedEntity(livingEntity.getUUID())) {
+        && this.getObjectiveDataSet().invalidateTargetState(livingEntity.getUUID())) {
       this.refreshCustomObjectives();
     }
   }
 
   default void onLivingEntityLeaveUpdateObjective(LivingEntity livingEntity) {
     // Check if we need to re-register living entity based objectives.
-    if (this.hasObjectives()
-        && this.getObjectiveDataSet().hasValidTarget(this)
-        && this.getObjectiveDataSet().isTargetedEntity(livingEntity.getUUID())) {
+    if (this.hasEntityTargetObjectives()
+        && this.getObjectiveDataSet().invalidateTargetState(livingEntity.getUUID())) {
       this.refreshCustomObjectives();
     }
   }
@@ -198,11 +195,17 @@ public interface ObjectiveData<T extends PathfinderMob> extends EasyNPC<T> {
     if (this.isClientSide()) {
       return;
     }
-    for (ObjectiveDataEntry objectiveDataEntry : getObjectiveDataSet().getObjectives()) {
+
+    // Only refresh objectives with a changed target state or a missing registration.
+    ObjectiveDataSet objectiveDataSet = getObjectiveDataSet();
+    for (ObjectiveDataEntry objectiveDataEntry : objectiveDataSet.getObjectives()) {
       if (objectiveDataEntry != null
           && objectiveDataEntry.getType() != ObjectiveType.NONE
-          && (!objectiveDataEntry.hasValidTarget(this) || !objectiveDataEntry.isRegistered())) {
+          && (objectiveDataEntry.updateTargetState(this)
+              || (objectiveDataEntry.hasResolvedTarget(this)
+                  && !objectiveDataEntry.isRegistered()))) {
         log.debug("Refresh Objective {} for {}", objectiveDataEntry, this);
+        objectiveDataSet.increaseNumberOfRefreshedObjectives();
         addOrUpdateCustomObjective(objectiveDataEntry);
       }
     }
@@ -275,11 +278,30 @@ public interface ObjectiveData<T extends PathfinderMob> extends EasyNPC<T> {
 
     boolean addedCustomObjective = false;
 
+    // Reuse the goals of an existing objective with the same id, otherwise remove them.
+    ObjectiveDataEntry existingObjectiveDataEntry =
+        this.getObjectiveDataSet().getObjective(objectiveDataEntry.getId());
+    if (existingObjectiveDataEntry != null
+        && existingObjectiveDataEntry != objectiveDataEntry
+        && !objectiveDataEntry.reuseGoals(this, existingObjectiveDataEntry)) {
+      log.debug(
+          "- Replacing goals of existing objective {} for {}", existingObjectiveDataEntry, this);
+      Goal existingGoal = existingObjectiveDataEntry.getCreatedGoal();
+      if (existingGoal != null) {
+        this.getEntityGoalSelector().removeGoal(existingGoal);
+        ObjectiveUtils.releaseObjectiveGoal(existingGoal);
+      }
+      Goal existingTarget = existingObjectiveDataEntry.getCreatedTarget();
+      if (existingTarget != null) {
+        this.getEntityTargetSelector().removeGoal(existingTarget);
+      }
+    }
+
     // Handle goal specific objectives.
     Goal goal = objectiveDataEntry.getGoal(this);
     if (goal != null) {
       GoalSelector goalSelector = this.getEntityGoalSelector();
-      if (!objectiveDataEntry.hasValidTarget(this)) {
+      if (!objectiveDataEntry.hasResolvedTarget(this)) {
         if (this.hasObjective(objectiveDataEntry.getId()) && objectiveDataEntry.isRegistered()) {
           log.warn(
               "- Removing existing goal {} for {} because target was not found! Will try later again.",
@@ -288,9 +310,13 @@ public interface ObjectiveData<T extends PathfinderMob> extends EasyNPC<T> {
         }
         goalSelector.removeGoal(goal);
       } else {
-        log.debug("- Adding goal {} for {}", goal, this);
-        goalSelector.removeGoal(goal);
-        goalSelector.addGoal(objectiveDataEntry.getPriority(), goal);
+        // Update follow targets in place, e.g. after the target has rejoined.
+        ObjectiveUtils.updateObjectiveGoal(goal, objectiveDataEntry, this);
+        if (!ObjectiveUtils.hasGoal(goalSelector, goal, objectiveDataEntry.getPriority())) {
+          log.debug("- Adding goal {} for {}", goal, this);
+          goalSelector.removeGoal(goal);
+          goalSelector.addGoal(objectiveDataEntry.getPriority(), goal);
+        }
         addedCustomObjective = true;
       }
     }
@@ -298,10 +324,12 @@ public interface ObjectiveData<T extends PathfinderMob> extends EasyNPC<T> {
     // Handle target specific objectives.
     Goal target = objectiveDataEntry.getTarget(this);
     if (target != null) {
-      log.debug("- Adding target goal {} for {}", target, this);
       GoalSelector targetSelector = this.getEntityTargetSelector();
-      targetSelector.removeGoal(target);
-      targetSelector.addGoal(objectiveDataEntry.getPriority(), target);
+      if (!ObjectiveUtils.hasGoal(targetSelector, target, objectiveDataEntry.getPriority())) {
+        log.debug("- Adding target goal {} for {}", target, this);
+        targetSelector.removeGoal(target);
+        targetSelector.addGoal(objectiveDataEntry.getPriority(), target);
+      }
       addedCustomObjective = true;
     }
 
@@ -310,18 +338,18 @@ public interface ObjectiveData<T extends PathfinderMob> extends EasyNPC<T> {
 
     // Add objective data to set, regardless if goal or target was added.
     getObjectiveDataSet().addObjective(objectiveDataEntry);
+
+    // Update target subscriptions for join and leave events.
+    ObjectiveTargetManager.updateSubscriptions(this);
     return objectiveDataEntry.isRegistered();
   }
 
   default void handleCustomObjectiveBaseTick() {
-    TickerData<?> tickerData = this.getEasyNPCTickerData();
-    if (tickerData.checkAndIncreaseTicker(
-        TickerType.CUSTOM_OBJECTIVE_DELAYED_REGISTRATION,
-        CUSTOM_OBJECTIVE_DELAYED_REGISTRATION_TICK)) {
-      if (this.hasObjectives()) {
-        this.refreshCustomObjectives();
-      }
-      tickerData.resetTicker(TickerType.CUSTOM_OBJECTIVE_DELAYED_REGISTRATION);
+    if (this.hasObjectives() && !EasyNPCDormancyManager.isDormant(this)) {
+      // Resolved targets are kept up to date by join and leave events, so only unresolved targets
+      // are checked again, e.g. for players which are changing the dimension.
+      this.getObjectiveDataSet().invalidateUnresolvedTargetStates(this);
+      this.refreshCustomObjectives();
     }
   }
 
@@ -358,6 +386,7 @@ public interface ObjectiveData<T extends PathfinderMob> extends EasyNPC<T> {
     if (goal != null) {
       log.debug("- Removing goal {} for {}", goal, this);
       this.getEntityGoalSelector().removeGoal(goal);
+      ObjectiveUtils.releaseObjectiveGoal(goal);
     }
 
     if (target != null) {
@@ -365,7 +394,13 @@ public interface ObjectiveData<T extends PathfinderMob> extends EasyNPC<T> {
       this.getEntityTargetSelector().removeGoal(target);
     }
 
-    return this.getObjectiveDataSet().removeObjective(objectiveDataEntry);
+    boolean removed = this.getObjectiveDataSet().removeObjective(objectiveDataEntry);
+
+    // Update target subscriptions for join and leave events.
+    if (removed) {
+      ObjectiveTargetManager.updateSubscriptions(this);
+    }
+    return removed;
   }
 
   default void registerStandardObjectives() {
@@ -30,11 +30,12 @@ public interface TickerData<T extends PathfinderMob> extends EasyNPC<T> {
   void setTicker(TickerType tickerType, int value);
 
   default boolean checkAndIncreaseTicker(TickerType tickerType, int value) {
-    int tickerValue = getTicker(tickerType);
+    // Returns true on every value-th call, until the ticker is reset.
+    int tickerValue = getTicker(tickerType) + 1;
     if (tickerValue >= value) {
       return true;
     }
-    increaseTicker(tickerType, tickerValue + 1);
+    setTicker(tickerType, tickerValue);
     return false;
   }
 
@@ -19,14 +19,12 @@
 
 package de.markusbordihn.easynpc.entity.easynpc.handlers;
 
-import com.mojang.brigadier.CommandDispatcher;
-import com.mojang.brigadier.ParseResults;
+import de.markusbordihn.easynpc.data.action.ActionCommandCache;
 import de.markusbordihn.easynpc.data.action.ActionDataEntry;
 import de.markusbordihn.easynpc.data.action.ActionDataSet;
 import de.markusbordihn.easynpc.data.action.ActionDataType;
-import de.markusbordihn.easynpc.data.action.ActionEventType;
-import de.markusbordihn.easynpc.data.action.ActionGroup;
-import de.markusbordihn.easynpc.data.action.ActionManager;
+import de.markusbordihn.easynpc.data.action.ActionTimerManager;
+import de.markusbordihn.easynpc.entity.EasyNPCDormancyManager;
 import de.markusbordihn.easynpc.entity.easynpc.EasyNPC;
 import de.markusbordihn.easynpc.entity.easynpc.data.ActionEventData;
 import de.markusbordihn.easynpc.entity.easynpc.data.DialogData;
@@ -35,7 +33,6 @@ import de.markusbordihn.easynpc.entity.easynpc.data.TradingData;
 import java.util.List;
 import java.util.UUID;
 import net.minecraft.commands.CommandSourceStack;
-import net.minecraft.commands.Commands;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.server.MinecraftServer;
@@ -45,7 +42,6 @@ import net.minecraft.world.InteractionHand;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.EntitySelector;
 import net.minecraft.world.entity.LivingEntity;
-import net.minecraft.world.entity.Mob;
 import net.minecraft.world.entity.PathfinderMob;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.phys.BlockHitResult;
@@ -62,21 +58,20 @@ public interface ActionHandler<E extends PathfinderMob> extends EasyNPC<E> {
   }
 
   static void executeEntityCommand(
-      String command, Entity entity, int permissionLevel, boolean debug) {
+      ActionDataEntry actionDataEntry,
+      Entity entity,
+      ServerPlayer serverPlayer,
+      int permissionLevel) {
     MinecraftServer minecraftServer = entity.getServer();
     if (minecraftServer == null) {
       log.error("No Minecraft server found for entity {}", entity);
       return;
     }
-    if (command.startsWith("/")) {
-      command = command.substring(1);
-    }
     log.debug(
         "Execute Entity {} Command: \"{}\" with permission level {}",
         entity,
-        command,
+        actionDataEntry.command(),
         permissionLevel);
-    Commands commands = minecraftServer.getCommands();
     CommandSourceStack commandSourceStack =
         minecraftServer
             .createCommandSourceStack()
@@ -84,29 +79,32 @@ public interface ActionHandler<E extends PathfinderMob> extends EasyNPC<E> {
             .withPosition(entity.position())
             .withRotation(entity.getRotationVector())
             .withPermission(permissionLevel);
-    CommandDispatcher<CommandSourceStack> commandDispatcher = commands.getDispatcher();
-    ParseResults<CommandSourceStack> parseResults =
-        commandDispatcher.parse(
-            command, debug ? commandSourceStack : commandSourceStack.withSuppressedOutput());
-    commands.performCommand(parseResults, command);
+    ActionCommandCache.performCommand(
+        minecraftServer.getCommands(),
+        actionDataEntry,
+        entity,
+        serverPlayer,
+        actionDataEntry.enableDebug()
+            ? commandSourceStack
+            : commandSourceStack.withSuppressedOutput(),
+        permissionLevel);
   }
 
   static void executePlayerCommand(
-      String command, ServerPlayer serverPlayer, int permissionLevel, boolean debug) {
+      ActionDataEntry actionDataEntry,
+      Entity entity,
+      ServerPlayer serverPlayer,
+      int permissionLevel) {
     MinecraftServer minecraftServer = serverPlayer.getServer();
     if (minecraftServer == null) {
       log.error("No Minecraft server found for player {}", serverPlayer);
       return;
     }
-    if (command.startsWith("/")) {
-      command = command.substring(1);
-    }
     log.debug(
         "Execute Player {} Command: \"{}\" with permission level {}",
         serverPlayer,
-        command,
+        actionDataEntry.command(),
         permissionLevel);
-    Commands commands = minecraftServer.getCommands();
     CommandSourceStack commandSourceStack =
         minecraftServer
             .createCommandSourceStack()
@@ -115,11 +113,15 @@ public interface ActionHandler<E extends PathfinderMob> extends EasyNPC<E> {
             .withRotation(serverPlayer.getRotationVector())
             .withPermission(permissionLevel)
             .withLevel(serverPlayer.serverLevel());
-    CommandDispatcher<CommandSourceStack> commandDispatcher = commands.getDispatcher();
-    ParseResults<CommandSourceStack> parseResults =
-        commandDispatcher.parse(
-            command, debug ? commandSourceStack : commandSourceStack.withSuppressedOutput());
-    commands.performCommand(parseResults, command);
+    ActionCommandCache.performCommand(
+        minecraftServer.getCommands(),
+        actionDataEntry,
+        entity,
+        serverPlayer,
+        actionDataEntry.enableDebug()
+            ? commandSourceStack
+            : commandSourceStack.withSuppressedOutput(),
+        permissionLevel);
   }
 
   default List<? extends Player> getPlayersInRange(Double range) {
@@ -142,101 +144,6 @@ public interface ActionHandler<E extends PathfinderMob> extends EasyNPC<E> {
     this.getProfiler().pop();
   }
 
-  default void checkDistanceActions() {
-    this.getProfiler().push("npcCheckDistanceActions");
-
-    // Validate action data and mob entity.
-    Mob mob = this.getMob();
-    ActionEventData<E> actionEventData = this.getEasyNPCActionEventData();
-    if (actionEventData == null || mob == null || mob.isDeadOrDying()) {
-      return;
-    }
-
-    // Check to avoid additional checks, when no player is in range.
-    boolean skipPlayerDistanceCheck = false;
-
-    // Near distance action, if set.
-    if (actionEventData.hasActionEvent(ActionEventType.ON_DISTANCE_NEAR)) {
-      List<? extends Player> listOfPlayers = this.getPlayersInRange(16.0D);
-      if (listOfPlayers == null || listOfPlayers.isEmpty()) {
-        ActionManager.removeActionGroup(mob, ActionGroup.DISTANCE_NEAR);
-        skipPlayerDistanceCheck = true;
-      } else {
-        ActionDataEntry actionDataEntry =
-            actionEventData.getActionEvent(ActionEventType.ON_DISTANCE_NEAR);
-        for (Player player : listOfPlayers) {
-          if (player instanceof ServerPlayer serverPlayer
-              && !ActionManager.containsPlayer(mob, ActionGroup.DISTANCE_NEAR, serverPlayer)) {
-            this.executeAction(actionDataEntry, serverPlayer);
-            ActionManager.addPlayer(mob, ActionGroup.DISTANCE_NEAR, serverPlayer);
-          }
-        }
-      }
-    }
-
-    // Close distance action, if set.
-    if (actionEventData.hasActionEvent(ActionEventType.ON_DISTANCE_CLOSE)) {
-      List<? extends Player> listOfPlayers =
-          skipPlayerDistanceCheck ? null : this.getPlayersInRange(8.0D);
-      if (listOfPlayers == null || listOfPlayers.isEmpty()) {
-        ActionManager.removeActionGroup(mob, ActionGroup.DISTANCE_CLOSE);
-        skipPlayerDistanceCheck = true;
-      } else {
-        ActionDataEntry actionDataEntry =
-            actionEventData.getActionEvent(ActionEventType.ON_DISTANCE_CLOSE);
-        for (Player player : listOfPlayers) {
-          if (player instanceof ServerPlayer serverPlayer
-              && !ActionManager.containsPlayer(mob, ActionGroup.DISTANCE_CLOSE, serverPlayer)) {
-            this.executeAction(actionDataEntry, serverPlayer);
-            ActionManager.addPlayer(mob, ActionGroup.DISTANCE_CLOSE, serverPlayer);
-          }
-        }
-      }
-    }
-
-    // Very close distance action, if set.
-    if (actionEventData.hasActionEvent(ActionEventType.ON_DISTANCE_VERY_CLOSE)) {
-      List<? extends Player> listOfPlayers =
-          skipPlayerDistanceCheck ? null : this.getPlayersInRange(4.0D);
-      if (listOfPlayers == null || listOfPlayers.isEmpty()) {
-        ActionManager.removeActionGroup(mob, ActionGroup.DISTANCE_VERY_CLOSE);
-        skipPlayerDistanceCheck = true;
-      } else {
-        ActionDataEntry actionDataEntry =
-            actionEventData.getActionEvent(ActionEventType.ON_DISTANCE_VERY_CLOSE);
-        for (Player player : listOfPlayers) {
-          if (player instanceof ServerPlayer serverPlayer
-              && !ActionManager.containsPlayer(
-                  mob, ActionGroup.DISTANCE_VERY_CLOSE, serverPlayer)) {
-            this.executeAction(actionDataEntry, serverPlayer);
-            ActionManager.addPlayer(mob, ActionGroup.DISTANCE_VERY_CLOSE, serverPlayer);
-          }
-        }
-      }
-    }
-
-    // Touch distance action, if set.
-    if (actionEventData.hasActionEvent(ActionEventType.ON_DISTANCE_TOUCH)) {
-      List<? extends Player> listOfPlayers =
-          skipPlayerDistanceCheck ? null : this.getPlayersInRange(1.25D);
-      if (listOfPlayers == null || listOfPlayers.isEmpty()) {
-        ActionManager.removeActionGroup(mob, ActionGroup.DISTANCE_TOUCH);
-      } else {
-        ActionDataEntry actionDataEntry =
-            actionEventData.getActionEvent(ActionEventType.ON_DISTANCE_TOUCH);
-        for (Player player : listOfPlayers) {
-          if (player instanceof ServerPlayer serverPlayer
-              && !ActionManager.containsPlayer(mob, ActionGroup.DISTANCE_TOUCH, serverPlayer)) {
-            this.executeAction(actionDataEntry, serverPlayer);
-            ActionManager.addPlayer(mob, ActionGroup.DISTANCE_TOUCH, serverPlayer);
-          }
-        }
-      }
-    }
-
-    this.getProfiler().pop();
-  }
-
   default void interactWithBlock(BlockPos blockPos) {
     LivingEntity livingEntity = this.getLivingEntity();
     if (livingEntity != null && !this.isClientSide()) {
@@ -331,6 +238,27 @@ public interface ActionHandler<E extends PathfinderMob> extends EasyNPC<E> {
     if (!validateActionData(actionDataEntry, serverPlayer)) {
       return;
     }
+
+    // Delayed and repeating actions are performed by the action timers.
+    if (actionDataEntry.isScheduled()) {
+      ActionTimerManager.scheduleAction(this, actionDataEntry, serverPlayer);
+      return;
+    }
+    this.performAction(actionDataEntry, serverPlayer);
+  }
+
+  default boolean performAction(ActionDataEntry actionDataEntry, ServerPlayer serverPlayer) {
+    if (!validateActionData(actionDataEntry, serverPlayer)) {
+      return false;
+    }
+    if (!actionDataEntry.conditionDataSet().test(this.getLivingEntity(), serverPlayer)) {
+      log.debug(
+          "Conditions {} not met for action {}",
+          actionDataEntry.conditionDataSet(),
+          actionDataEntry);
+      return false;
+    }
+    EasyNPCDormancyManager.wakeUp(this);
     switch (actionDataEntry.actionDataType()) {
       case NONE:
         break;
@@ -373,6 +301,7 @@ public interface ActionHandler<E extends PathfinderMob> extends EasyNPC<E> {
             actionDataEntry);
         break;
     }
+    return true;
   }
 
   default void openDefaultDialog(ActionDataEntry actionDataEntry, ServerPlayer serverPlayer) {
@@ -433,10 +362,7 @@ public interface ActionHandler<E extends PathfinderMob> extends EasyNPC<E> {
         userPermissionLevel,
         actionDataEntry.permissionLevel());
     executePlayerCommand(
-        actionDataEntry.getAction(this.getLivingEntity(), serverPlayer),
-        serverPlayer,
-        userPermissionLevel,
-        actionDataEntry.enableDebug());
+        actionDataEntry, this.getLivingEntity(), serverPlayer, userPermissionLevel);
   }
 
   default void executeEntityCommand(ActionDataEntry actionDataEntry, ServerPlayer serverPlayer) {
@@ -462,10 +388,6 @@ public interface ActionHandler<E extends PathfinderMob> extends EasyNPC<E> {
         this.getEntity(),
         ownerPermissionLevel,
         actionEventData.getActionPermissionLevel());
-    executeEntityCommand(
-        actionDataEntry.getAction(this.getLivingEntity(), serverPlayer),
-        this.getEntity(),
-        ownerPermissionLevel,
-        actionDataEntry.enableDebug());
+    executeEntityCommand(actionDataEntry, this.getEntity(), serverPlayer, ownerPermissionLevel);
   }
 }
@@ -1,10 +1,14 @@
 package de.markusbordihn.easynpc.entity.easynpc.handlers;
 
+import de.markusbordihn.easynpc.data.ticker.TickerScheduler;
 import de.markusbordihn.easynpc.data.ticker.TickerType;
+import de.markusbordihn.easynpc.entity.EasyNPCDormancyManager;
 import de.markusbordihn.easynpc.entity.easynpc.EasyNPC;
-import de.markusbordihn.easynpc.entity.easynpc.data.TickerData;
+import de.markusbordihn.easynpc.entity.easynpc.data.ObjectiveData;
 import de.markusbordihn.easynpc.entity.easynpc.data.TradingData;
 import net.minecraft.world.entity.PathfinderMob;
+import net.minecraft.world.entity.ai.goal.Goal;
+import net.minecraft.world.entity.ai.goal.GoalSelector;
 
 public interface BaseTickHandler<E extends PathfinderMob> extends EasyNPC<E> {
 
@@ -12,34 +16,64 @@ public interface BaseTickHandler<E extends PathfinderMob> extends EasyNPC<E> {
   int TRADING_BASE_TICK = Math.round((20f / BASE_TICK) * 60) - 10;
   int ATTRIBUTE_BASE_TICK = Math.round((20f / BASE_TICK) * 20);
 
-  default void handleBaseTick() {
+  default void registerBaseTickTasks() {
+    TickerScheduler.scheduleTask(
+        this,
+        TickerType.ATTRIBUTE_BASE_TICK,
+        ATTRIBUTE_BASE_TICK * BASE_TICK,
+        this::handleAttributeBaseTick);
+    TickerScheduler.scheduleTask(
+        this,
+        TickerType.TRADING_BASE_TICK,
+        TRADING_BASE_TICK * BASE_TICK,
+        this::handleTradingBaseTick);
+    ObjectiveData<E> objectiveData = this.getEasyNPCObjectiveData();
+    if (objectiveData != null) {
+      TickerScheduler.scheduleTask(
+          this,
+          TickerType.CUSTOM_OBJECTIVE_DELAYED_REGISTRATION,
+          ObjectiveData.CUSTOM_OBJECTIVE_DELAYED_REGISTRATION_TICK,
+          objectiveData::handleCustomObjectiveBaseTick);
+    }
+  }
+
+  default void handleAttributeBaseTick() {
+    this.getProfiler().push("npcBaseTick");
+
+    // Check for attribute relevant actions.
+    AttributeHandler<E> attributeHandler = this.getEasyNPCAttributeHandler();
+    if (attributeHandler != null) {
+      attributeHandler.checkAttributeActions();
+    }
+
+    this.getProfiler().pop();
+  }
+
+  default void handleTradingBaseTick() {
     this.getProfiler().push("npcBaseTick");
 
-    TickerData<E> tickerData = this.getEasyNPCTickerData();
-    if (tickerData.checkAndIncreaseTicker(TickerType.BASE_TICK, BASE_TICK)) {
-      // Check for attribute relevant actions.
-      if (tickerData.checkAndIncreaseTicker(TickerType.ATTRIBUTE_BASE_TICK, ATTRIBUTE_BASE_TICK)) {
-        AttributeHandler<E> attributeHandler = this.getEasyNPCAttributeHandler();
-        attributeHandler.checkAttributeActions();
-        tickerData.resetTicker(TickerType.ATTRIBUTE_BASE_TICK);
-      }
-
-      // Check distance for additional actions.
-      ActionHandler<E> actionHandler = this.getEasyNPCActionHandler();
-      actionHandler.checkDistanceActions();
-
-      // Check if we have a trading inventory and update it.
-      if (tickerData.checkAndIncreaseTicker(TickerType.TRADING_BASE_TICK, TRADING_BASE_TICK)) {
-        TradingData<E> tradingData = this.getEasyNPCTradingData();
-        if (tradingData.hasTradingData()) {
-          actionHandler.checkTradingActions();
-        }
-        tickerData.resetTicker(TickerType.TRADING_BASE_TICK);
-      }
-
-      tickerData.resetTicker(TickerType.BASE_TICK);
+    // Check if we have a trading inventory and update it.
+    TradingData<E> tradingData = this.getEasyNPCTradingData();
+    ActionHandler<E> actionHandler = this.getEasyNPCActionHandler();
+    if (tradingData != null && actionHandler != null && tradingData.hasTradingData()) {
+      actionHandler.checkTradingActions();
     }
 
     this.getProfiler().pop();
   }
+
+  default void updateDormantControlFlags() {
+    // Suspend goal selection for dormant NPCs and resume it, once they are woken up.
+    boolean isAwake = !EasyNPCDormancyManager.isDormant(this);
+    GoalSelector goalSelector = this.getEntityGoalSelector();
+    if (goalSelector != null && !isAwake) {
+      goalSelector.setControlFlag(Goal.Flag.MOVE, false);
+      goalSelector.setControlFlag(Goal.Flag.JUMP, false);
+      goalSelector.setControlFlag(Goal.Flag.LOOK, false);
+    }
+    GoalSelector targetSelector = this.getEntityTargetSelector();
+    if (targetSelector != null) {
+      targetSelector.setControlFlag(Goal.Flag.TARGET, isAwake);
+    }
+  }
 }
@@ -21,11 +21,15 @@ package de.markusbordihn.easynpc.entity.easynpc.raw;
 
 import static java.util.Objects.hash;
 
+import de.markusbordihn.easynpc.data.action.ActionGroupState;
+import de.markusbordihn.easynpc.data.action.ActionTimerState;
 import de.markusbordihn.easynpc.data.server.ServerEntityData;
 import de.markusbordihn.easynpc.data.skin.SkinModel;
 import de.markusbordihn.easynpc.data.synched.SynchedDataIndex;
 import de.markusbordihn.easynpc.data.synched.SynchedEntityData;
 import de.markusbordihn.easynpc.data.ticker.TickerType;
+import de.markusbordihn.easynpc.entity.EasyNPCSpatialIndex;
+import de.markusbordihn.easynpc.entity.LivingEntityManager;
 import de.markusbordihn.easynpc.entity.easynpc.EasyNPC;
 import de.markusbordihn.easynpc.entity.easynpc.EasyNPCBase;
 import de.markusbordihn.easynpc.entity.easynpc.handlers.AttackHandler;
@@ -81,7 +85,9 @@ public class PiglinRaw extends Piglin implements EasyNPCBase<Piglin> {
     EasyNPCBase.registerEasyNPCSyncedData(entityDataAccessorMap, PiglinRaw.class);
   }
 
-  private final EnumMap<TickerType, Integer> tickerMap = new EnumMap<>(TickerType.class);
+  private final int[] tickerValues = new int[TickerType.values().length];
+  private final ActionGroupState actionGroupState = new ActionGroupState();
+  private final ActionTimerState actionTimerState = new ActionTimerState();
   protected MerchantOffers merchantTradingOffers;
   private ServerEntityData serverEntityData;
   private int attackAnimationTick;
@@ -105,14 +111,24 @@ public class PiglinRaw extends Piglin implements EasyNPCBase<Piglin> {
     return this.fakePlayer.updatePosition(level, blockPos);
   }
 
+  @Override
+  public ActionGroupState getActionGroupState() {
+    return this.actionGroupState;
+  }
+
+  @Override
+  public ActionTimerState getActionTimerState() {
+    return this.actionTimerState;
+  }
+
   @Override
   public int getTicker(TickerType tickerType) {
-    return this.tickerMap.getOrDefault(tickerType, 0);
+    return this.tickerValues[tickerType.ordinal()];
   }
 
   @Override
   public void setTicker(TickerType tickerType, int ticker) {
-    this.tickerMap.put(tickerType, ticker);
+    this.tickerValues[tickerType.ordinal()] = ticker;
   }
 
   @Override
@@ -170,6 +186,18 @@ public class PiglinRaw extends Piglin implements EasyNPCBase<Piglin> {
     return component != null ? TextUtils.removeAction(component) : this.getTypeName();
   }
 
+  @Override
+  public void setCustomName(Component component) {
+    super.setCustomName(component);
+    LivingEntityManager.updateEasyNPCName(this);
+  }
+
+  @Override
+  protected void updateControlFlags() {
+    super.updateControlFlags();
+    this.updateDormantControlFlags();
+  }
+
   @Override
   public boolean hurt(DamageSource damageSource, float damage) {
     this.handleHurtEvent(damageSource, damage);
@@ -424,11 +452,9 @@ public class PiglinRaw extends Piglin implements EasyNPCBase<Piglin> {
       return;
     }
 
-    // Handle custom objective base tick.
-    this.handleCustomObjectiveBaseTick();
-
-    // Handle base tick for specific conditions.
-    this.handleBaseTick();
+    // Update chunk section for range queries, if the NPC has moved.
+    // Periodic work is handled by the ticker scheduler of the level.
+    EasyNPCSpatialIndex.updateEasyNPC(this);
   }
 
   @Override
@@ -21,6 +21,7 @@ package de.markusbordihn.easynpc.handler;
 
 import de.markusbordihn.easynpc.Constants;
 import de.markusbordihn.easynpc.data.objective.ObjectiveDataEntry;
+import de.markusbordihn.easynpc.data.objective.ObjectiveTargetManager;
 import de.markusbordihn.easynpc.data.objective.ObjectiveType;
 import de.markusbordihn.easynpc.entity.easynpc.EasyNPC;
 import de.markusbordihn.easynpc.entity.easynpc.data.ObjectiveData;
@@ -66,6 +67,7 @@ public class OwnerHandler {
         objectiveDataEntry.setTargetOwnerUUID(owner.getUUID());
         objectiveData.removeObjective(ObjectiveType.FOLLOW_OWNER);
         objectiveData.addObjective(objectiveDataEntry);
+        ObjectiveTargetManager.updateSubscriptions(easyNPC);
       }
     }
 
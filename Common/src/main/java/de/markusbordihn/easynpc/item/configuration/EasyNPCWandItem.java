@@ -22,11 +22,15 @@ package de.markusbordihn.easynpc.item.configuration;
 import de.markusbordihn.easynpc.Constants;
 import de.markusbordihn.easynpc.data.configuration.ConfigurationType;
 import de.markusbordihn.easynpc.entity.EasyNPCBaseEntity;
+import de.markusbordihn.easynpc.entity.EasyNPCSpatialIndex;
+import de.markusbordihn.easynpc.entity.easynpc.EasyNPC;
 import de.markusbordihn.easynpc.menu.MenuManager;
 import de.markusbordihn.easynpc.network.components.TextComponent;
 import java.util.List;
+import java.util.function.Predicate;
 import net.minecraft.core.BlockPos;
 import net.minecraft.network.chat.Component;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.InteractionResult;
 import net.minecraft.world.effect.MobEffectInstance;
@@ -47,6 +51,8 @@ public class EasyNPCWandItem extends Item {
   public static final String ID = "easy_npc_wand";
   protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
   private static final int GLOWING_DURATION = 4 * 20;
+  private static final Predicate<EasyNPC<?>> IS_ALIVE_EASY_NPC =
+      easyNPC -> easyNPC instanceof EasyNPCBaseEntity<?> && easyNPC.getEntity().isAlive();
 
   public EasyNPCWandItem(Properties properties) {
     super(properties);
@@ -56,29 +62,32 @@ public class EasyNPCWandItem extends Item {
   public void inventoryTick(
       ItemStack itemStack, Level level, Entity entity, int slot, boolean selected) {
     // Highlight all nearby EasyNPC entities
-    if (selected && entity instanceof Player player) {
-      for (EasyNPCBaseEntity<?> easyNPCEntity :
-          level.getEntitiesOfClass(
-              EasyNPCBaseEntity.class, player.getBoundingBox().inflate(0.5), Entity::isAlive)) {
-        if (easyNPCEntity.hasEffect(MobEffects.GLOWING)) {
-          MobEffectInstance mobEffect = easyNPCEntity.getEffect(MobEffects.GLOWING);
-          if (mobEffect != null && mobEffect.getDuration() < 5) {
-            easyNPCEntity.addEffect(
-                new MobEffectInstance(MobEffects.GLOWING, GLOWING_DURATION, 1, false, false));
-          }
-        } else {
-          easyNPCEntity.addEffect(
-              new MobEffectInstance(MobEffects.GLOWING, GLOWING_DURATION, 1, false, false));
-        }
-      }
+    if (selected && entity instanceof Player player && level instanceof ServerLevel serverLevel) {
+      EasyNPCSpatialIndex.findNpcsInBox(
+          serverLevel,
+          player.getBoundingBox().inflate(0.5),
+          easyNPC -> {
+            if (easyNPC instanceof EasyNPCBaseEntity<?> easyNPCEntity && easyNPCEntity.isAlive()) {
+              if (easyNPCEntity.hasEffect(MobEffects.GLOWING)) {
+                MobEffectInstance mobEffect = easyNPCEntity.getEffect(MobEffects.GLOWING);
+                if (mobEffect != null && mobEffect.getDuration() < 5) {
+                  easyNPCEntity.addEffect(
+                      new MobEffectInstance(MobEffects.GLOWING, GLOWING_DURATION, 1, false, false));
+                }
+              } else {
+                easyNPCEntity.addEffect(
+                    new MobEffectInstance(MobEffects.GLOWING, GLOWING_DURATION, 1, false, false));
+              }
+            }
+          });
     }
   }
 
   @Override
   public InteractionResult useOn(UseOnContext userContext) {
-    Level level = userContext.getLevel();
     Player player = userContext.getPlayer();
     if (player instanceof ServerPlayer serverPlayer) {
+      ServerLevel serverLevel = serverPlayer.serverLevel();
       BlockPos blockPos = userContext.getClickedPos();
 
       // 1. Search all nearby EasyNPC entities above and below the block position.
@@ -90,14 +99,13 @@ public class EasyNPCWandItem extends Item {
               blockPos.getX() + 0.25d,
               blockPos.getY() + 2d,
               blockPos.getZ() + 0.25d);
-      for (EasyNPCBaseEntity<?> easyNPCEntity :
-          level.getEntitiesOfClass(
-              EasyNPCBaseEntity.class, aabbAbove.inflate(0.5), Entity::isAlive)) {
-        if (easyNPCEntity != null) {
-          MenuManager.getMenuHandler()
-              .openConfigurationMenu(ConfigurationType.MAIN, serverPlayer, easyNPCEntity, 0);
-          return InteractionResult.SUCCESS;
-        }
+      EasyNPC<?> easyNPCAbove =
+          EasyNPCSpatialIndex.findFirstNpcInBox(
+              serverLevel, aabbAbove.inflate(0.5), IS_ALIVE_EASY_NPC);
+      if (easyNPCAbove != null) {
+        MenuManager.getMenuHandler()
+            .openConfigurationMenu(ConfigurationType.MAIN, serverPlayer, easyNPCAbove, 0);
+        return InteractionResult.SUCCESS;
       }
 
       // 2. Search all nearby EasyNPC entities around the block position.
@@ -109,25 +117,23 @@ public class EasyNPCWandItem extends Item {
               blockPos.getX() + 1d,
               blockPos.getY() + 1d,
               blockPos.getZ() + 1d);
-      for (EasyNPCBaseEntity<?> easyNPCEntity :
-          level.getEntitiesOfClass(
-              EasyNPCBaseEntity.class, aabbAround.inflate(0.5), Entity::isAlive)) {
-        if (easyNPCEntity != null) {
-          MenuManager.getMenuHandler()
-              .openConfigurationMenu(ConfigurationType.MAIN, serverPlayer, easyNPCEntity, 0);
-          return InteractionResult.SUCCESS;
-        }
+      EasyNPC<?> easyNPCAround =
+          EasyNPCSpatialIndex.findFirstNpcInBox(
+              serverLevel, aabbAround.inflate(0.5), IS_ALIVE_EASY_NPC);
+      if (easyNPCAround != null) {
+        MenuManager.getMenuHandler()
+            .openConfigurationMenu(ConfigurationType.MAIN, serverPlayer, easyNPCAround, 0);
+        return InteractionResult.SUCCESS;
       }
 
       // 3. Expand the search area by 2.5x to find all nearby EasyNPC entities.
-      for (EasyNPCBaseEntity<?> easyNPCEntity :
-          level.getEntitiesOfClass(
-              EasyNPCBaseEntity.class, aabbAround.inflate(2.5), Entity::isAlive)) {
-        if (easyNPCEntity != null) {
-          MenuManager.getMenuHandler()
-              .openConfigurationMenu(ConfigurationType.MAIN, serverPlayer, easyNPCEntity, 0);
-          return InteractionResult.SUCCESS;
-        }
+      EasyNPC<?> easyNPCNearby =
+          EasyNPCSpatialIndex.findFirstNpcInBox(
+              serverLevel, aabbAround.inflate(2.5), IS_ALIVE_EASY_NPC);
+      if (easyNPCNearby != null) {
+        MenuManager.getMenuHandler()
+            .openConfigurationMenu(ConfigurationType.MAIN, serverPlayer, easyNPCNearby, 0);
+        return InteractionResult.SUCCESS;
       }
     }
     return InteractionResult.PASS;
@@ -92,6 +92,6 @@ public record ChangeActionEventMessage(
         easyNPC,
         serverPlayer,
         permissionLevel);
-    actionEventData.getActionEventSet().setActionEvent(actionEventType, actionDataSet);
+    actionEventData.setActionEvent(actionEventType, actionDataSet);
   }
 }
@@ -20,7 +20,15 @@
 package de.markusbordihn.easynpc.server;
 
 import de.markusbordihn.easynpc.Constants;
+import de.markusbordihn.easynpc.config.PerformanceConfig;
+import de.markusbordihn.easynpc.data.action.ActionCommandCache;
+import de.markusbordihn.easynpc.data.action.ActionQueueManager;
+import de.markusbordihn.easynpc.data.action.DistanceActionManager;
+import de.markusbordihn.easynpc.data.ticker.TickerScheduler;
+import de.markusbordihn.easynpc.entity.AsyncPathManager;
+import de.markusbordihn.easynpc.entity.EasyNPCDormancyManager;
 import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.level.storage.LevelResource;
 
 public class ServerEvents {
@@ -32,5 +40,28 @@ public class ServerEvents {
       return;
     }
     Constants.WORLD_DIR = minecraftServer.getWorldPath(LevelResource.ROOT);
+
+    // Apply changed performance settings, e.g. the number of pathfinding threads.
+    PerformanceConfig.parseConfigFile();
+  }
+
+  public static void handleServerStopping(MinecraftServer minecraftServer) {
+    if (minecraftServer == null) {
+      return;
+    }
+    AsyncPathManager.shutdown();
+    ActionCommandCache.invalidate();
+    TickerScheduler.clearTasks();
+  }
+
+  public static void handleServerLevelTick(ServerLevel serverLevel) {
+    if (serverLevel == null) {
+      return;
+    }
+    EasyNPCDormancyManager.tick(serverLevel);
+    DistanceActionManager.tick(serverLevel);
+    ActionQueueManager.tick(serverLevel);
+    TickerScheduler.tick(serverLevel);
+    AsyncPathManager.tick(serverLevel);
   }
 }
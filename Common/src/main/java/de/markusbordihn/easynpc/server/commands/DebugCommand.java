@@ -24,11 +24,27 @@ import com.mojang.brigadier.builder.ArgumentBuilder;
 import de.markusbordihn.easynpc.Constants;
 import de.markusbordihn.easynpc.client.renderer.manager.EntityTypeManager;
 import de.markusbordihn.easynpc.commands.Command;
+import de.markusbordihn.easynpc.config.PerformanceConfig;
+import de.markusbordihn.easynpc.data.action.ActionCommandCache;
+import de.markusbordihn.easynpc.data.action.ActionManager;
+import de.markusbordihn.easynpc.data.action.ActionQueueManager;
+import de.markusbordihn.easynpc.data.action.ActionTimerManager;
+import de.markusbordihn.easynpc.data.action.DistanceActionManager;
+import de.markusbordihn.easynpc.data.ticker.TickerScheduler;
 import de.markusbordihn.easynpc.debug.DebugManager;
+import de.markusbordihn.easynpc.entity.AsyncPathManager;
+import de.markusbordihn.easynpc.entity.EasyNPCDormancyManager;
+import de.markusbordihn.easynpc.entity.FollowGroupManager;
+import de.markusbordihn.easynpc.entity.FollowPathManager;
+import de.markusbordihn.easynpc.entity.HomePositionCache;
+import de.markusbordihn.easynpc.entity.NearestEntityQueryManager;
+import de.markusbordihn.easynpc.entity.TeleportPositionCache;
+import java.util.Arrays;
 import java.util.Set;
 import net.minecraft.ChatFormatting;
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.commands.Commands;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.EntityType;
 
@@ -50,9 +66,21 @@ public class DebugCommand extends Command {
                                     BoolArgumentType.getBool(context, "enable")))))
         .then(
             Commands.literal("info")
+                .then(
+                    Commands.literal("actions")
+                        .executes(context -> getActionManager(context.getSource())))
                 .then(
                     Commands.literal("entity_types")
-                        .executes(context -> getEntityTypes(context.getSource()))));
+                        .executes(context -> getEntityTypes(context.getSource())))
+                .then(
+                    Commands.literal("navigation")
+                        .executes(context -> getNavigation(context.getSource())))
+                .then(
+                    Commands.literal("targeting")
+                        .executes(context -> getTargeting(context.getSource())))
+                .then(
+                    Commands.literal("ticker")
+                        .executes(context -> getTickerScheduler(context.getSource()))));
   }
 
   public static int setDebug(CommandSourceStack context, boolean enable) {
@@ -79,6 +107,70 @@ public class DebugCommand extends Command {
     return Command.SINGLE_SUCCESS;
   }
 
+  public static int getActionManager(CommandSourceStack context) {
+    sendSuccessMessage(
+        context,
+        "► Found "
+            + ActionManager.getNumberOfEntries()
+            + " action group entries for "
+            + ActionManager.getNumberOfEasyNPCs()
+            + " Easy NPCs and "
+            + ActionManager.getNumberOfPlayers()
+            + " indexed players.",
+        ChatFormatting.GREEN);
+    sendSuccessMessage(
+        context,
+        "► Cached "
+            + ActionCommandCache.getNumberOfCommandTemplates()
+            + " command templates with "
+            + ActionCommandCache.getHits()
+            + " hits and "
+            + ActionCommandCache.getMisses()
+            + " misses for parsed commands.",
+        ChatFormatting.GREEN);
+    sendSuccessMessage(
+        context,
+        "► "
+            + ActionQueueManager.getQueueDepth(context.getLevel())
+            + " of "
+            + ActionQueueManager.getQueueDepth()
+            + " queued actions are in this level, with "
+            + ActionQueueManager.getExecutedActions()
+            + " executed, "
+            + ActionQueueManager.getCoalescedActions()
+            + " coalesced and "
+            + ActionQueueManager.getDroppedActions()
+            + " dropped actions.",
+        ActionQueueManager.getDroppedActions() > 0 ? ChatFormatting.YELLOW : ChatFormatting.GREEN);
+    sendSuccessMessage(
+        context,
+        "► "
+            + DistanceActionManager.getNumberOfActiveEasyNPCs()
+            + " Easy NPCs have players within their distance action range.",
+        ChatFormatting.GREEN);
+    sendSuccessMessage(
+        context,
+        "► "
+            + DistanceActionManager.getNumberOfRegisteredEasyNPCs(context.getLevel())
+            + " Easy NPCs with distance actions are checked in this level, "
+            + DistanceActionManager.getNumberOfSkippedEasyNPCs(context.getLevel())
+            + " Easy NPCs were skipped in the last proximity pass.",
+        ChatFormatting.GREEN);
+    sendSuccessMessage(
+        context,
+        "► "
+            + ActionTimerManager.getNumberOfActionTimers()
+            + " action timers are pending for "
+            + ActionTimerManager.getNumberOfEasyNPCs()
+            + " Easy NPCs, with "
+            + ActionTimerManager.getExecutedTimers()
+            + " executed and "
+            + ActionTimerManager.getDroppedTimers()
+            + " dropped timers.",
+        ActionTimerManager.getDroppedTimers() > 0 ? ChatFormatting.YELLOW : ChatFormatting.GREEN);
+    return Command.SINGLE_SUCCESS;
+  }
+
   public static int getEntityTypes(CommandSourceStack context) {
     Set<EntityType<? extends Entity>> supportedEntityTypes =
         EntityTypeManager.getSupportedEntityTypes();
@@ -105,4 +197,156 @@ public class DebugCommand extends Command {
     log.info("Unknown entity types: {}", unknownEntityTypes);
     return Command.SINGLE_SUCCESS;
   }
+
+  public static int getNavigation(CommandSourceStack context) {
+    sendSuccessMessage(
+        context,
+        "► Calculated "
+            + FollowPathManager.getNumberOfCalculatedPaths()
+            + " and shared "
+            + FollowPathManager.getNumberOfSharedPaths()
+            + " follow paths, with recent paths for "
+            + FollowPathManager.getNumberOfTargets()
+            + " targets.",
+        PerformanceConfig.isShareFollowPaths() ? ChatFormatting.GREEN : ChatFormatting.YELLOW);
+    sendSuccessMessage(
+        context,
+        "► Following "
+            + FollowGroupManager.getNumberOfGroups()
+            + " group targets with "
+            + FollowGroupManager.getNumberOfMembers()
+            + " members, with "
+            + FollowGroupManager.getNumberOfSteeringTicks()
+            + " steering ticks and "
+            + FollowGroupManager.getNumberOfFallbackPaths()
+            + " fallback paths.",
+        ChatFormatting.GREEN);
+    sendSuccessMessage(
+        context,
+        "► Cached walkable positions for "
+            + HomePositionCache.getNumberOfHomePositions()
+            + " home positions, with "
+            + HomePositionCache.getHits()
+            + " hits, "
+            + HomePositionCache.getMisses()
+            + " misses and "
+            + HomePositionCache.getInvalidations()
+            + " invalidations.",
+        ChatFormatting.GREEN);
+    sendSuccessMessage(
+        context,
+        "► Searched "
+            + TeleportPositionCache.getSearches()
+            + " teleport target areas, with "
+            + TeleportPositionCache.getHits()
+            + " memoized hits and "
+            + TeleportPositionCache.getFailedSearches()
+            + " areas without any walkable position.",
+        ChatFormatting.GREEN);
+    if (PerformanceConfig.getAsyncPathfindingThreads() > 0) {
+      sendSuccessMessage(
+          context,
+          "► Calculated "
+              + AsyncPathManager.getNumberOfAsyncPaths()
+              + " paths on "
+              + PerformanceConfig.getAsyncPathfindingThreads()
+              + " worker threads and "
+              + AsyncPathManager.getNumberOfSyncPaths()
+              + " paths synchronously, with "
+              + AsyncPathManager.getNumberOfPendingPaths()
+              + " pending, "
+              + AsyncPathManager.getNumberOfRejectedPaths()
+              + " rejected and "
+              + AsyncPathManager.getNumberOfDiscardedPaths()
+              + " discarded paths, using "
+              + AsyncPathManager.getAsyncPathNanos()
+                  / Math.max(1, AsyncPathManager.getNumberOfAsyncPaths())
+                  / 1000
+              + " µs per worker thread path and "
+              + AsyncPathManager.getSyncPathNanos()
+                  / Math.max(1, AsyncPathManager.getNumberOfSyncPaths())
+                  / 1000
+              + " µs per synchronous path on the server thread.",
+          AsyncPathManager.getNumberOfRejectedPaths() > 0
+              ? ChatFormatting.YELLOW
+              : ChatFormatting.GREEN);
+    }
+    return Command.SINGLE_SUCCESS;
+  }
+
+  public static int getTargeting(CommandSourceStack context) {
+    sendSuccessMessage(
+        context,
+        "► Answered "
+            + NearestEntityQueryManager.getNumberOfQueries()
+            + " nearest entity queries, "
+            + NearestEntityQueryManager.getNumberOfSharedQueries()
+            + " of them from shared scans, with "
+            + NearestEntityQueryManager.getNumberOfScannedSections()
+            + " scanned entity sections.",
+        PerformanceConfig.isShareNearestEntityQueries()
+            ? ChatFormatting.GREEN
+            : ChatFormatting.YELLOW);
+    return Command.SINGLE_SUCCESS;
+  }
+
+  public static int getTickerScheduler(CommandSourceStack context) {
+    ServerLevel serverLevel = context.getLevel();
+    int[] bucketSizes = TickerScheduler.getBucketSizes(serverLevel);
+    int minBucketSize = Integer.MAX_VALUE;
+    int maxBucketSize = 0;
+    int scheduledTasks = 0;
+    for (int bucketSize : bucketSizes) {
+      minBucketSize = Math.min(minBucketSize, bucketSize);
+      maxBucketSize = Math.max(maxBucketSize, bucketSize);
+      scheduledTasks += bucketSize;
+    }
+    sendSuccessMessage(
+        context,
+        "► Found "
+            + TickerScheduler.getNumberOfTasks(serverLevel)
+            + " ticker tasks for "
+            + serverLevel.dimension().location()
+            + ", with "
+            + scheduledTasks
+            + " tasks within the next "
+            + bucketSizes.length
+            + " ticks (min "
+            + minBucketSize
+            + " / max "
+            + maxBucketSize
+            + " per tick).",
+        ChatFormatting.GREEN);
+    sendSuccessMessage(
+        context,
+        "► Used "
+            + String.format("%.2f", TickerScheduler.getLastBudgetUsedNanos() / 1_000_000D)
+            + " of "
+            + PerformanceConfig.getTickBudget()
+            + " ms in the last tick, with "
+            + TickerScheduler.getLastDeferredTasks()
+            + " deferred tasks ("
+            + TickerScheduler.getNumberOfDeferredTasks(serverLevel)
+            + " pending) and "
+            + TickerScheduler.getIntervalFactor()
+            + "x intervals.",
+        TickerScheduler.getLastDeferredTasks() > 0 ? ChatFormatting.YELLOW : ChatFormatting.GREEN);
+    if (PerformanceConfig.getDormantRadius() > 0) {
+      sendSuccessMessage(
+          context,
+          "► "
+              + EasyNPCDormancyManager.getNumberOfAwakeEasyNPCs(serverLevel.getGameTime())
+              + " Easy NPCs are awake, all other Easy NPCs without any player within "
+              + PerformanceConfig.getDormantRadius()
+              + " blocks are dormant.",
+          ChatFormatting.GREEN);
+    }
+    sendSuccessMessage(
+        context,
+        "> Please check the latest.log and/or debug.log for the full output.",
+        ChatFormatting.WHITE);
+    log.info(
+        "Ticker tasks per tick for {}: {}", serverLevel.dimension(), Arrays.toString(bucketSizes));
+    return Command.SINGLE_SUCCESS;
+  }
 }
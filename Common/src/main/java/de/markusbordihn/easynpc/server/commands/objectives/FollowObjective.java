@@ -67,6 +67,17 @@ public class FollowObjective extends Command {
                         .executes(
                             context ->
                                 setFollowEntity(
+                                    context.getSource(),
+                                    EasyNPCArgument.getEntityWithAccess(
+                                        context, NPC_TARGET_ARGUMENT),
+                                    EntityArgument.getEntity(context, "entity")))))
+        .then(
+            Commands.literal(ObjectiveType.FOLLOW_GROUP.getFriendlyName())
+                .then(
+                    Commands.argument("entity", EntityArgument.entity())
+                        .executes(
+                            context ->
+                                setFollowGroup(
                                     context.getSource(),
                                     EasyNPCArgument.getEntityWithAccess(
                                         context, NPC_TARGET_ARGUMENT),
@@ -107,7 +118,15 @@ public class FollowObjective extends Command {
                         removeFollowObjective(
                             context.getSource(),
                             EasyNPCArgument.getEntityWithAccess(context, NPC_TARGET_ARGUMENT),
-                            ObjectiveType.FOLLOW_ENTITY_BY_UUID)));
+                            ObjectiveType.FOLLOW_ENTITY_BY_UUID)))
+        .then(
+            Commands.literal(ObjectiveType.FOLLOW_GROUP.getFriendlyName())
+                .executes(
+                    context ->
+                        removeFollowObjective(
+                            context.getSource(),
+                            EasyNPCArgument.getEntityWithAccess(context, NPC_TARGET_ARGUMENT),
+                            ObjectiveType.FOLLOW_GROUP)));
   }
 
   public static int removeFollowObjective(
@@ -152,6 +171,12 @@ public class FollowObjective extends Command {
             objective ->
                 sendSuccessMessage(
                     context, "> " + objective.getType() + ": " + objective.getTargetEntityUUID()));
+    objectiveData
+        .getObjectiveEntry(ObjectiveType.FOLLOW_GROUP)
+        .ifPresent(
+            objective ->
+                sendSuccessMessage(
+                    context, "> " + objective.getType() + ": " + objective.getTargetEntityUUID()));
 
     return Command.SINGLE_SUCCESS;
   }
@@ -221,6 +246,29 @@ public class FollowObjective extends Command {
         "Follow entity " + entity.getName().getString() + " objective added for " + easyNPC);
   }
 
+  public static int setFollowGroup(CommandSourceStack context, EasyNPC<?> easyNPC, Entity entity) {
+    ObjectiveData<?> objectiveData = getObjectiveData(context, easyNPC);
+    if (objectiveData == null || entity == null) {
+      return Command.FAILURE;
+    }
+
+    // Avoid adding the same entity as target
+    if (entity.getUUID().equals(easyNPC.getUUID())) {
+      return sendFailureMessage(context, "Error adding follow group objective for itself!");
+    }
+
+    // Add or update follow group objective
+    ObjectiveDataEntry objectiveDataEntry = new ObjectiveDataEntry(ObjectiveType.FOLLOW_GROUP);
+    objectiveDataEntry.setTargetEntityUUID(entity.getUUID());
+    if (!objectiveData.addOrUpdateCustomObjective(objectiveDataEntry)) {
+      return sendFailureMessage(context, "Error adding or updating follow group objective!");
+    }
+
+    return sendSuccessMessage(
+        context,
+        "Follow group of " + entity.getName().getString() + " objective added for " + easyNPC);
+  }
+
   private static ObjectiveData<?> getObjectiveData(CommandSourceStack context, EasyNPC<?> easyNPC) {
     ObjectiveData<?> objectiveData = easyNPC.getEasyNPCObjectiveData();
     if (objectiveData == null || !objectiveData.hasObjectives()) {
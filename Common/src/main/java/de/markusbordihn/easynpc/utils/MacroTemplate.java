@@ -0,0 +1,118 @@
+/*
+ * Copyright 2024 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easynpc.utils;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import net.minecraft.world.entity.Entity;
+
+/**
+ * Text with macro slots like "@npc" or "@initiator", which is split once into static parts and
+ * macros. Rendering binds the runtime values in a single pass, instead of one replace call per
+ * macro.
+ */
+public final class MacroTemplate {
+
+  public static final Set<Macro> ACTION_MACROS = EnumSet.allOf(Macro.class);
+  public static final Set<Macro> DIALOG_MACROS = EnumSet.of(Macro.NPC, Macro.INITIATOR);
+  public static final MacroTemplate EMPTY = new MacroTemplate(new String[] {""}, new Macro[0]);
+
+  private final String[] staticParts;
+  private final Macro[] macros;
+  private final int staticLength;
+
+  private MacroTemplate(String[] staticParts, Macro[] macros) {
+    this.staticParts = staticParts;
+    this.macros = macros;
+    int length = 0;
+    for (String staticPart : staticParts) {
+      length += staticPart.length();
+    }
+    this.staticLength = length;
+  }
+
+  public static MacroTemplate compile(String text, Set<Macro> supportedMacros) {
+    if (text == null || text.isEmpty()) {
+      return EMPTY;
+    }
+    List<String> staticParts = new ArrayList<>();
+    List<Macro> macros = new ArrayList<>();
+    int staticPartStart = 0;
+    int index = text.indexOf('@');
+    while (index >= 0) {
+      Macro macro = Macro.get(text, index, supportedMacros);
+      if (macro != null) {
+        staticParts.add(text.substring(staticPartStart, index));
+        macros.add(macro);
+        staticPartStart = index + macro.name.length();
+      }
+      index = text.indexOf('@', macro != null ? staticPartStart : index + 1);
+    }
+    staticParts.add(text.substring(staticPartStart));
+    return new MacroTemplate(staticParts.toArray(new String[0]), macros.toArray(new Macro[0]));
+  }
+
+  public String render(Entity entity, Entity initiator) {
+    if (this.macros.length == 0) {
+      return this.staticParts[0];
+    }
+    StringBuilder text = new StringBuilder(this.staticLength + this.macros.length * 16);
+    text.append(this.staticParts[0]);
+    for (int i = 0; i < this.macros.length; i++) {
+      text.append(this.macros[i].getValue(entity, initiator));
+      text.append(this.staticParts[i + 1]);
+    }
+    return text.toString();
+  }
+
+  public enum Macro {
+    // Longer macros need to be checked first, because of the shared prefix.
+    NPC_UUID("@npc-uuid"),
+    NPC("@npc"),
+    INITIATOR_UUID("@initiator-uuid"),
+    INITIATOR("@initiator");
+
+    private final String name;
+
+    Macro(String name) {
+      this.name = name;
+    }
+
+    private static Macro get(String text, int index, Set<Macro> supportedMacros) {
+      for (Macro macro : values()) {
+        if (supportedMacros.contains(macro) && text.startsWith(macro.name, index)) {
+          return macro;
+        }
+      }
+      return null;
+    }
+
+    private String getValue(Entity entity, Entity initiator) {
+      return switch (this) {
+        case NPC_UUID -> entity != null ? entity.getUUID().toString() : this.name;
+        case NPC -> entity != null ? entity.getName().getString() : this.name;
+        case INITIATOR_UUID -> initiator != null ? initiator.getUUID().toString() : this.name;
+        case INITIATOR -> initiator != null ? initiator.getName().getString() : this.name;
+      };
+    }
+  }
+}
@@ -43,6 +43,7 @@ import net.fabricmc.api.EnvType;
 import net.fabricmc.api.ModInitializer;
 import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.fabricmc.loader.api.FabricLoader;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -93,6 +94,8 @@ public class EasyNPCMain implements ModInitializer {
 
     log.info("{} Server Events ...", Constants.LOG_REGISTER_PREFIX);
     ServerLifecycleEvents.SERVER_STARTING.register(ServerEvents::handleServerStarting);
+    ServerLifecycleEvents.SERVER_STOPPING.register(ServerEvents::handleServerStopping);
+    ServerTickEvents.END_WORLD_TICK.register(ServerEvents::handleServerLevelTick);
     LivingEntityEventHandler.registerServerEntityEvents();
 
     log.info("{} Menu Handler ...", Constants.LOG_REGISTER_PREFIX);
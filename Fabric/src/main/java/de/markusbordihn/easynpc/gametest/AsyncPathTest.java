@@ -0,0 +1,127 @@
+/*
+ * Copyright 2024 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easynpc.gametest;
+
+import de.markusbordihn.easynpc.Constants;
+import de.markusbordihn.easynpc.entity.AsyncPathManager;
+import de.markusbordihn.easynpc.entity.ModEntityType;
+import de.markusbordihn.easynpc.entity.easynpc.EasyNPC;
+import java.util.ArrayList;
+import java.util.List;
+import net.minecraft.core.BlockPos;
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.world.entity.PathfinderMob;
+import net.minecraft.world.phys.Vec3;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+@SuppressWarnings("unused")
+public class AsyncPathTest {
+
+  private static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
+  private static final int NUMBER_OF_NPCS = 50;
+  private static final int NUMBER_OF_THREADS = 2;
+  private static final int WARMUP_TICKS = 20;
+
+  private static void moveTo(List<PathfinderMob> pathfinderMobs, BlockPos targetBlockPos) {
+    for (PathfinderMob pathfinderMob : pathfinderMobs) {
+      AsyncPathManager.moveTo(pathfinderMob, targetBlockPos, 1, 1.0D, null);
+    }
+  }
+
+  private static void stop(List<PathfinderMob> pathfinderMobs) {
+    for (PathfinderMob pathfinderMob : pathfinderMobs) {
+      AsyncPathManager.cancel(pathfinderMob);
+      pathfinderMob.getNavigation().stop();
+    }
+  }
+
+  // Separate batch, because the server thread time is measured over several ticks.
+  @GameTest(
+      template = "easy_npc:gametest.3x3x3",
+      batch = "async_paths",
+      timeoutTicks = WARMUP_TICKS + 100)
+  public void testAsyncPathServerThreadCosts(GameTestHelper helper) {
+
+    // Crowd of NPCs, which are requesting a path to the same target.
+    List<PathfinderMob> pathfinderMobs = new ArrayList<>();
+    for (int i = 0; i < NUMBER_OF_NPCS; i++) {
+      EasyNPC<?> easyNPC =
+          GameTestHelpers.mockEasyNPC(
+              helper, ModEntityType.HUMANOID, new Vec3(i % 3, 2, (i / 3) % 3));
+      pathfinderMobs.add(easyNPC.getPathfinderMob());
+    }
+    BlockPos targetBlockPos = helper.absolutePos(new BlockPos(1, 2, 17));
+
+    // The first requests are creating the path snapshots of the NPCs, which are reused later.
+    AsyncPathManager.runWithThreads(
+        NUMBER_OF_THREADS, () -> moveTo(pathfinderMobs, targetBlockPos));
+
+    long[] serverThreadNanos = new long[2];
+    long[] asyncPaths = new long[1];
+    int[] ticks = new int[1];
+    helper.onEachTick(
+        () -> {
+          int tick = ticks[0]++;
+          if (tick < WARMUP_TICKS) {
+            return;
+          } else if (tick == WARMUP_TICKS) {
+            // Same requests without and with pathfinding threads, measured on the server thread.
+            stop(pathfinderMobs);
+            long syncPathNanos = AsyncPathManager.getSyncPathNanos();
+            AsyncPathManager.runWithThreads(0, () -> moveTo(pathfinderMobs, targetBlockPos));
+            serverThreadNanos[0] = AsyncPathManager.getSyncPathNanos() - syncPathNanos;
+            stop(pathfinderMobs);
+            serverThreadNanos[1] = AsyncPathManager.getAsyncPathNanos();
+            asyncPaths[0] = AsyncPathManager.getNumberOfAsyncPaths();
+            AsyncPathManager.runWithThreads(
+                NUMBER_OF_THREADS, () -> moveTo(pathfinderMobs, targetBlockPos));
+            asyncPaths[0] = AsyncPathManager.getNumberOfAsyncPaths() - asyncPaths[0];
+            return;
+          }
+
+          // Wait until all paths are applied, which is also measured on the server thread.
+          for (PathfinderMob pathfinderMob : pathfinderMobs) {
+            if (AsyncPathManager.hasPendingPath(pathfinderMob)) {
+              return;
+            }
+          }
+          long syncPathMicros = serverThreadNanos[0] / NUMBER_OF_NPCS / 1000;
+          long asyncPathMicros =
+              (AsyncPathManager.getAsyncPathNanos() - serverThreadNanos[1]) / NUMBER_OF_NPCS / 1000;
+          log.info(
+              "Server thread time for {} paths: {} µs per synchronous path and {} µs per path on {}"
+                  + " pathfinding threads.",
+              NUMBER_OF_NPCS,
+              syncPathMicros,
+              asyncPathMicros,
+              NUMBER_OF_THREADS);
+          helper.assertTrue(
+              asyncPaths[0] == NUMBER_OF_NPCS,
+              "Expected "
+                  + NUMBER_OF_NPCS
+                  + " paths on pathfinding threads, but got "
+                  + asyncPaths[0]
+                  + "!");
+          helper.succeed();
+        });
+  }
+}
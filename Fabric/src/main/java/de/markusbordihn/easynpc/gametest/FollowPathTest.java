@@ -0,0 +1,142 @@
+/*
+ * Copyright 2024 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easynpc.gametest;
+
+import de.markusbordihn.easynpc.Constants;
+import de.markusbordihn.easynpc.entity.FollowPathManager;
+import de.markusbordihn.easynpc.entity.ModEntityType;
+import de.markusbordihn.easynpc.entity.easynpc.EasyNPC;
+import de.markusbordihn.easynpc.entity.easynpc.ai.goal.FollowLivingEntityGoal;
+import java.util.ArrayList;
+import java.util.List;
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.PathfinderMob;
+import net.minecraft.world.phys.Vec3;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+@SuppressWarnings("unused")
+public class FollowPathTest {
+
+  private static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
+  private static final int NUMBER_OF_FOLLOWERS = 50;
+  private static final int MEASURE_TICKS = 100;
+
+  private static Vec3 getTargetPosition(int tick) {
+    double angle = tick * 0.05D;
+    return new Vec3(1 + Math.cos(angle) * 6.0D, 2, 1 + Math.sin(angle) * 6.0D);
+  }
+
+  private static Vec3 getFollowerPosition(int index) {
+    return new Vec3(index % 3, 2, (index / 3) % 3);
+  }
+
+  private static double getPathsPerSecond(long paths) {
+    return paths * 20.0D / MEASURE_TICKS;
+  }
+
+  // Separate batch, because the number of calculated paths is counted over several ticks.
+  @GameTest(
+      template = "easy_npc:gametest.3x3x3",
+      batch = "follow_paths",
+      timeoutTicks = MEASURE_TICKS * 2 + 20)
+  public void testSharedFollowPaths(GameTestHelper helper) {
+
+    // Spawn a player, which is followed by all NPCs with the real follow goal.
+    ServerPlayer serverPlayer = GameTestHelpers.mockServerPlayer(helper, new Vec3(1, 2, 1));
+    List<PathfinderMob> followers = new ArrayList<>();
+    List<FollowLivingEntityGoal> followGoals = new ArrayList<>();
+    for (int i = 0; i < NUMBER_OF_FOLLOWERS; i++) {
+      EasyNPC<?> easyNPC =
+          GameTestHelpers.mockEasyNPC(helper, ModEntityType.HUMANOID, getFollowerPosition(i));
+      followers.add(easyNPC.getPathfinderMob());
+      followGoals.add(new FollowLivingEntityGoal(easyNPC, serverPlayer, 1.0D, 1.0F, 32.0F));
+    }
+
+    // Both runs are using the same goals and target movement, only path sharing is toggled.
+    boolean[] runningGoals = new boolean[NUMBER_OF_FOLLOWERS];
+    long[] calculatedPaths = new long[3];
+    int[] ticks = new int[1];
+    helper.onEachTick(
+        () -> {
+          int tick = ticks[0]++;
+          if (tick > MEASURE_TICKS * 2) {
+            return;
+          }
+
+          if (tick == 0 || tick == MEASURE_TICKS) {
+            // Reset the goals and followers to the same start state for each run.
+            for (int i = 0; i < NUMBER_OF_FOLLOWERS; i++) {
+              if (runningGoals[i]) {
+                followGoals.get(i).stop();
+                runningGoals[i] = false;
+              }
+              followers.get(i).moveTo(helper.absoluteVec(getFollowerPosition(i)));
+              followers.get(i).getNavigation().stop();
+            }
+            calculatedPaths[tick / MEASURE_TICKS] = FollowPathManager.getNumberOfCalculatedPaths();
+          } else if (tick == MEASURE_TICKS * 2) {
+            calculatedPaths[2] = FollowPathManager.getNumberOfCalculatedPaths();
+            long individualPaths = calculatedPaths[1] - calculatedPaths[0];
+            long sharedPaths = calculatedPaths[2] - calculatedPaths[1];
+            log.info(
+                "Path calculations for {} followers: {} per second without and {} per second with"
+                    + " shared paths.",
+                NUMBER_OF_FOLLOWERS,
+                getPathsPerSecond(individualPaths),
+                getPathsPerSecond(sharedPaths));
+            helper.assertTrue(
+                sharedPaths < individualPaths,
+                "Expected less path calculations for "
+                    + NUMBER_OF_FOLLOWERS
+                    + " followers with shared paths, but got "
+                    + getPathsPerSecond(sharedPaths)
+                    + " instead of "
+                    + getPathsPerSecond(individualPaths)
+                    + " per second!");
+            helper.succeed();
+            return;
+          }
+
+          // Run the follow goals like the goal selector, with or without shared paths.
+          boolean sharePaths = tick >= MEASURE_TICKS;
+          serverPlayer.setPos(helper.absoluteVec(getTargetPosition(tick % MEASURE_TICKS)));
+          FollowPathManager.runWithSharing(
+              sharePaths,
+              () -> {
+                for (int i = 0; i < NUMBER_OF_FOLLOWERS; i++) {
+                  FollowLivingEntityGoal followGoal = followGoals.get(i);
+                  if (runningGoals[i] && !followGoal.canContinueToUse()) {
+                    followGoal.stop();
+                    runningGoals[i] = false;
+                  } else if (!runningGoals[i] && followGoal.canUse()) {
+                    followGoal.start();
+                    runningGoals[i] = true;
+                  }
+                  if (runningGoals[i]) {
+                    followGoal.tick();
+                  }
+                }
+              });
+        });
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2024 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easynpc.gametest;
+
+import de.markusbordihn.easynpc.entity.ModEntityType;
+import de.markusbordihn.easynpc.entity.NearestEntityQueryManager;
+import de.markusbordihn.easynpc.entity.easynpc.EasyNPC;
+import java.util.ArrayList;
+import java.util.List;
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.world.entity.Mob;
+import net.minecraft.world.entity.ai.targeting.TargetingConditions;
+import net.minecraft.world.phys.Vec3;
+
+@SuppressWarnings("unused")
+public class NearestEntityQueryTest {
+
+  private static final int NUMBER_OF_CROWDED_NPCS = 200;
+  private static final int NUMBER_OF_SPARSE_NPCS = 16;
+  private static final int SPARSE_NPC_DISTANCE = 16;
+  private static final float LOOK_DISTANCE = 8.0F;
+  private static final TargetingConditions TARGETING_CONDITIONS =
+      TargetingConditions.forNonCombat().range(LOOK_DISTANCE);
+
+  private static long getScannedSections(List<Mob> mobs, boolean shareQueries) {
+    long scannedSections = NearestEntityQueryManager.getNumberOfScannedSections();
+    NearestEntityQueryManager.runWithSharing(
+        shareQueries,
+        () -> {
+          for (Mob mob : mobs) {
+            NearestEntityQueryManager.getNearestEntity(
+                mob, Mob.class, TARGETING_CONDITIONS, LOOK_DISTANCE, 3.0D);
+          }
+        });
+    return NearestEntityQueryManager.getNumberOfScannedSections() - scannedSections;
+  }
+
+  @GameTest(template = "easy_npc:gametest.3x3x3")
+  public void testCrowdedNearestEntityQueries(GameTestHelper helper) {
+
+    // Crowd of NPCs within the same sections, which should share their scans.
+    List<Mob> mobs = new ArrayList<>();
+    for (int i = 0; i < NUMBER_OF_CROWDED_NPCS; i++) {
+      EasyNPC<?> easyNPC =
+          GameTestHelpers.mockEasyNPC(
+              helper, ModEntityType.HUMANOID, new Vec3(i % 3, 2, (i / 3) % 3));
+      mobs.add(easyNPC.getMob());
+    }
+
+    long individualScannedSections = getScannedSections(mobs, false);
+    long sharedScannedSections = getScannedSections(mobs, true);
+    helper.assertTrue(
+        sharedScannedSections < individualScannedSections,
+        "Expected less scanned sections for "
+            + mobs.size()
+            + " crowded NPCs with shared queries, but got "
+            + sharedScannedSections
+            + " instead of "
+            + individualScannedSections
+            + "!");
+    helper.succeed();
+  }
+
+  @GameTest(template = "easy_npc:gametest.3x3x3")
+  public void testSparseNearestEntityQueries(GameTestHelper helper) {
+
+    // Single NPCs in separate sections, which should scan the same as without sharing.
+    List<Mob> mobs = new ArrayList<>();
+    for (int i = 0; i < NUMBER_OF_SPARSE_NPCS; i++) {
+      EasyNPC<?> easyNPC =
+          GameTestHelpers.mockEasyNPC(
+              helper,
+              ModEntityType.HUMANOID,
+              new Vec3((i % 4) * SPARSE_NPC_DISTANCE, 2, (i / 4) * SPARSE_NPC_DISTANCE));
+      mobs.add(easyNPC.getMob());
+    }
+
+    long individualScannedSections = getScannedSections(mobs, false);
+    long sharedScannedSections = getScannedSections(mobs, true);
+    helper.assertTrue(
+        sharedScannedSections == individualScannedSections,
+        "Expected the same scanned sections for "
+            + mobs.size()
+            + " sparse NPCs with shared queries, but got "
+            + sharedScannedSections
+            + " instead of "
+            + individualScannedSections
+            + "!");
+    helper.succeed();
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2024 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.easynpc.gametest;
+
+import de.markusbordihn.easynpc.data.objective.ObjectiveDataEntry;
+import de.markusbordihn.easynpc.data.objective.ObjectiveDataSet;
+import de.markusbordihn.easynpc.data.objective.ObjectiveType;
+import de.markusbordihn.easynpc.entity.ModEntityType;
+import de.markusbordihn.easynpc.entity.easynpc.EasyNPC;
+import de.markusbordihn.easynpc.entity.easynpc.data.ObjectiveData;
+import java.util.UUID;
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.phys.Vec3;
+
+@SuppressWarnings("unused")
+public class ObjectiveTargetTest {
+
+  private static void spawnLivingEntity(GameTestHelper helper, UUID uuid, Vec3 position) {
+    LivingEntity livingEntity = EntityType.PIG.create(helper.getLevel());
+    GameTestHelpers.assertNotNull(helper, "LivingEntity is null!", livingEntity);
+    livingEntity.setUUID(uuid);
+    livingEntity.setPos(helper.absoluteVec(position));
+    helper.assertTrue(
+        helper.getLevel().addFreshEntity(livingEntity), "Failed to spawn " + livingEntity + "!");
+  }
+
+  @GameTest(template = "easy_npc:gametest.3x3x3")
+  public void testObjectiveRefreshesPerJoinEvent(GameTestHelper helper) {
+
+    // Spawn a humanoid NPC, which follows a not yet spawned living entity.
+    EasyNPC<?> easyNPC =
+        GameTestHelpers.mockEasyNPC(helper, ModEntityType.HUMANOID, new Vec3(1, 2, 1));
+    ObjectiveData<?> objectiveData = easyNPC.getEasyNPCObjectiveData();
+    GameTestHelpers.assertNotNull(helper, "ObjectiveData is null!", objectiveData);
+    UUID targetUUID = UUID.randomUUID();
+    ObjectiveDataEntry objectiveDataEntry =
+        new ObjectiveDataEntry(ObjectiveType.FOLLOW_ENTITY_BY_UUID, 6);
+    objectiveDataEntry.setTargetEntityUUID(targetUUID);
+    objectiveData.addOrUpdateCustomObjective(objectiveDataEntry);
+    ObjectiveDataSet objectiveDataSet = objectiveData.getObjectiveDataSet();
+    int refreshedObjectives = objectiveDataSet.getNumberOfRefreshedObjectives();
+
+    // Join events of other living entities should not refresh any objective.
+    spawnLivingEntity(helper, UUID.randomUUID(), new Vec3(2, 2, 2));
+    helper.assertTrue(
+        objectiveDataSet.getNumberOfRefreshedObjectives() == refreshedObjectives,
+        "Objective was refreshed by an unrelated join event!");
+
+    // Join event of the target should refresh the objective exactly once.
+    spawnLivingEntity(helper, targetUUID, new Vec3(2, 2, 1));
+    helper.assertTrue(
+        objectiveDataSet.getNumberOfRefreshedObjectives() == refreshedObjectives + 1,
+        "Expected one refresh for the join event of the target, but got "
+            + (objectiveDataSet.getNumberOfRefreshedObjectives() - refreshedObjectives)
+            + "!");
+    helper.assertTrue(objectiveDataEntry.isRegistered(), "Objective is not registered!");
+
+    // Periodic checks should not refresh the already resolved objective again.
+    objectiveData.handleCustomObjectiveBaseTick();
+    helper.assertTrue(
+        objectiveDataSet.getNumberOfRefreshedObjectives() == refreshedObjectives + 1,
+        "Resolved objective was refreshed again by the periodic check!");
+
+    helper.succeed();
+  }
+}
@@ -19,7 +19,10 @@
 
 package de.markusbordihn.easynpc.server;
 
+import net.minecraft.server.level.ServerLevel;
+import net.minecraftforge.event.TickEvent;
 import net.minecraftforge.event.server.ServerStartingEvent;
+import net.minecraftforge.event.server.ServerStoppingEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
 
@@ -32,4 +35,16 @@ public class ServerEventHandler {
   public static void handleServerAboutToStartEvent(ServerStartingEvent event) {
     ServerEvents.handleServerStarting(event.getServer());
   }
+
+  @SubscribeEvent
+  public static void handleServerStoppingEvent(ServerStoppingEvent event) {
+    ServerEvents.handleServerStopping(event.getServer());
+  }
+
+  @SubscribeEvent
+  public static void handleLevelTickEvent(TickEvent.LevelTickEvent event) {
+    if (event.phase == TickEvent.Phase.END && event.level instanceof ServerLevel serverLevel) {
+      ServerEvents.handleServerLevelTick(serverLevel);
+    }
+  }
 }